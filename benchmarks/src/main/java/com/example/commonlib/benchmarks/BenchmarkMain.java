@@ -0,0 +1,95 @@
+package com.example.commonlib.benchmarks;
+
+import com.example.commonlib.client.CircuitBreakerBenchmark;
+import com.example.commonlib.client.ClientBenchmark;
+import com.example.commonlib.client.CompressionBenchmark;
+import com.example.commonlib.client.RetryExecutorBenchmark;
+import com.example.commonlib.tracing.RequestSpanBenchmark;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatFactory;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the benchmark suites with the GC profiler, so allocation per operation is reported next to the time,
+ * and writes every result to one JSON file that runs can be compared by, e.g. with
+ * <a href="https://jmh.morethan.io">JMH Visualizer</a> or a CI step that diffs two files.
+ * <p>
+ * Run all suites with {@code java -jar benchmarks/target/benchmarks.jar}, or some of them by passing their
+ * class names, e.g. {@code java -jar benchmarks/target/benchmarks.jar CircuitBreakerBenchmark}. Other arguments
+ * are JMH options and override the benchmarks' annotations, e.g. {@code -wi 1 -i 3} for a quicker run. Results
+ * go to {@code jmh-result.json}, or the file given by {@code -Dbenchmarks.result=<path>}.
+ */
+public final class BenchmarkMain {
+
+    /**
+     * A benchmark class and the thread counts it runs with; none means those of its {@code @Threads}.
+     */
+    record Suite(Class<?> benchmark, int... threads) {
+    }
+
+    static final List<Suite> SUITES = List.of(
+            new Suite(CircuitBreakerBenchmark.class, 1, 4, 16, 64),
+            new Suite(RetryExecutorBenchmark.class),
+            new Suite(RequestSpanBenchmark.class),
+            new Suite(CompressionBenchmark.class),
+            new Suite(ClientBenchmark.class)
+    );
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException, CommandLineOptionException {
+        List<String> selected = new ArrayList<>();
+        List<String> jmhArgs = new ArrayList<>();
+        for (String arg : args) {
+            boolean suite = SUITES.stream().anyMatch(s -> s.benchmark().getSimpleName().equals(arg));
+            (suite ? selected : jmhArgs).add(arg);
+        }
+        CommandLineOptions jmhOptions = new CommandLineOptions(jmhArgs.toArray(String[]::new));
+
+        List<RunResult> results = new ArrayList<>();
+        for (Suite suite : SUITES) {
+            String name = suite.benchmark().getSimpleName();
+            if (!selected.isEmpty() && !selected.contains(name)) {
+                continue;
+            }
+            if (suite.threads().length == 0) {
+                results.addAll(run(options(jmhOptions, name)));
+            }
+            for (int threads : suite.threads()) {
+                results.addAll(run(options(jmhOptions, name).threads(threads)));
+            }
+        }
+
+        Path output = Path.of(System.getProperty("benchmarks.result", "jmh-result.json"));
+        try (PrintStream out = new PrintStream(Files.newOutputStream(output))) {
+            ResultFormatFactory.getInstance(ResultFormatType.JSON, out).writeOut(results);
+        }
+        System.out.println("Results of " + results.size() + " benchmarks written to " + output.toAbsolutePath());
+    }
+
+    private static ChainedOptionsBuilder options(CommandLineOptions jmhOptions, String benchmark) {
+        return new OptionsBuilder()
+                .parent(jmhOptions)
+                .include("\\." + benchmark + "\\.")
+                .addProfiler(GCProfiler.class);
+    }
+
+    private static List<RunResult> run(ChainedOptionsBuilder options) throws RunnerException {
+        return new ArrayList<>(new Runner(options.build()).run());
+    }
+}
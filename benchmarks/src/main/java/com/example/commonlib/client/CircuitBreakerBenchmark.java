@@ -0,0 +1,72 @@
+package com.example.commonlib.client;
+
+import com.example.commonlib.config.CircuitBreakerProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the breaker calls every request makes, with one breaker shared by all threads as with a busy host.
+ * The breaker is configured never to trip, so failures too go through the closed state's bookkeeping, which is
+ * where contention between threads shows.
+ * <p>
+ * {@link com.example.commonlib.benchmarks.BenchmarkMain} runs it with 1, 4, 16 and 64 threads. Run with
+ * {@code java -jar benchmarks/target/benchmarks.jar CircuitBreakerBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CircuitBreakerBenchmark {
+
+    @Param({"CONSECUTIVE", "COUNT_BASED", "TIME_BASED"})
+    public CircuitBreakerProperties.Mode mode;
+
+    private CircuitBreaker breaker;
+
+    @Setup
+    public void setUp() {
+        CircuitBreakerProperties props = new CircuitBreakerProperties();
+        props.setMode(mode);
+        props.setFailureThreshold(Integer.MAX_VALUE);
+        props.setMinimumNumberOfCalls(Integer.MAX_VALUE);
+        breaker = new CircuitBreaker(props);
+    }
+
+    @Benchmark
+    public boolean allowRequest() {
+        return breaker.allowRequest();
+    }
+
+    @Benchmark
+    public void recordSuccess() {
+        breaker.recordSuccess();
+    }
+
+    @Benchmark
+    public void recordFailure() {
+        breaker.recordFailure();
+    }
+
+    /**
+     * The breaker's share of a successful call.
+     */
+    @Benchmark
+    public CircuitBreaker.Permit successfulCall() {
+        CircuitBreaker.Permit permit = breaker.tryAcquire();
+        breaker.recordSuccess(permit);
+        return permit;
+    }
+}
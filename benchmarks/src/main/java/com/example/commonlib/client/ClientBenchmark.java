@@ -0,0 +1,119 @@
+package com.example.commonlib.client;
+
+import com.example.commonlib.config.CircuitBreakerProperties;
+import com.example.commonlib.config.RestClientProperties;
+import com.example.commonlib.config.RetryProperties;
+import com.example.commonlib.config.TransportProperties;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end latency of {@link CommonRestClient#get} and {@link CommonRestClient#post} with each transport,
+ * against an in-process HTTP server on the loopback interface that answers with a small JSON body. Retry and
+ * the circuit breaker are on, as in a typical service; logging is at WARN, so spans are sampled but not written.
+ * <p>
+ * Run with {@code java -jar benchmarks/target/benchmarks.jar ClientBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ClientBenchmark {
+
+    private static final byte[] CUSTOMER = """
+            {"id":123,"name":"Ada Lovelace","email":"ada@example.com","tier":"GOLD"}"""
+            .getBytes(StandardCharsets.UTF_8);
+
+    public record Customer(long id, String name, String email, String tier) {
+    }
+
+    @Param({"SIMPLE", "JDK", "APACHE"})
+    public TransportProperties.Type transport;
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private CommonRestClient client;
+    private String url;
+    private Customer customer;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Without TCP_NODELAY the server's separate header and body writes wait out the client's delayed ACK
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/customers", ClientBenchmark::respond);
+        serverThreads = Executors.newFixedThreadPool(8);
+        server.setExecutor(serverThreads);
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/customers/123";
+
+        RestClientProperties props = new RestClientProperties();
+        props.setConnectionTimeout(1000);
+        props.setReadTimeout(1000);
+        props.getTransport().setType(transport);
+        RetryProperties retry = new RetryProperties();
+        retry.setMaxAttempts(3);
+        props.setRetry(retry);
+        props.setCircuitBreaker(new CircuitBreakerProperties());
+        client = new CommonRestClient(props);
+        customer = new Customer(123, "Ada Lovelace", "ada@example.com", "GOLD");
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        client.close();
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Benchmark
+    public Customer get() {
+        return client.get(url, Customer.class);
+    }
+
+    @Benchmark
+    public Customer post() {
+        return client.post(url, customer, Customer.class);
+    }
+
+    /**
+     * Answers every request with the same customer, after reading the request body so the connection can be
+     * reused.
+     */
+    private static void respond(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            in.readAllBytes();
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, CUSTOMER.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(CUSTOMER);
+        }
+    }
+}
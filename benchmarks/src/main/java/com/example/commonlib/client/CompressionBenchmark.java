@@ -0,0 +1,116 @@
+package com.example.commonlib.client;
+
+import com.example.commonlib.config.CompressionProperties;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CPU cost and bytes on the wire of compressing a JSON request body and decoding a gzip response, with
+ * pooled deflaters and inflaters against a new {@link GZIPOutputStream} / {@link GZIPInputStream} per call.
+ * The {@code wireBytes} and {@code rawBytes} counters give the compression ratio at each level.
+ * <p>
+ * Run with {@code java -jar benchmarks/target/benchmarks.jar CompressionBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class CompressionBenchmark {
+
+    @Param({"1", "6"})
+    public int level;
+
+    @Param({"4096", "262144"})
+    public int payloadBytes;
+
+    private Compression compression;
+    private byte[] payload;
+    private byte[] gzipped;
+
+    /**
+     * Bytes before and after compression, summed per thread.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Wire {
+        public long rawBytes;
+        public long wireBytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        CompressionProperties props = new CompressionProperties();
+        props.setLevel(level);
+        compression = new Compression(props);
+
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; json.length() < payloadBytes; i++) {
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"orderId\":").append(100000 + i)
+                    .append(",\"customer\":\"customer-").append(i % 97)
+                    .append("\",\"status\":\"").append(i % 3 == 0 ? "SHIPPED" : "OPEN")
+                    .append("\",\"amount\":").append(i * 7 % 1000).append(".99}");
+        }
+        payload = json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+        gzipped = compression.gzip(payload);
+    }
+
+    @Benchmark
+    public byte[] pooledGzip(Wire wire) throws IOException {
+        byte[] compressed = compression.gzip(payload);
+        wire.rawBytes += payload.length;
+        wire.wireBytes += compressed.length;
+        return compressed;
+    }
+
+    @Benchmark
+    public byte[] newGzipOutputStream(Wire wire) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(level);
+            }
+        }) {
+            gzip.write(payload);
+        }
+        wire.rawBytes += payload.length;
+        wire.wireBytes += out.size();
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] pooledDecode() throws IOException {
+        return compression.decode(Compression.GZIP, gzipped);
+    }
+
+    @Benchmark
+    public byte[] newGzipInputStream() throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            return in.readAllBytes();
+        }
+    }
+}
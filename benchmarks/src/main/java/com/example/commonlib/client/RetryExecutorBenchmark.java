@@ -0,0 +1,72 @@
+package com.example.commonlib.client;
+
+import com.example.commonlib.config.RetryProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead the retry loop adds to a call that succeeds on its first attempt, blocking and async, against
+ * calling the action directly. With a retry budget, every success also deposits a token in the budget shared
+ * by all threads.
+ * <p>
+ * Run with {@code java -jar benchmarks/target/benchmarks.jar RetryExecutorBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class RetryExecutorBenchmark {
+
+    private static final String RESPONSE = "ok";
+
+    /**
+     * Retry budget in percent, 0 disables it.
+     */
+    @Param({"0", "10"})
+    public double budgetPercent;
+
+    private RetryExecutor retryExecutor;
+    private RetryExecutor.Attempt<String> attempt;
+    private RetryExecutor.AsyncAttempt<String> asyncAttempt;
+
+    @Setup
+    public void setUp() {
+        RetryProperties props = new RetryProperties();
+        props.setMaxAttempts(3);
+        props.setBudgetPercent(budgetPercent);
+        retryExecutor = new RetryExecutor(props, SharedScheduler.get());
+        attempt = number -> RESPONSE;
+        asyncAttempt = number -> CompletableFuture.completedFuture(RESPONSE);
+    }
+
+    @Benchmark
+    public String direct() throws Exception {
+        return attempt.call(1);
+    }
+
+    @Benchmark
+    public String executeWithRetry() throws Exception {
+        return retryExecutor.executeWithRetry(attempt);
+    }
+
+    @Benchmark
+    public String executeAsync() {
+        return retryExecutor.executeAsync(asyncAttempt).join();
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.commonlib.tracing;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.helpers.NOPLogger;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call cost of the span lifecycle a successful call goes through (start, one attempt, success),
+ * against the former UUID and {@link Instant} based span. The logger discards everything, so only the
+ * span's own work is measured.
+ * <p>
+ * Run with {@code java -jar benchmarks/target/benchmarks.jar RequestSpanBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class RequestSpanBenchmark {
+
+    private static final Logger LOG = NOPLogger.NOP_LOGGER;
+    private static final String URL = "https://api.example.com/customers/123";
+
+    /**
+     * The span as it was before sampling and level guards.
+     */
+    static final class LegacyRequestSpan {
+        private final String spanId;
+        private final Instant startTime;
+
+        LegacyRequestSpan() {
+            this.spanId = UUID.randomUUID().toString();
+            this.startTime = Instant.now();
+        }
+
+        void logStart(Logger log, String url) {
+            log.info("[SPAN {}] Started call to {} at {}", spanId, url, startTime);
+        }
+
+        void logRetry(Logger log, int attempt, String url) {
+            log.info("[SPAN {}] Retry attempt {} for {}", spanId, attempt, url);
+        }
+
+        void logSuccess(Logger log, String url) {
+            long durationMs = Duration.between(startTime, Instant.now()).toMillis();
+            log.info("[SPAN {}] Successfully completed call to {} in {} ms", spanId, url, durationMs);
+        }
+    }
+
+    @Benchmark
+    public Object legacy() {
+        LegacyRequestSpan span = new LegacyRequestSpan();
+        span.logStart(LOG, URL);
+        span.logRetry(LOG, 1, URL);
+        span.logSuccess(LOG, URL);
+        return span;
+    }
+
+    @Benchmark
+    public Object sampledAll() {
+        RequestSpan span = RequestSpan.start(1.0);
+        span.logStart(LOG, URL);
+        span.logRetry(LOG, 1, URL);
+        span.logSuccess(LOG, URL);
+        return span;
+    }
+
+    @Benchmark
+    public Object sampledOnePercent() {
+        RequestSpan span = RequestSpan.start(0.01);
+        span.logStart(LOG, URL);
+        span.logRetry(LOG, 1, URL);
+        span.logSuccess(LOG, URL);
+        return span;
+    }
+}
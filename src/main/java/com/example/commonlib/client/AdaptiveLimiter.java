@@ -0,0 +1,87 @@
+package com.example.commonlib.client;
+
+import com.example.commonlib.config.AdaptiveLimitProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit for one downstream that follows its measured round-trip times, as computed by the
+ * {@link LimitAlgorithm} selected with {@link AdaptiveLimitProperties.Algorithm}.
+ * <p>
+ * Admission is a CAS on the in-flight counter against the published limit. Samples are applied under a
+ * {@link ReentrantLock}, which keeps the algorithms simple without pinning virtual threads.
+ */
+public class AdaptiveLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveLimiter.class);
+
+    private final LimitAlgorithm algorithm;
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private double estimate;
+    private volatile int limit;
+
+    public AdaptiveLimiter(AdaptiveLimitProperties props) {
+        this.algorithm = switch (props.getAlgorithm()) {
+            case AIMD -> new AimdLimit(props);
+            case GRADIENT -> new GradientLimit(props);
+        };
+        this.minLimit = Math.max(1, props.getMinLimit());
+        this.maxLimit = Math.max(minLimit, props.getMaxLimit());
+        this.estimate = Math.max(minLimit, Math.min(maxLimit, props.getInitialLimit()));
+        this.limit = (int) estimate;
+    }
+
+    /**
+     * @return {@code true} if the call may proceed and must later {@link #release()}
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Feeds the round trip of one attempt into the limit. Must be called while the attempt still holds
+     * its permit.
+     *
+     * @param dropped whether the attempt failed with a 5xx or a timeout
+     */
+    public void onSample(long startNanos, long endNanos, boolean dropped) {
+        lock.lock();
+        try {
+            double next = algorithm.update(estimate, startNanos, endNanos, inFlight.get(), dropped);
+            estimate = Math.max(minLimit, Math.min(maxLimit, next));
+            int rounded = (int) estimate;
+            if (rounded != limit) {
+                log.debug("Concurrency limit changed from {} to {}", limit, rounded);
+                limit = rounded;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.commonlib.client;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * What a blocking call holds while it runs: its place in the downstream's in-flight count, a bulkhead slot, a
+ * share of the adaptive limit and the circuit breaker permit its outcome is recorded against. They are given
+ * back once, when the call ends, which for a streamed response is when the reader of its body closes.
+ */
+final class Admission {
+
+    private final DownstreamMetrics metrics;
+    private final Deadline deadline;
+    private final Bulkhead bulkhead;
+    private final AdaptiveLimiter limiter;
+    private final CircuitBreaker circuitBreaker;
+    private final CircuitBreaker.Permit permit;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    Admission(DownstreamMetrics metrics, Deadline deadline, Bulkhead bulkhead, AdaptiveLimiter limiter,
+              CircuitBreaker circuitBreaker, CircuitBreaker.Permit permit) {
+        this.metrics = metrics;
+        this.deadline = deadline;
+        this.bulkhead = bulkhead;
+        this.limiter = limiter;
+        this.circuitBreaker = circuitBreaker;
+        this.permit = permit;
+    }
+
+    DownstreamMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * @return the call's deadline, or {@code null}
+     */
+    Deadline deadline() {
+        return deadline;
+    }
+
+    /**
+     * @return the downstream's adaptive limiter, or {@code null}
+     */
+    AdaptiveLimiter limiter() {
+        return limiter;
+    }
+
+    void recordSuccess() {
+        if (circuitBreaker != null) {
+            circuitBreaker.recordSuccess(permit);
+        }
+    }
+
+    void recordFailure() {
+        if (circuitBreaker != null) {
+            circuitBreaker.recordFailure(permit);
+        }
+    }
+
+    /**
+     * Ends the call's place in the in-flight count and frees its bulkhead slot and limit; later calls do nothing.
+     */
+    void release() {
+        if (released.compareAndSet(false, true)) {
+            metrics.callFinished();
+            if (limiter != null) {
+                limiter.release();
+            }
+            if (bulkhead != null) {
+                bulkhead.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.commonlib.client;
+
+import com.example.commonlib.config.AdaptiveLimitProperties;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Additive increase, multiplicative decrease. Each success adds {@code 1 / limit}, so a full window of
+ * successful calls raises the limit by one. Overload multiplies it by the backoff ratio, but only once
+ * per window: attempts that were sent before the last decrease took effect are ignored, otherwise one
+ * latency spike seen by every in-flight call would collapse the limit.
+ */
+final class AimdLimit implements LimitAlgorithm {
+
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+    private boolean decreased;
+    private long lastDecreaseNanos;
+
+    AimdLimit(AdaptiveLimitProperties props) {
+        this.backoffRatio = props.getBackoffRatio();
+        this.latencyThresholdNanos = props.getLatencyThresholdMs() > 0
+                ? TimeUnit.MILLISECONDS.toNanos(props.getLatencyThresholdMs())
+                : Long.MAX_VALUE;
+    }
+
+    @Override
+    public double update(double limit, long startNanos, long endNanos, int inFlight, boolean dropped) {
+        if (dropped || endNanos - startNanos > latencyThresholdNanos) {
+            if (decreased && startNanos - lastDecreaseNanos < 0) {
+                return limit;
+            }
+            decreased = true;
+            lastDecreaseNanos = endNanos;
+            return limit * backoffRatio;
+        }
+        // Only grow while the limit is actually being used
+        if (inFlight * 2 >= limit) {
+            return limit + 1 / limit;
+        }
+        return limit;
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.commonlib.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.UnknownHttpStatusCodeException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking exchange on a JDK {@link HttpClient}. Bodies are converted the way {@code RestClient}'s
+ * default converters do it ({@code String} and {@code byte[]} as-is, anything else as JSON), and error
+ * statuses surface as the same {@link org.springframework.web.client.HttpStatusCodeException} subtypes,
+ * so callers can share the blocking path's error mapping. Where a {@link Compression} is configured, bodies are
+ * compressed and decoded the way {@link CompressingRequestFactory} does it for the blocking path.
+ */
+final class AsyncHttpTransport {
+
+    private static final String JSON_ACCEPT = "application/json, application/*+json, */*";
+    private static final String TEXT_ACCEPT = "text/plain, " + JSON_ACCEPT;
+
+    private final Supplier<HttpClient> httpClient;
+    private final ObjectMapper objectMapper;
+    private final Function<String, Compression> compressionFor;
+
+    /**
+     * @param compressionFor the compression of a URL, or {@code null} where it is not configured
+     */
+    AsyncHttpTransport(Supplier<HttpClient> httpClient, ObjectMapper objectMapper,
+                       Function<String, Compression> compressionFor) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.compressionFor = compressionFor;
+    }
+
+    /**
+     * @param headers     extra request headers, for example trace propagation, or {@code null}
+     * @param readTimeout how long to wait for the response headers and then for each part of the body, zero for
+     *                    no limit
+     * @param bodyBytes   receives the number of body bytes of a successful response, after decoding, or {@code null}
+     */
+    <T> CompletableFuture<ResponseEntity<T>> exchange(HttpMethod method, String url, HttpHeaders headers, Object body,
+                                                       Class<T> responseType, Duration readTimeout,
+                                                       LongConsumer bodyBytes) {
+        Compression compression = compressionFor.apply(url);
+        boolean bounded = !readTimeout.isZero() && !readTimeout.isNegative();
+        HttpRequest request;
+        try {
+            byte[] bytes = bodyBytes(body);
+            boolean compressed = compression != null && bytes != null && compression.compresses(bytes.length);
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                    .header(HttpHeaders.ACCEPT, responseType == String.class ? TEXT_ACCEPT : JSON_ACCEPT)
+                    .method(method.name(), bytes != null
+                            ? HttpRequest.BodyPublishers.ofByteArray(compressed ? compression.gzip(bytes) : bytes)
+                            : HttpRequest.BodyPublishers.noBody());
+            if (bounded) {
+                builder.timeout(readTimeout);
+            }
+            if (headers != null) {
+                headers.forEach((name, values) -> values.forEach(value -> builder.header(name, value)));
+            }
+            if (body != null) {
+                builder.header(HttpHeaders.CONTENT_TYPE, contentType(body));
+            }
+            if (compressed) {
+                builder.header(HttpHeaders.CONTENT_ENCODING, Compression.GZIP);
+            }
+            if (compression != null && compression.decompressesResponses()
+                    && (headers == null || !headers.containsKey(HttpHeaders.ACCEPT_ENCODING))) {
+                builder.header(HttpHeaders.ACCEPT_ENCODING, Compression.ACCEPT_ENCODING);
+            }
+            request = builder.build();
+        } catch (IOException | IllegalArgumentException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+
+        // The request timeout only covers the headers, so the body is bounded per part as well
+        long readTimeoutNanos = readTimeout.toNanos();
+        CompletableFuture<HttpResponse<byte[]>> sent = httpClient.get()
+                .sendAsync(request, bounded
+                        ? responseInfo -> new ReadTimeoutSubscriber(readTimeoutNanos)
+                        : HttpResponse.BodyHandlers.ofByteArray());
+        CompletableFuture<ResponseEntity<T>> result = sent.handle((response, error) -> {
+            if (error != null) {
+                Throwable cause = RetryExecutor.unwrap(error);
+                throw new ResourceAccessException("I/O error on " + method.name() + " request for \""
+                        + url + "\": " + cause.getMessage(),
+                        cause instanceof IOException io ? io : new IOException(cause));
+            }
+            HttpHeaders responseHeaders = headersOf(response);
+            byte[] bytes = decode(compression, responseHeaders, response.body());
+            T entity = readBody(response.statusCode(), responseHeaders, bytes, responseType);
+            if (bodyBytes != null) {
+                bodyBytes.accept(bytes != null ? bytes.length : 0);
+            }
+            return ResponseEntity.status(response.statusCode())
+                    .headers(responseHeaders)
+                    .body(entity);
+        });
+        // Completing the returned future early, by cancelling a hedge that lost or by a deadline, aborts the exchange
+        result.whenComplete((entity, error) -> {
+            if (error != null) {
+                sent.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Collects a body like {@link HttpResponse.BodySubscribers#ofByteArray()}, but fails it with an
+     * {@link HttpTimeoutException} and cancels the download when no part of it arrives within the read timeout.
+     */
+    private static final class ReadTimeoutSubscriber implements HttpResponse.BodySubscriber<byte[]> {
+
+        private final HttpResponse.BodySubscriber<byte[]> delegate = HttpResponse.BodySubscribers.ofByteArray();
+        private final long readTimeoutNanos;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private volatile Flow.Subscription subscription;
+        private volatile ScheduledFuture<?> timer;
+
+        ReadTimeoutSubscriber(long readTimeoutNanos) {
+            this.readTimeoutNanos = readTimeoutNanos;
+        }
+
+        @Override
+        public CompletionStage<byte[]> getBody() {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            restartTimer();
+            delegate.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> item) {
+            restartTimer();
+            delegate.onNext(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            if (done.compareAndSet(false, true)) {
+                timer.cancel(false);
+                delegate.onError(throwable);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (done.compareAndSet(false, true)) {
+                timer.cancel(false);
+                delegate.onComplete();
+            }
+        }
+
+        private void restartTimer() {
+            ScheduledFuture<?> previous = timer;
+            if (previous != null) {
+                previous.cancel(false);
+            }
+            timer = SharedScheduler.get().schedule(this::timeOut, readTimeoutNanos, TimeUnit.NANOSECONDS);
+        }
+
+        private void timeOut() {
+            if (done.compareAndSet(false, true)) {
+                subscription.cancel();
+                delegate.onError(new HttpTimeoutException("Read timed out waiting for the response body"));
+            }
+        }
+    }
+
+    private static HttpHeaders headersOf(HttpResponse<?> response) {
+        HttpHeaders headers = new HttpHeaders();
+        response.headers().map().forEach(headers::addAll);
+        return headers;
+    }
+
+    private byte[] bodyBytes(Object body) throws IOException {
+        if (body == null) {
+            return null;
+        }
+        if (body instanceof String text) {
+            return text.getBytes(StandardCharsets.UTF_8);
+        }
+        if (body instanceof byte[] bytes) {
+            return bytes;
+        }
+        return objectMapper.writeValueAsBytes(body);
+    }
+
+    /**
+     * Decodes a compressed response body and drops the headers that described the encoded one.
+     */
+    private static byte[] decode(Compression compression, HttpHeaders headers, byte[] body) {
+        String encoding = headers.getFirst(HttpHeaders.CONTENT_ENCODING);
+        if (compression == null || !compression.decompressesResponses() || !Compression.isSupported(encoding)) {
+            return body;
+        }
+        headers.remove(HttpHeaders.CONTENT_ENCODING);
+        headers.remove(HttpHeaders.CONTENT_LENGTH);
+        try {
+            return compression.decode(encoding, body);
+        } catch (IOException ex) {
+            throw new ResourceAccessException("Could not decode " + encoding + " response body: " + ex.getMessage(), ex);
+        }
+    }
+
+    private static String contentType(Object body) {
+        if (body instanceof String) {
+            return "text/plain;charset=UTF-8";
+        }
+        return body instanceof byte[] ? MediaType.APPLICATION_OCTET_STREAM_VALUE : MediaType.APPLICATION_JSON_VALUE;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T readBody(int statusCode, HttpHeaders headers, byte[] bytes, Class<T> responseType) {
+        HttpStatusCode status = HttpStatusCode.valueOf(statusCode);
+        Charset charset = charsetOf(headers);
+        if (status.isError()) {
+            throw statusException(status, headers, bytes, charset);
+        }
+
+        if (responseType == Void.class || bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (responseType == byte[].class) {
+            return (T) bytes;
+        }
+        if (responseType == String.class) {
+            return (T) new String(bytes, charset);
+        }
+        try {
+            return objectMapper.readValue(bytes, responseType);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not read response body as " + responseType.getName(), ex);
+        }
+    }
+
+    private static RuntimeException statusException(HttpStatusCode status, HttpHeaders headers,
+                                                    byte[] body, Charset charset) {
+        HttpStatus resolved = HttpStatus.resolve(status.value());
+        String statusText = resolved != null ? resolved.getReasonPhrase() : "";
+        if (status.is4xxClientError()) {
+            return HttpClientErrorException.create(status, statusText, headers, body, charset);
+        }
+        if (status.is5xxServerError()) {
+            return HttpServerErrorException.create(status, statusText, headers, body, charset);
+        }
+        return new UnknownHttpStatusCodeException(status.value(), statusText, headers, body, charset);
+    }
+
+    private static Charset charsetOf(HttpHeaders headers) {
+        MediaType contentType = headers.getContentType();
+        return contentType != null && contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+    }
+}
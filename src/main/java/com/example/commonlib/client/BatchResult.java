@@ -0,0 +1,34 @@
+package com.example.commonlib.client;
+
+/**
+ * Outcome of one item of a batch call: either its response body or the exception the call failed with,
+ * mapped as for a single call.
+ *
+ * @param value the response body, {@code null} on failure
+ * @param error the failure, usually a {@link com.example.commonlib.exception.RemoteServiceException},
+ *              or {@code null} on success
+ */
+public record BatchResult<T>(T value, RuntimeException error) {
+
+    public static <T> BatchResult<T> success(T value) {
+        return new BatchResult<>(value, null);
+    }
+
+    public static <T> BatchResult<T> failure(RuntimeException error) {
+        return new BatchResult<>(null, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * @return the response body, or throws the failure
+     */
+    public T getOrThrow() {
+        if (error != null) {
+            throw error;
+        }
+        return value;
+    }
+}
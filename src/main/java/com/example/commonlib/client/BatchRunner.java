@@ -0,0 +1,105 @@
+package com.example.commonlib.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Runs one async call per item with at most {@code window} of them in flight, starting the next item as soon
+ * as one completes. Every call goes through the full pipeline on its own, so retries and circuit breaker
+ * outcomes are counted per item.
+ */
+final class BatchRunner {
+
+    private BatchRunner() {
+    }
+
+    /**
+     * @return a future of the results in the order of {@code items}; it never completes exceptionally
+     */
+    static <I, T> CompletableFuture<List<BatchResult<T>>> run(List<I> items, int window,
+                                                              Function<I, CompletableFuture<T>> call) {
+        int size = items.size();
+        CompletableFuture<List<BatchResult<T>>> result = new CompletableFuture<>();
+        if (size == 0) {
+            result.complete(List.of());
+            return result;
+        }
+        Batch<I, T> batch = new Batch<>(items, call, result);
+        for (int lane = 0, lanes = Math.min(Math.max(1, window), size); lane < lanes; lane++) {
+            batch.runLane();
+        }
+        return result;
+    }
+
+    private static final class Batch<I, T> {
+
+        private final List<I> items;
+        private final Function<I, CompletableFuture<T>> call;
+        private final CompletableFuture<List<BatchResult<T>>> result;
+        private final AtomicReferenceArray<BatchResult<T>> results;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger completed = new AtomicInteger();
+
+        Batch(List<I> items, Function<I, CompletableFuture<T>> call, CompletableFuture<List<BatchResult<T>>> result) {
+            this.items = items;
+            this.call = call;
+            this.result = result;
+            this.results = new AtomicReferenceArray<>(items.size());
+        }
+
+        /**
+         * Starts items one after another until one is still in flight, then continues from its completion.
+         * Calls that complete right away, like cache hits, are handled in the loop rather than recursively.
+         */
+        void runLane() {
+            int index;
+            while ((index = next.getAndIncrement()) < items.size()) {
+                CompletableFuture<T> future;
+                try {
+                    future = call.apply(items.get(index));
+                } catch (RuntimeException ex) {
+                    future = CompletableFuture.failedFuture(ex);
+                }
+                if (!future.isDone()) {
+                    int pending = index;
+                    future.whenComplete((value, error) -> {
+                        record(pending, value, error);
+                        runLane();
+                    });
+                    return;
+                }
+                T value = null;
+                Throwable error = null;
+                try {
+                    value = future.join();
+                } catch (CompletionException | CancellationException ex) {
+                    error = ex;
+                }
+                record(index, value, error);
+            }
+        }
+
+        private void record(int index, T value, Throwable error) {
+            results.set(index, error == null ? BatchResult.success(value) : BatchResult.failure(toRuntime(error)));
+            if (completed.incrementAndGet() == items.size()) {
+                List<BatchResult<T>> ordered = new ArrayList<>(items.size());
+                for (int i = 0; i < items.size(); i++) {
+                    ordered.add(results.get(i));
+                }
+                result.complete(Collections.unmodifiableList(ordered));
+            }
+        }
+
+        private static RuntimeException toRuntime(Throwable error) {
+            Throwable cause = RetryExecutor.unwrap(error);
+            return cause instanceof RuntimeException runtime ? runtime : new CompletionException(cause);
+        }
+    }
+}
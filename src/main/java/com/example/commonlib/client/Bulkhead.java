@@ -0,0 +1,76 @@
+package com.example.commonlib.client;
+
+import com.example.commonlib.config.BulkheadProperties;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps the number of calls in flight to one downstream so a slow dependency cannot hold every
+ * caller thread. Free slots are taken with a non-blocking CAS; only when none is left may a blocking
+ * caller join a bounded wait queue for at most {@link BulkheadProperties#getMaxWaitMs()}.
+ */
+public class Bulkhead {
+
+    private final int maxConcurrentCalls;
+    private final int maxWaitQueue;
+    private final long maxWaitNanos;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    public Bulkhead(BulkheadProperties props) {
+        this.maxConcurrentCalls = Math.max(1, props.getMaxConcurrentCalls());
+        this.maxWaitQueue = Math.max(0, props.getMaxWaitQueue());
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, props.getMaxWaitMs()));
+        this.permits = new Semaphore(maxConcurrentCalls);
+    }
+
+    /**
+     * Takes a slot without waiting, for callers that must not block.
+     *
+     * @return {@code true} if the call may proceed and must later {@link #release()}
+     */
+    public boolean tryAcquire() {
+        return permits.tryAcquire();
+    }
+
+    /**
+     * Takes a slot, waiting in the queue if it has room.
+     *
+     * @return {@code true} if the call may proceed and must later {@link #release()}
+     */
+    public boolean acquire() throws InterruptedException {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        if (maxWaitQueue == 0 || maxWaitNanos == 0) {
+            return false;
+        }
+        if (waiting.incrementAndGet() > maxWaitQueue) {
+            waiting.decrementAndGet();
+            return false;
+        }
+        try {
+            return permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    public int getInFlight() {
+        return maxConcurrentCalls - permits.availablePermits();
+    }
+
+    public int getQueued() {
+        return waiting.get();
+    }
+}
@@ -2,10 +2,23 @@ package com.example.commonlib.client;
 
 import com.example.commonlib.config.CircuitBreakerProperties;
 
-import java.time.Duration;
-import java.time.Instant;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Lock-free circuit breaker. State changes are CAS transitions and failure accounting is delegated
+ * to an {@link OutcomeWindow} chosen by {@link CircuitBreakerProperties.Mode}, so no caller ever
+ * blocks on another and the hot path does not allocate.
+ * <p>
+ * Once the open duration has passed, the breaker lets through at most
+ * {@link CircuitBreakerProperties#getPermittedCallsInHalfOpen()} probe calls and closes again only
+ * when {@link CircuitBreakerProperties#getHalfOpenSuccessRatio()} of them succeed.
+ * <p>
+ * Callers that report outcomes should take a {@link Permit} from {@link #tryAcquire()} and report against it:
+ * an outcome only counts towards the state that admitted its call, so a slow call let through while closed
+ * cannot count as a half-open probe, and a probe of an earlier half-open period cannot close the breaker.
+ */
 public class CircuitBreaker {
 
     public enum State {
@@ -14,43 +27,189 @@ public class CircuitBreaker {
         HALF_OPEN // Test state after cool-down
     }
 
-    private final int failureThreshold;
-    private final Duration openStateDuration;
-    private final AtomicInteger failureCount = new AtomicInteger(0);
-    private volatile State state = State.CLOSED;
-    private volatile Instant lastFailureTime;
+    /**
+     * Notified after every state change, on the thread that caused it.
+     */
+    public interface StateListener {
+        void onStateChange(State from, State to);
+    }
+
+    /**
+     * Admission of one call by the state the breaker was in at the time, to report the call's outcome
+     * against. Outcomes of calls admitted before the last state change are ignored.
+     */
+    public interface Permit {
+    }
+
+    /**
+     * Immutable view of the current state. A new instance is only created on a transition, which
+     * gives each OPEN period its timestamp, each HALF_OPEN period its own probe counters, and each
+     * period its identity as the {@link Permit} of the calls it admits.
+     */
+    private static final class Phase implements Permit {
+        private final State state;
+        private final long sinceNanos;
+        private final AtomicInteger permits;
+        private final AtomicInteger successes;
+        private final AtomicInteger failures;
+
+        private Phase(State state, long sinceNanos, int permits) {
+            this.state = state;
+            this.sinceNanos = sinceNanos;
+            this.permits = new AtomicInteger(permits);
+            this.successes = new AtomicInteger();
+            this.failures = new AtomicInteger();
+        }
+
+        private boolean tryAcquireProbe() {
+            while (true) {
+                int available = permits.get();
+                if (available <= 0) {
+                    return false;
+                }
+                if (permits.compareAndSet(available, available - 1)) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    private final long openStateDurationNanos;
+    private final int permittedCallsInHalfOpen;
+    private final int requiredHalfOpenSuccesses;
+    private final OutcomeWindow window;
+    private final AtomicReference<Phase> phase = new AtomicReference<>(new Phase(State.CLOSED, 0, 0));
+    private final StateListener listener;
 
     public CircuitBreaker(CircuitBreakerProperties props) {
-        this.failureThreshold = props.getFailureThreshold();
-        this.openStateDuration = Duration.ofMillis(props.getOpenDurationMs());
+        this(props, null);
     }
 
-    public synchronized boolean allowRequest() {
-        if (state == State.OPEN) {
-            if (Instant.now().isAfter(lastFailureTime.plus(openStateDuration))) {
-                state = State.HALF_OPEN;
-                return true;
+    public CircuitBreaker(CircuitBreakerProperties props, StateListener listener) {
+        this.listener = listener;
+        this.openStateDurationNanos = TimeUnit.MILLISECONDS.toNanos(props.getOpenDurationMs());
+        this.permittedCallsInHalfOpen = Math.max(1, props.getPermittedCallsInHalfOpen());
+        this.requiredHalfOpenSuccesses = Math.max(1,
+                (int) Math.ceil(permittedCallsInHalfOpen * props.getHalfOpenSuccessRatio()));
+        this.window = switch (props.getMode()) {
+            case CONSECUTIVE -> new ConsecutiveFailureWindow(props.getFailureThreshold());
+            case COUNT_BASED -> SlidingOutcomeWindow.countBased(props.getWindowSize(), props.getBucketCount(),
+                    props.getMinimumNumberOfCalls(), props.getFailureRateThreshold());
+            case TIME_BASED -> SlidingOutcomeWindow.timeBased(props.getWindowDurationMs(), props.getBucketCount(),
+                    props.getMinimumNumberOfCalls(), props.getFailureRateThreshold());
+        };
+    }
+
+    /**
+     * @return whether a call may be sent now; its outcome is reported against the current state, see
+     * {@link #tryAcquire()}
+     */
+    public boolean allowRequest() {
+        return tryAcquire() != null;
+    }
+
+    /**
+     * @return the permit to report the call's outcome against, or {@code null} if the call must not be sent
+     */
+    public Permit tryAcquire() {
+        Phase current = phase.get();
+        if (current.state == State.CLOSED) {
+            return current;
+        }
+
+        long now = System.nanoTime();
+        if (current.state == State.OPEN) {
+            if (now - current.sinceNanos < openStateDurationNanos) {
+                return null;
             }
-            return false;
+            current = moveToHalfOpen(current, now);
         }
-        return true;
+
+        if (current.state == State.HALF_OPEN) {
+            if (current.tryAcquireProbe()) {
+                return current;
+            }
+            // Probes that never reported back must not keep the breaker half-open forever
+            if (now - current.sinceNanos >= openStateDurationNanos
+                    && current.successes.get() + current.failures.get() < permittedCallsInHalfOpen) {
+                Phase renewed = moveToHalfOpen(current, now);
+                return renewed.state == State.HALF_OPEN && renewed.tryAcquireProbe() ? renewed : null;
+            }
+            return null;
+        }
+        return current.state == State.CLOSED ? current : null;
     }
 
-    public synchronized void recordSuccess() {
-        failureCount.set(0);
-        state = State.CLOSED;
+    /**
+     * Records a success against the current state, for callers that do not keep the call's {@link Permit}.
+     */
+    public void recordSuccess() {
+        recordSuccess(phase.get());
     }
 
-    public synchronized void recordFailure() {
-        failureCount.incrementAndGet();
-        lastFailureTime = Instant.now();
+    /**
+     * Records the success of a call admitted with {@code permit}, unless the breaker has changed state since.
+     */
+    public void recordSuccess(Permit permit) {
+        Phase admitted = (Phase) permit;
+        if (phase.get() != admitted) {
+            return;
+        }
+        if (admitted.state == State.CLOSED) {
+            window.recordSuccess();
+        } else if (admitted.state == State.HALF_OPEN
+                && admitted.successes.incrementAndGet() >= requiredHalfOpenSuccesses
+                && phase.compareAndSet(admitted, new Phase(State.CLOSED, System.nanoTime(), 0))) {
+            window.reset();
+            fireStateChange(State.HALF_OPEN, State.CLOSED);
+        }
+    }
+
+    /**
+     * Records a failure against the current state, for callers that do not keep the call's {@link Permit}.
+     */
+    public void recordFailure() {
+        recordFailure(phase.get());
+    }
 
-        if (failureCount.get() >= failureThreshold) {
-            state = State.OPEN;
+    /**
+     * Records the failure of a call admitted with {@code permit}, unless the breaker has changed state since.
+     */
+    public void recordFailure(Permit permit) {
+        Phase admitted = (Phase) permit;
+        if (phase.get() != admitted) {
+            return;
+        }
+        if (admitted.state == State.CLOSED) {
+            if (window.recordFailure() && phase.compareAndSet(admitted, new Phase(State.OPEN, System.nanoTime(), 0))) {
+                fireStateChange(State.CLOSED, State.OPEN);
+            }
+        } else if (admitted.state == State.HALF_OPEN
+                && admitted.failures.incrementAndGet() > permittedCallsInHalfOpen - requiredHalfOpenSuccesses
+                // Too many probes failed for the success ratio to still be reachable
+                && phase.compareAndSet(admitted, new Phase(State.OPEN, System.nanoTime(), 0))) {
+            fireStateChange(State.HALF_OPEN, State.OPEN);
         }
     }
 
     public State getState() {
-        return state;
+        return phase.get().state;
+    }
+
+    private Phase moveToHalfOpen(Phase expected, long now) {
+        Phase halfOpen = new Phase(State.HALF_OPEN, now, permittedCallsInHalfOpen);
+        if (phase.compareAndSet(expected, halfOpen)) {
+            if (expected.state != State.HALF_OPEN) {
+                fireStateChange(expected.state, State.HALF_OPEN);
+            }
+            return halfOpen;
+        }
+        return phase.get();
+    }
+
+    private void fireStateChange(State from, State to) {
+        if (listener != null) {
+            listener.onStateChange(from, to);
+        }
     }
 }
@@ -0,0 +1,24 @@
+package com.example.commonlib.client;
+
+/**
+ * Instrumentation hook of {@link CommonRestClient}. The client asks for one {@link DownstreamMetrics} per
+ * route or host when it first sees it and keeps it next to that downstream's circuit breaker and limiters,
+ * so implementations can resolve their meters and tags once per downstream instead of once per call.
+ */
+public interface ClientMetrics {
+
+    enum Outcome {
+        SUCCESS, // 1xx, 2xx and 3xx responses
+        CLIENT_ERROR, // 4xx responses
+        SERVER_ERROR, // 5xx responses
+        IO_ERROR, // No response: connection failures, timeouts
+        REJECTED // Not sent: open circuit, full bulkhead or concurrency limit
+    }
+
+    ClientMetrics NOOP = downstream -> DownstreamMetrics.NOOP;
+
+    /**
+     * @param downstream route name, host and port of an unrouted URL, or {@code "*"} for the shared downstream
+     */
+    DownstreamMetrics downstream(String downstream);
+}
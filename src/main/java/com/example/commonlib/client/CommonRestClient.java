@@ -1,45 +1,179 @@
 package com.example.commonlib.client;
 
+import com.example.commonlib.config.AdaptiveLimitProperties;
+import com.example.commonlib.config.BulkheadProperties;
+import com.example.commonlib.config.CircuitBreakerProperties;
+import com.example.commonlib.config.CompressionProperties;
+import com.example.commonlib.config.HedgeProperties;
 import com.example.commonlib.config.RestClientProperties;
+import com.example.commonlib.config.RouteProperties;
+import com.example.commonlib.config.TracingProperties;
 import com.example.commonlib.exception.BadRequestException;
+import com.example.commonlib.exception.BulkheadFullException;
+import com.example.commonlib.exception.ConcurrencyLimitExceededException;
 import com.example.commonlib.exception.InternalServerErrorException;
 import com.example.commonlib.exception.NotFoundException;
 import com.example.commonlib.exception.RemoteServiceException;
 import com.example.commonlib.model.RemoteErrorResponse;
+import com.example.commonlib.tracing.BatchSpanProcessor;
 import com.example.commonlib.tracing.RequestSpan;
+import com.example.commonlib.tracing.SpanData;
+import com.example.commonlib.tracing.SpanExporter;
+import com.example.commonlib.tracing.TraceContext;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.HttpMessageConverterExtractor;
+import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.ResponseErrorHandler;
 import org.springframework.web.client.RestClient;
 
-import java.util.concurrent.Callable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
-public class CommonRestClient {
+public class CommonRestClient implements AutoCloseable {
 
     private static final Logger log = LoggerFactory.getLogger(CommonRestClient.class);
+    private static final long DEFAULT_IDLE_EVICTION_MS = 600000;
+    private static final int REFRESH_THREADS = 4;
+    private static final int REFRESH_QUEUE_SIZE = 256;
+    private static final ResponseErrorHandler STREAM_ERROR_HANDLER = new DefaultResponseErrorHandler();
 
+    private final ExecutorService virtualThreads;
+    private final ObjectMapper objectMapper;
+    private final HttpTransport transport;
     private final RestClient restClient;
+    private final List<HttpMessageConverter<?>> messageConverters;
+    private final AsyncHttpTransport asyncTransport;
     private final RetryExecutor retryExecutor;
-    private final CircuitBreaker circuitBreaker;
+    private final double samplingRate;
+    private final boolean propagation;
+    private final BatchSpanProcessor spanProcessor;
+    private final DownstreamRegistry<CircuitBreaker> circuitBreakers;
+    private final DownstreamRegistry<Bulkhead> bulkheads;
+    private final DownstreamRegistry<AdaptiveLimiter> limiters;
+    private final DownstreamRegistry<DownstreamMetrics> downstreamMetrics;
+    private final DownstreamRegistry<Hedger> hedgers;
+    private final DownstreamRegistry<Compression> compressions;
+    private final RouteResolver routes;
+    private final Timeouts timeouts;
+    private final ResponseCache responseCache;
+    private final SingleFlight<RequestKey, Object> singleFlight;
+    private final ExecutorService refreshExecutor;
+    private final Set<RequestKey> refreshing = ConcurrentHashMap.newKeySet();
 
     public CommonRestClient(RestClientProperties props) {
-        var factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(props.getConnectionTimeout());
-        factory.setReadTimeout(props.getReadTimeout());
+        this(props, Jackson2ObjectMapperBuilder.json().build());
+    }
+
+    /**
+     * @param objectMapper used for JSON bodies on both the blocking and the async path
+     */
+    public CommonRestClient(RestClientProperties props, ObjectMapper objectMapper) {
+        this(props, objectMapper, ClientMetrics.NOOP);
+    }
+
+    /**
+     * @param objectMapper used for JSON bodies on both the blocking and the async path
+     * @param metrics      receives latency, retry, circuit breaker and in-flight measurements per downstream
+     */
+    public CommonRestClient(RestClientProperties props, ObjectMapper objectMapper, ClientMetrics metrics) {
+        this(props, objectMapper, metrics, null);
+    }
+
+    /**
+     * @param objectMapper used for JSON bodies on both the blocking and the async path
+     * @param metrics      receives latency, retry, circuit breaker and in-flight measurements per downstream
+     * @param spanExporter receives finished, sampled spans in batches off the request thread, or {@code null}
+     */
+    public CommonRestClient(RestClientProperties props, ObjectMapper objectMapper, ClientMetrics metrics,
+                            SpanExporter spanExporter) {
+        this.virtualThreads = props.getExecutionMode() == RestClientProperties.ExecutionMode.VIRTUAL
+                ? VirtualThreads.newThreadPerTaskExecutor()
+                : null;
+        this.objectMapper = objectMapper;
+        RouteResolver routes = new RouteResolver(props.getRoutes());
+        this.routes = routes;
+        this.timeouts = new Timeouts(props, routes);
+        this.transport = HttpTransport.create(props, virtualThreads, timeouts);
+        this.compressions = createCompressions(props, routes);
+        List<HttpMessageConverter<?>> messageConverters = new ArrayList<>();
         this.restClient = RestClient.builder()
-                .requestFactory(factory)
+                .requestFactory(new DeadlineRequestFactory(compressions != null
+                        ? new CompressingRequestFactory(transport.requestFactory(), this::compressionFor)
+                        : transport.requestFactory()))
+                .messageConverters(converters -> {
+                    converters.replaceAll(converter ->
+                            converter instanceof MappingJackson2HttpMessageConverter
+                                    ? new MappingJackson2HttpMessageConverter(objectMapper)
+                                    : converter);
+                    messageConverters.addAll(converters);
+                })
                 .build();
+        this.messageConverters = List.copyOf(messageConverters);
+        this.asyncTransport = new AsyncHttpTransport(transport::httpClient, objectMapper, this::compressionFor);
+
+        TracingProperties tracing = props.getTracing();
+        this.samplingRate = tracing.getSamplingRate();
+        this.propagation = tracing.isPropagation();
+        this.spanProcessor = spanExporter != null
+                ? new BatchSpanProcessor(spanExporter, tracing.getExportQueueSize(), tracing.getExportBatchSize(),
+                        tracing.getExportIntervalMs())
+                : null;
 
         this.retryExecutor = props.getRetry() != null
                 ? new RetryExecutor(props.getRetry())
                 : null;
 
-        this.circuitBreaker = props.getCircuitBreaker() != null
-                ? new CircuitBreaker(props.getCircuitBreaker())
+        this.responseCache = props.getCache() != null ? new ResponseCache(props.getCache()) : null;
+        this.singleFlight = props.isSingleFlight() ? new SingleFlight<>() : null;
+        this.refreshExecutor = props.getCache() != null && props.getCache().getStaleWhileRevalidateMs() > 0
+                ? (virtualThreads != null ? virtualThreads : newRefreshExecutor())
                 : null;
+        this.downstreamMetrics = createDownstreamMetrics(metrics, routes);
+        this.circuitBreakers = createCircuitBreakers(props, routes, metrics);
+        this.bulkheads = createBulkheads(props, routes);
+        this.limiters = createLimiters(props, routes, metrics);
+        this.hedgers = createHedgers(props, routes);
     }
 
     /**
@@ -50,8 +184,25 @@ public class CommonRestClient {
      *     <li><strong>Retry:</strong> If {@code RetryProperties} are configured, the request will be retried
      *     according to the defined retry policy (e.g., max attempts, delay, backoff multiplier).</li>
      *     <li><strong>Circuit Breaker:</strong> If {@code CircuitBreakerProperties} are configured, the circuit breaker
-     *     monitors failures. When failures exceed the defined threshold, further requests are blocked until the
+     *     of the target host (or matching route) monitors failures. When failures exceed the defined threshold, further requests are blocked until the
      *     circuit transitions back to the half-open state after the configured duration.</li>
+     *     <li><strong>Bulkhead:</strong> If {@code BulkheadProperties} are configured, only a limited number of calls
+     *     to the same downstream are in flight at once. Further calls wait in a bounded queue for up to the configured
+     *     time and are otherwise rejected with a {@link BulkheadFullException} of status 429.</li>
+     *     <li><strong>Adaptive limit:</strong> If {@code AdaptiveLimitProperties} are configured, the number of calls
+     *     in flight to the same downstream is capped by a limit that follows its measured latency. Calls above the
+     *     limit are rejected with a {@link ConcurrencyLimitExceededException} of status 429.</li>
+     *     <li><strong>Cache:</strong> If {@code CacheProperties} are configured, fresh responses are answered from
+     *     memory without a request, and stale ones are revalidated with {@code If-None-Match} or
+     *     {@code If-Modified-Since}. Cached bodies are shared between callers and must not be modified.</li>
+     *     <li><strong>Hedging:</strong> If {@code HedgeProperties} are configured, a second identical request is sent
+     *     when the first has not answered within the hedge delay, and the first response wins. Hedged calls run
+     *     on the JDK {@code HttpClient}.</li>
+     *     <li><strong>Stale responses:</strong> Within the configured windows, a stale cached response is returned
+     *     at once while it is refreshed in the background, or instead of a 5xx, I/O error, rejection or open
+     *     circuit.</li>
+     *     <li><strong>Single flight:</strong> If enabled, concurrent calls for the same URL and response type share
+     *     one request and all receive its result or exception.</li>
      * </ul>
      * <p>
      * The method automatically handles and maps HTTP errors to domain-specific exceptions such as:
@@ -69,26 +220,83 @@ public class CommonRestClient {
      * @throws com.example.commonlib.exception.NotFoundException            if the server returns HTTP 404 (Not Found)
      * @throws com.example.commonlib.exception.InternalServerErrorException if the server returns HTTP 500 (Internal Server Error)
      */
+    @SuppressWarnings("unchecked")
     public <T> T get(String url, Class<T> responseType) {
-        RequestSpan span = RequestSpan.start();
-        span.logStart(log, url);
-        checkIfCircuitBreakerClosed(url);
+        if (responseCache == null && singleFlight == null) {
+            return exchangeGet(url, responseType, null, null).getBody();
+        }
+        RequestKey key = new RequestKey(url, responseType);
+        if (responseCache != null) {
+            ResponseCache.Entry cached = responseCache.get(key);
+            long now = System.nanoTime();
+            if (cached != null && cached.isFresh(now)) {
+                return (T) cached.body();
+            }
+            if (cached != null && cached.isUsableWhileRevalidating(now)) {
+                refreshInBackground(key, responseType);
+                return (T) cached.body();
+            }
+        }
+        try {
+            return fetchGet(key, responseType);
+        } catch (RemoteServiceException ex) {
+            ResponseCache.Entry stale = staleOnError(key, ex);
+            if (stale != null) {
+                return (T) stale.body();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Executes an HTTP GET request whose response is a JSON array and returns its elements as a stream,
+     * read incrementally from the connection so memory stays bounded by the largest element rather than
+     * the whole payload.
+     * <p>
+     * Retry, circuit breaker, bulkhead, adaptive limit and error mapping apply until the response headers
+     * arrive, as for {@link #get(String, Class)}; the cache, single flight and hedging do not. The call keeps its
+     * bulkhead slot and limit until the stream ends, and only then records its circuit breaker outcome: an I/O
+     * error while reading the body fails the stream with a {@link RemoteServiceException} and counts as a
+     * failure, while an element that does not map to {@code elementType} fails it with a
+     * {@link RestClientException} and does not. The stream holds the connection until it is exhausted or closed,
+     * so use it in a try-with-resources block:
+     * <pre>{@code
+     * try (Stream<Order> orders = client.getStream(url, Order.class)) {
+     *     orders.forEach(exporter::write);
+     * }
+     * }</pre>
+     *
+     * @param url         the URL to call
+     * @param elementType the type of the array elements
+     * @param <T>         the element type
+     * @return a sequential stream of the array elements
+     * @throws RemoteServiceException, BadRequestException, NotFoundException, InternalServerErrorException
+     *         if the remote call fails or returns an error
+     */
+    public <T> Stream<T> getStream(String url, Class<T> elementType) {
+        RequestSpan span = startSpan(url);
+        CircuitBreaker circuitBreaker = circuitBreakerFor(url);
 
-        Callable<T> callable = () -> {
-            int attempt = retryExecutor != null ? retryExecutor.getCurrentAttempt() : 1;
+        RetryExecutor.Attempt<ResponseEntity<ClientHttpResponse>> callable = attempt -> {
             span.logRetry(log, attempt, url);
-            T response = restClient.get()
+            ResponseEntity<ClientHttpResponse> response = restClient.get()
                     .uri(url)
-                    .retrieve()
-                    .body(responseType);
-
-            recordCircuitBreakerSuccess();
+                    .headers(headers -> propagate(span, headers))
+                    .exchange((request, clientResponse) -> checkStatus(clientResponse), false);
 
             span.logSuccess(log, url);
             return response;
         };
 
-        return doCall(url, callable, span);
+        Admission admission = admit(HttpMethod.GET, url, circuitBreaker);
+        ResponseEntity<ClientHttpResponse> response;
+        try {
+            response = execute(HttpMethod.GET, url, admission, callable, span, () -> true);
+        } catch (RuntimeException ex) {
+            admission.release();
+            throw ex;
+        }
+        return openArray(url, response, elementType, admission, span).stream();
     }
 
     /**
@@ -107,26 +315,24 @@ public class CommonRestClient {
      *         for various HTTP and connection errors
      */
     public <T, R> R post(String url, T requestBody, Class<R> responseType) {
-        RequestSpan span = RequestSpan.start();
-        span.logStart(log, url);
-        checkIfCircuitBreakerClosed(url);
+        RequestSpan span = startSpan(url);
+        CircuitBreaker circuitBreaker = circuitBreakerFor(url);
 
-        Callable<R> callable = () -> {
-            int attempt = retryExecutor != null ? retryExecutor.getCurrentAttempt() : 1;
+        RetryExecutor.Attempt<ResponseEntity<R>> callable = attempt -> {
             span.logRetry(log, attempt, url);
-            R response = restClient.post()
+            ResponseEntity<R> response = restClient.post()
                     .uri(url)
+                    .headers(headers -> propagate(span, headers))
                     .body(requestBody)
                     .retrieve()
-                    .body(responseType);
+                    .toEntity(responseType);
 
-            recordCircuitBreakerSuccess();
             span.logSuccess(log, url);
 
             return response;
         };
 
-        return doCall(url, callable, span);
+        return doCall(HttpMethod.POST, url, callable, span, circuitBreaker).getBody();
     }
 
     /**
@@ -145,26 +351,63 @@ public class CommonRestClient {
      *         for various HTTP and connection errors
      */
     public <T, R> R put(String url, T requestBody, Class<R> responseType) {
-        RequestSpan span = RequestSpan.start();
-        span.logStart(log, url);
-        checkIfCircuitBreakerClosed(url);
+        if (hedgerFor(HttpMethod.PUT, url) != null) {
+            return await(exchangeAsync(HttpMethod.PUT, url, null, requestBody, responseType, null, true)).getBody();
+        }
+        RequestSpan span = startSpan(url);
+        CircuitBreaker circuitBreaker = circuitBreakerFor(url);
 
-        Callable<R> callable = () -> {
-            int attempt = retryExecutor != null ? retryExecutor.getCurrentAttempt() : 1;
+        RetryExecutor.Attempt<ResponseEntity<R>> callable = attempt -> {
             span.logRetry(log, attempt, url);
-            R response = restClient.put()
+            ResponseEntity<R> response = restClient.put()
                     .uri(url)
+                    .headers(headers -> propagate(span, headers))
                     .body(requestBody)
                     .retrieve()
-                    .body(responseType);
+                    .toEntity(responseType);
 
-            recordCircuitBreakerSuccess();
             span.logSuccess(log, url);
 
             return response;
         };
 
-        return doCall(url, callable, span);
+        return doCall(HttpMethod.PUT, url, callable, span, circuitBreaker).getBody();
+    }
+
+    /**
+     * Executes an HTTP POST request whose body is streamed to the connection instead of being serialized in
+     * memory, and maps the response body to the specified response type. Bodies of unknown length are sent
+     * with chunked transfer encoding.
+     * <p>
+     * Supports optional retry and circuit breaker mechanisms based on configuration. A body that is not
+     * {@link RequestBody#isReplayable() replayable} is only retried if it was not sent yet.
+     *
+     * @param url           the target URL
+     * @param requestBody   the streamed body, see {@link RequestBody}
+     * @param responseType  the type of the expected response
+     * @param <R>           the response body type
+     * @return the response body mapped to {@code responseType}
+     * @throws RemoteServiceException, BadRequestException, NotFoundException, InternalServerErrorException
+     *         for various HTTP and connection errors
+     */
+    public <R> R post(String url, RequestBody requestBody, Class<R> responseType) {
+        return send(HttpMethod.POST, url, requestBody, responseType);
+    }
+
+    /**
+     * Executes an HTTP PUT request whose body is streamed to the connection, see
+     * {@link #post(String, RequestBody, Class)}. Streamed bodies are never hedged.
+     *
+     * @param url           the target URL
+     * @param requestBody   the streamed body, see {@link RequestBody}
+     * @param responseType  the type of the expected response
+     * @param <R>           the response body type
+     * @return the response body mapped to {@code responseType}
+     * @throws RemoteServiceException, BadRequestException, NotFoundException, InternalServerErrorException
+     *         for various HTTP and connection errors
+     */
+    public <R> R put(String url, RequestBody requestBody, Class<R> responseType) {
+        return send(HttpMethod.PUT, url, requestBody, responseType);
     }
 
     /**
@@ -181,45 +424,363 @@ public class CommonRestClient {
      *         if the remote call fails or returns an error
      */
     public <R> R delete(String url, Class<R> responseType) {
-        RequestSpan span = RequestSpan.start();
-        span.logStart(log, url);
-        checkIfCircuitBreakerClosed(url);
+        if (hedgerFor(HttpMethod.DELETE, url) != null) {
+            return await(exchangeAsync(HttpMethod.DELETE, url, null, null, responseType, null, true)).getBody();
+        }
+        RequestSpan span = startSpan(url);
+        CircuitBreaker circuitBreaker = circuitBreakerFor(url);
 
-        Callable<R> call = () -> {
-            span.logRetry(log, retryExecutor != null ? retryExecutor.getCurrentAttempt() : 1, url);
-            R response = restClient.delete()
+        RetryExecutor.Attempt<ResponseEntity<R>> call = attempt -> {
+            span.logRetry(log, attempt, url);
+            ResponseEntity<R> response = restClient.delete()
                     .uri(url)
+                    .headers(headers -> propagate(span, headers))
                     .retrieve()
-                    .body(responseType);
+                    .toEntity(responseType);
 
-            recordCircuitBreakerSuccess();
             span.logSuccess(log, url);
             return response;
         };
 
-        return doCall(url, call, span);
+        return doCall(HttpMethod.DELETE, url, call, span, circuitBreaker).getBody();
     }
 
-    private <T> T doCall(String url, Callable<T> callable, RequestSpan span) {
-        try {
-            if (retryExecutor != null) {
-                return retryExecutor.executeWithRetry(callable);
-            } else {
-                return callable.call();
-            }
-        } catch (Exception ex) {
-            recordCircuitBreakerFailure();
-            span.logFailure(log, url, ex);
+    /**
+     * Non-blocking variant of {@link #get(String, Class)}. The request is sent on the JDK {@code HttpClient}
+     * and retries are scheduled rather than slept, so no thread waits on the call. Retry, circuit breaker,
+     * span logging and error mapping behave as on the blocking path; the returned future completes
+     * exceptionally with the same {@link RemoteServiceException} subtypes. A full bulkhead rejects the call
+     * right away, as waiting for a slot would block the caller.
+     * <p>
+     * In {@link RestClientProperties.ExecutionMode#VIRTUAL} mode the blocking call itself runs on a new
+     * virtual thread instead, so blocking I/O and backoff sleeps only park that virtual thread.
+     *
+     * @param url          the URL to call
+     * @param responseType the type of the expected response body
+     * @param <T>          the response type
+     * @return a future of the response body mapped to {@code responseType}
+     */
+    public <T> CompletableFuture<T> getAsync(String url, Class<T> responseType) {
+        return virtualThreads != null
+                ? CompletableFuture.supplyAsync(TraceContext.wrap(Deadline.wrap(() -> get(url, responseType))), virtualThreads)
+                : coalescedGetAsync(url, responseType);
+    }
+
+    /**
+     * Non-blocking variant of {@link #post(String, Object, Class)}, see {@link #getAsync(String, Class)}.
+     *
+     * @param url           the target URL
+     * @param requestBody   the body of the POST request (may be null)
+     * @param responseType  the type of the expected response
+     * @param <T>           the request body type
+     * @param <R>           the response body type
+     * @return a future of the response body mapped to {@code responseType}
+     */
+    public <T, R> CompletableFuture<R> postAsync(String url, T requestBody, Class<R> responseType) {
+        return virtualThreads != null
+                ? CompletableFuture.supplyAsync(TraceContext.wrap(Deadline.wrap(() -> post(url, requestBody, responseType))), virtualThreads)
+                : doCallAsync(HttpMethod.POST, url, requestBody, responseType);
+    }
+
+    /**
+     * Non-blocking variant of {@link #put(String, Object, Class)}, see {@link #getAsync(String, Class)}.
+     *
+     * @param url           the target URL
+     * @param requestBody   the body of the PUT request (may be null)
+     * @param responseType  the type of the expected response
+     * @param <T>           the request body type
+     * @param <R>           the response body type
+     * @return a future of the response body mapped to {@code responseType}
+     */
+    public <T, R> CompletableFuture<R> putAsync(String url, T requestBody, Class<R> responseType) {
+        return virtualThreads != null
+                ? CompletableFuture.supplyAsync(TraceContext.wrap(Deadline.wrap(() -> put(url, requestBody, responseType))), virtualThreads)
+                : doCallAsync(HttpMethod.PUT, url, requestBody, responseType);
+    }
+
+    /**
+     * Non-blocking variant of {@link #delete(String, Class)}, see {@link #getAsync(String, Class)}.
+     *
+     * @param url           the target URL
+     * @param responseType  the type of the expected response body
+     * @param <R>           the response type
+     * @return a future of the response body mapped to {@code responseType}
+     */
+    public <R> CompletableFuture<R> deleteAsync(String url, Class<R> responseType) {
+        return virtualThreads != null
+                ? CompletableFuture.supplyAsync(TraceContext.wrap(Deadline.wrap(() -> delete(url, responseType))), virtualThreads)
+                : doCallAsync(HttpMethod.DELETE, url, null, responseType);
+    }
 
-            if (ex instanceof HttpStatusCodeException statusEx) {
-                throw mapException(url, statusEx);
+    /**
+     * Performs a GET request for each URL with at most {@code maxConcurrency} of them in flight. Each request is
+     * a separate {@link #getAsync(String, Class)} call, so it is sent on the JDK {@code HttpClient} whatever the
+     * transport, and retries, circuit breaker outcomes, metrics and spans are recorded per URL, and a failure only
+     * affects its own result. As a full bulkhead rejects async calls rather than queueing them, the window is
+     * capped at the smallest {@link BulkheadProperties#getMaxConcurrentCalls() bulkhead} of the URLs'
+     * downstreams.
+     *
+     * @param urls           the URLs to call
+     * @param responseType   the type of the expected response bodies
+     * @param maxConcurrency the maximum number of requests in flight at a time
+     * @param <T>            the response type
+     * @return the results in the order of {@code urls}
+     */
+    public <T> List<BatchResult<T>> getAll(List<String> urls, Class<T> responseType, int maxConcurrency) {
+        return getAllAsync(urls, responseType, maxConcurrency).join();
+    }
+
+    /**
+     * Non-blocking variant of {@link #getAll(List, Class, int)}. The returned future never completes
+     * exceptionally; failures are reported in the results.
+     *
+     * @param urls           the URLs to call
+     * @param responseType   the type of the expected response bodies
+     * @param maxConcurrency the maximum number of requests in flight at a time
+     * @param <T>            the response type
+     * @return a future of the results in the order of {@code urls}
+     */
+    public <T> CompletableFuture<List<BatchResult<T>>> getAllAsync(List<String> urls, Class<T> responseType,
+                                                                   int maxConcurrency) {
+        return BatchRunner.run(urls, Math.min(maxConcurrency, bulkheadWindow(urls)),
+                url -> getAsync(url, responseType));
+    }
+
+    /**
+     * @return the fewest calls the bulkheads of {@code urls} admit at once, so a batch does not reject its own
+     *         items
+     */
+    private int bulkheadWindow(List<String> urls) {
+        int window = Integer.MAX_VALUE;
+        if (bulkheads != null) {
+            for (String url : urls) {
+                Bulkhead bulkhead = bulkheadFor(url);
+                if (bulkhead != null) {
+                    window = Math.min(window, bulkhead.getMaxConcurrentCalls());
+                }
             }
+        }
+        return window;
+    }
+
+    /**
+     * Creates a {@link MicroBatcher} that merges single-key lookups made within {@code maxDelay} of each other
+     * into one GET of a bulk endpoint. The bulk request is a regular {@link #getAsync(String, Class)} call,
+     * retried and counted by the circuit breaker once per batch.
+     *
+     * @param bulkUrl      builds the bulk endpoint URL for the keys of a batch
+     * @param bulkType     the type of the bulk response body
+     * @param split        maps the bulk response to the value of each key; keys it leaves out fail with a
+     *                     {@link NotFoundException}
+     * @param maxBatchSize keys after which a batch is sent without waiting for {@code maxDelay}
+     * @param maxDelay     how long the first key of a batch waits for others to join it
+     * @param <K>          the key type
+     * @param <R>          the bulk response type
+     * @param <V>          the value type
+     */
+    public <K, R, V> MicroBatcher<K, V> microBatcher(Function<List<K>, String> bulkUrl, Class<R> bulkType,
+                                                     BiFunction<List<K>, R, Map<K, V>> split,
+                                                     int maxBatchSize, Duration maxDelay) {
+        return new MicroBatcher<>(keys -> getAsync(bulkUrl.apply(keys), bulkType)
+                .thenApply(response -> split.apply(keys, response)), maxBatchSize, maxDelay);
+    }
+
+    /**
+     * Returns the adaptive concurrency limiters currently in use, keyed by route name or host, so their
+     * {@link AdaptiveLimiter#getLimit() limit} and {@link AdaptiveLimiter#getInFlight() in-flight count} can be
+     * published as metrics. Empty when no adaptive limit is configured.
+     */
+    public Map<String, AdaptiveLimiter> getAdaptiveLimiters() {
+        Map<String, AdaptiveLimiter> snapshot = new LinkedHashMap<>();
+        if (limiters != null) {
+            limiters.forEach(snapshot::put);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Releases the pooled connections held by the configured transport and stops accepting virtual-thread calls.
+     */
+    @Override
+    public void close() throws IOException {
+        if (virtualThreads != null) {
+            virtualThreads.shutdown();
+        }
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdown();
+        }
+        if (spanProcessor != null) {
+            spanProcessor.close();
+        }
+        transport.close();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T fetchGet(RequestKey key, Class<T> responseType) {
+        return singleFlight != null
+                ? (T) singleFlight.execute(key, () -> loadGet(key, responseType))
+                : loadGet(key, responseType);
+    }
+
+    /**
+     * Refreshes a stale entry on the refresh executor, at most once at a time per key. When the executor is
+     * saturated the refresh is skipped and the next stale hit tries again.
+     */
+    private void refreshInBackground(RequestKey key, Class<?> responseType) {
+        if (refreshExecutor == null || !refreshing.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    fetchGet(key, responseType);
+                } catch (RuntimeException ex) {
+                    log.debug("Background refresh of {} failed: {}", key.url(), ex.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            refreshing.remove(key);
+        }
+    }
+
+    /**
+     * @return the entry to serve instead of failing, if the failure is on the downstream's side (5xx, I/O error,
+     * the client's own bulkhead or limit rejection, or open circuit) and the entry is within its stale-if-error
+     * window. A downstream's own 429 is not, as it asks the caller to slow down rather than to fall back.
+     */
+    private ResponseCache.Entry staleOnError(RequestKey key, RemoteServiceException ex) {
+        boolean rejected = ex instanceof BulkheadFullException || ex instanceof ConcurrencyLimitExceededException;
+        if (responseCache == null || (ex.getErrorResponse().getStatus() < 500 && !rejected)) {
+            return null;
+        }
+        ResponseCache.Entry stale = responseCache.get(key);
+        if (stale == null || !stale.isUsableOnError(System.nanoTime())) {
+            return null;
+        }
+        log.warn("Serving stale response for {} after failure: {}", key.url(), ex.getMessage());
+        return stale;
+    }
+
+    /**
+     * Fetches the response, sending the cached entry's validators so a {@code 304 Not Modified} renews it
+     * without transferring the body.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T loadGet(RequestKey key, Class<T> responseType) {
+        String url = key.url();
+        Long routeTtlMs = responseCache != null ? cacheTtlFor(url) : null;
+        if (responseCache == null || (routeTtlMs != null && routeTtlMs <= 0)) {
+            return exchangeGet(url, responseType, null, null).getBody();
+        }
+        ResponseCache.Entry cached = responseCache.get(key);
+        if (cached != null && cached.isFresh(System.nanoTime())) {
+            return (T) cached.body();
+        }
 
-            if (ex instanceof RemoteServiceException remoteServiceException) {
-                throw remoteServiceException;
+        AtomicLong bodyBytes = new AtomicLong(-1);
+        ResponseEntity<T> response = exchangeGet(url, responseType,
+                cached != null && cached.hasValidator() ? cached::addValidators : null, bodyBytes::set);
+        if (cached != null && response.getStatusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+            return (T) responseCache.revalidated(key, cached, response.getHeaders(), routeTtlMs).body();
+        }
+        responseCache.store(key, response, bodyBytes.get(), routeTtlMs);
+        return response.getBody();
+    }
+
+    /**
+     * @param bodyBytes receives the number of body bytes read, after decoding, or {@code null}
+     */
+    private <T> ResponseEntity<T> exchangeGet(String url, Class<T> responseType, Consumer<HttpHeaders> conditional,
+                                              LongConsumer bodyBytes) {
+        if (hedgerFor(HttpMethod.GET, url) != null) {
+            return await(exchangeAsync(HttpMethod.GET, url, conditional, null, responseType, bodyBytes, true));
+        }
+        RequestSpan span = startSpan(url);
+        CircuitBreaker circuitBreaker = circuitBreakerFor(url);
+
+        RetryExecutor.Attempt<ResponseEntity<T>> callable = attempt -> {
+            span.logRetry(log, attempt, url);
+            RestClient.RequestHeadersSpec<?> request = restClient.get()
+                    .uri(url)
+                    .headers(headers -> {
+                        propagate(span, headers);
+                        if (conditional != null) {
+                            conditional.accept(headers);
+                        }
+                    });
+            ResponseEntity<T> response = bodyBytes != null
+                    ? request.exchange((clientRequest, clientResponse) ->
+                            readCounted(clientResponse, responseType, bodyBytes))
+                    : request.retrieve().toEntity(responseType);
+
+            span.logSuccess(log, url);
+            return response;
+        };
+
+        return doCall(HttpMethod.GET, url, callable, span, circuitBreaker);
+    }
+
+    /**
+     * Reads a response the way {@code retrieve()} does, reporting how many body bytes it took.
+     */
+    private <T> ResponseEntity<T> readCounted(ClientHttpResponse response, Class<T> responseType,
+                                              LongConsumer bodyBytes) throws IOException {
+        if (STREAM_ERROR_HANDLER.hasError(response)) {
+            STREAM_ERROR_HANDLER.handleError(response);
+        }
+        CountingResponse counted = new CountingResponse(response);
+        T body = new HttpMessageConverterExtractor<>(responseType, messageConverters).extractData(counted);
+        bodyBytes.accept(counted.bytesRead());
+        return ResponseEntity.status(response.getStatusCode()).headers(response.getHeaders()).body(body);
+    }
+
+    /**
+     * Checks the status of a streamed response, closing it on failure.
+     */
+    private static ResponseEntity<ClientHttpResponse> checkStatus(ClientHttpResponse response) throws IOException {
+        try {
+            if (STREAM_ERROR_HANDLER.hasError(response)) {
+                STREAM_ERROR_HANDLER.handleError(response);
             }
+            return ResponseEntity.status(response.getStatusCode()).headers(response.getHeaders()).body(response);
+        } catch (IOException | RuntimeException ex) {
+            response.close();
+            throw ex;
+        }
+    }
 
-            throw new RemoteServiceException(
+    /**
+     * Starts reading the array of a streamed response. The call ends when the reader closes the response: as a
+     * circuit breaker failure if reading the body failed with an I/O error, and as a success at the end of the
+     * array, when the caller closes the stream early, or when an element does not map to {@code elementType},
+     * which is a problem of the caller's types rather than of the downstream.
+     */
+    private <T> JsonArrayReader<T> openArray(String url, ResponseEntity<ClientHttpResponse> response,
+                                             Class<T> elementType, Admission admission, RequestSpan span) {
+        ClientHttpResponse body = response.getBody();
+        int status = response.getStatusCode().value();
+        AtomicReference<IOException> failure = new AtomicReference<>();
+        Runnable end = () -> {
+            body.close();
+            IOException error = failure.get();
+            if (error != null) {
+                admission.recordFailure();
+            } else {
+                admission.recordSuccess();
+            }
+            endSpan(span, HttpMethod.GET, url, status, error);
+            admission.release();
+        };
+        Function<IOException, RuntimeException> errorMapper = ex -> {
+            log.error("Failed reading response stream of {} - Error: {}", url, ex.getMessage());
+            if (ex instanceof DatabindException) {
+                return new RestClientException("Could not read response stream of " + url + " as "
+                        + elementType.getName() + ": " + ex.getMessage(), ex);
+            }
+            failure.set(ex);
+            return new RemoteServiceException(
                     new RemoteErrorResponse(
                             500,
                             "Unexpected Error",
@@ -227,54 +788,740 @@ public class CommonRestClient {
                             url
                     )
             );
+        };
+        try {
+            return new JsonArrayReader<>(objectMapper, body.getBody(), elementType, end::run, errorMapper);
+        } catch (IOException ex) {
+            RuntimeException mapped = errorMapper.apply(ex);
+            end.run();
+            throw mapped;
+        }
+    }
+
+    private Long cacheTtlFor(String url) {
+        RouteResolver.Route route = routes.resolve(url);
+        return route != null ? route.properties().getCacheTtlMs() : null;
+    }
+
+    private <T> ResponseEntity<T> doCall(HttpMethod method, String url, RetryExecutor.Attempt<ResponseEntity<T>> callable,
+                                         RequestSpan span, CircuitBreaker circuitBreaker) {
+        return doCall(method, url, callable, span, circuitBreaker, () -> true);
+    }
+
+    /**
+     * @param canRetry whether a failed attempt may be retried, for bodies that can only be sent once
+     */
+    private <T> ResponseEntity<T> doCall(HttpMethod method, String url, RetryExecutor.Attempt<ResponseEntity<T>> callable,
+                                         RequestSpan span, CircuitBreaker circuitBreaker, BooleanSupplier canRetry) {
+        Admission admission = admit(method, url, circuitBreaker);
+        try {
+            ResponseEntity<T> response = execute(method, url, admission, callable, span, canRetry);
+            admission.recordSuccess();
+            endSpan(span, method, url, response.getStatusCode().value(), null);
+            return response;
+        } finally {
+            admission.release();
+        }
+    }
+
+    /**
+     * Admits a call past its deadline, bulkhead, adaptive limit and circuit breaker, in that order. The caller
+     * must release the admission once the call ends.
+     *
+     * @throws RemoteServiceException if one of them rejects the call
+     */
+    private Admission admit(HttpMethod method, String url, CircuitBreaker circuitBreaker) {
+        DownstreamMetrics metrics = metricsFor(url);
+        Deadline deadline = timeouts.deadlineFor(url);
+        if (!timeouts.allowsAttempt(deadline, 0)) {
+            throw rejected(metrics, method, deadlineExceeded(url));
         }
+        Bulkhead bulkhead = bulkheadFor(url);
+        if (!acquireBulkhead(bulkhead)) {
+            throw rejected(metrics, method, bulkheadFull(url));
+        }
+        AdaptiveLimiter limiter = limiterFor(url);
+        if (limiter != null && !limiter.tryAcquire()) {
+            releaseBulkhead(bulkhead);
+            throw rejected(metrics, method, limitExceeded(url));
+        }
+        metrics.callStarted();
+        CircuitBreaker.Permit permit = circuitBreaker != null ? circuitBreaker.tryAcquire() : null;
+        Admission admission = new Admission(metrics, deadline, bulkhead, limiter, circuitBreaker, permit);
+        if (circuitBreaker != null && permit == null) {
+            admission.release();
+            throw rejected(metrics, method, circuitOpen(url));
+        }
+        return admission;
+    }
+
+    /**
+     * Runs the attempts of an admitted call within its deadline and maps the last failure, which it records as
+     * a circuit breaker failure. A success is left to the caller to record.
+     */
+    private <T> ResponseEntity<T> execute(HttpMethod method, String url, Admission admission,
+                                          RetryExecutor.Attempt<ResponseEntity<T>> callable, RequestSpan span,
+                                          BooleanSupplier canRetry) {
+        Deadline deadline = admission.deadline();
+        // The transports and header propagation read the call's deadline from the thread
+        try (Deadline.Scope scope = deadline != null ? deadline.makeCurrent() : null) {
+            RetryExecutor.Attempt<ResponseEntity<T>> attempt = callable;
+            if (admission.limiter() != null) {
+                attempt = sampled(admission.limiter(), attempt);
+            }
+            if (downstreamMetrics != null) {
+                attempt = instrumented(admission.metrics(), method, attempt);
+            }
+            try {
+                return retryExecutor != null
+                        ? retryExecutor.executeWithRetry(attempt,
+                                delayMs -> canRetry.getAsBoolean() && timeouts.allowsAttempt(deadline, delayMs))
+                        : attempt.call(1);
+            } catch (Exception ex) {
+                admission.recordFailure();
+                throw handleFailure(method, url, expired(url, ex, deadline), span);
+            }
+        }
+    }
+
+    private <R> R send(HttpMethod method, String url, RequestBody requestBody, Class<R> responseType) {
+        RequestSpan span = startSpan(url);
+        CircuitBreaker circuitBreaker = circuitBreakerFor(url);
+
+        Compression compression = compressionFor(url);
+        boolean compressed = compression != null && compression.compresses(requestBody.getContentLength());
+
+        RetryExecutor.Attempt<ResponseEntity<R>> callable = attempt -> {
+            span.logRetry(log, attempt, url);
+            ResponseEntity<R> response = restClient.method(method)
+                    .uri(url)
+                    .headers(headers -> {
+                        propagate(span, headers);
+                        headers.setContentType(requestBody.getContentType());
+                        if (compressed) {
+                            headers.set(HttpHeaders.CONTENT_ENCODING, Compression.GZIP);
+                        } else if (requestBody.getContentLength() >= 0) {
+                            headers.setContentLength(requestBody.getContentLength());
+                        }
+                    })
+                    .body(compressed
+                            ? out -> {
+                                try (OutputStream gzip = compression.gzip(out)) {
+                                    requestBody.writeTo(gzip);
+                                }
+                            }
+                            : requestBody::writeTo)
+                    .retrieve()
+                    .toEntity(responseType);
+
+            span.logSuccess(log, url);
+
+            return response;
+        };
+
+        return doCall(method, url, callable, span, circuitBreaker, requestBody::canSend).getBody();
+    }
+
+    private <T> CompletableFuture<T> doCallAsync(HttpMethod method, String url, Object body, Class<T> responseType) {
+        return exchangeAsync(method, url, null, body, responseType, null, false).thenApply(ResponseEntity::getBody);
+    }
+
+    /**
+     * Runs a call through the resilience pipeline on the JDK {@code HttpClient}. Blocking calls take this path
+     * when they are hedged, since hedging needs concurrent, cancellable requests; they may then also wait for
+     * a bulkhead slot.
+     *
+     * @param extraHeaders adds request headers, for example cache validators, or {@code null}
+     * @param bodyBytes    receives the number of response body bytes read, after decoding, or {@code null}
+     * @param mayBlock     whether the caller blocks anyway, so a full bulkhead may queue the call
+     */
+    private <T> CompletableFuture<ResponseEntity<T>> exchangeAsync(HttpMethod method, String url,
+                                                                   Consumer<HttpHeaders> extraHeaders, Object body,
+                                                                   Class<T> responseType, LongConsumer bodyBytes,
+                                                                   boolean mayBlock) {
+        RequestSpan span = startSpan(url);
+        DownstreamMetrics metrics = metricsFor(url);
+        Deadline deadline = timeouts.deadlineFor(url);
+        if (!timeouts.allowsAttempt(deadline, 0)) {
+            return CompletableFuture.failedFuture(rejected(metrics, method, deadlineExceeded(url)));
+        }
+        Bulkhead bulkhead = bulkheadFor(url);
+        if (mayBlock ? !acquireBulkhead(bulkhead) : bulkhead != null && !bulkhead.tryAcquire()) {
+            return CompletableFuture.failedFuture(rejected(metrics, method, bulkheadFull(url)));
+        }
+        AdaptiveLimiter limiter = limiterFor(url);
+        if (limiter != null && !limiter.tryAcquire()) {
+            releaseBulkhead(bulkhead);
+            return CompletableFuture.failedFuture(rejected(metrics, method, limitExceeded(url)));
+        }
+        CircuitBreaker circuitBreaker = circuitBreakerFor(url);
+        CircuitBreaker.Permit permit = circuitBreaker != null ? circuitBreaker.tryAcquire() : null;
+        if (circuitBreaker != null && permit == null) {
+            releaseLimit(limiter);
+            releaseBulkhead(bulkhead);
+            return CompletableFuture.failedFuture(rejected(metrics, method, circuitOpen(url)));
+        }
+        metrics.callStarted();
+        HttpHeaders headers = new HttpHeaders();
+        propagate(span, headers);
+        if (extraHeaders != null) {
+            extraHeaders.accept(headers);
+        }
+        Hedger hedger = hedgerFor(method, url);
+
+        RetryExecutor.AsyncAttempt<ResponseEntity<T>> attempt = n -> {
+            span.logRetry(log, n, url);
+            if (n > 1) {
+                metrics.recordRetry(method, n);
+            }
+            long start = System.nanoTime();
+            Supplier<CompletableFuture<ResponseEntity<T>>> send = () -> {
+                HttpHeaders sent = headers;
+                if (deadline != null) {
+                    sent = new HttpHeaders();
+                    sent.putAll(headers);
+                    timeouts.propagate(deadline, sent);
+                }
+                CompletableFuture<ResponseEntity<T>> exchange = asyncTransport.exchange(method, url, sent, body,
+                        responseType, Duration.ofMillis(timeouts.readTimeout(url, deadline)), bodyBytes);
+                // The read timeout bounds each wait rather than the whole exchange, so the deadline bounds it as well
+                return deadline != null
+                        ? exchange.orTimeout(Math.max(0, deadline.remainingNanos()), TimeUnit.NANOSECONDS)
+                        : exchange;
+            };
+            CompletableFuture<ResponseEntity<T>> exchange = hedger != null
+                    ? hedger.execute(send, () -> metrics.recordHedge(method))
+                    : send.get();
+            if (limiter == null && downstreamMetrics == null) {
+                return exchange;
+            }
+            return exchange
+                    .whenComplete((response, error) -> {
+                        long end = System.nanoTime();
+                        Throwable cause = error != null ? RetryExecutor.unwrap(error) : null;
+                        if (limiter != null) {
+                            limiter.onSample(start, end, cause != null && isOverload(cause));
+                        }
+                        recordAttempt(metrics, method, response, cause, end - start);
+                    });
+        };
+        CompletableFuture<ResponseEntity<T>> response = retryExecutor != null
+                ? retryExecutor.executeAsync(attempt, delayMs -> timeouts.allowsAttempt(deadline, delayMs))
+                : attempt.call(1).toCompletableFuture();
+
+        return response.handle((entity, error) -> {
+            metrics.callFinished();
+            releaseLimit(limiter);
+            releaseBulkhead(bulkhead);
+            if (error != null) {
+                Throwable cause = RetryExecutor.unwrap(error);
+                recordCircuitBreakerFailure(circuitBreaker, permit);
+                throw handleFailure(method, url,
+                        expired(url, cause instanceof Exception ex ? ex : new RuntimeException(cause), deadline),
+                        span);
+            }
+            recordCircuitBreakerSuccess(circuitBreaker, permit);
+            span.logSuccess(log, url);
+            endSpan(span, method, url, entity.getStatusCode().value(), null);
+            return entity;
+        });
+    }
+
+    /**
+     * Waits for an async call on behalf of a blocking caller, rethrowing its failure unwrapped.
+     */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            Throwable cause = RetryExecutor.unwrap(ex);
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> coalescedGetAsync(String url, Class<T> responseType) {
+        if (singleFlight == null) {
+            return doCallAsync(HttpMethod.GET, url, null, responseType);
+        }
+        return (CompletableFuture<T>) singleFlight.executeAsync(new RequestKey(url, responseType),
+                () -> (CompletableFuture<Object>) doCallAsync(HttpMethod.GET, url, null, responseType));
+    }
+
+    /**
+     * Starts a child of the current thread's trace context, or a new trace outside of one.
+     */
+    private RequestSpan startSpan(String url) {
+        RequestSpan span = RequestSpan.start(TraceContext.current(), samplingRate);
+        span.logStart(log, url);
+        return span;
+    }
+
+    private void propagate(RequestSpan span, HttpHeaders headers) {
+        if (propagation) {
+            span.inject(headers);
+        }
+        timeouts.propagate(Deadline.current(), headers);
+    }
+
+    private void endSpan(RequestSpan span, HttpMethod method, String url, int statusCode, Throwable error) {
+        if (spanProcessor != null) {
+            SpanData data = span.end(method.name(), url, statusCode, error);
+            if (data != null) {
+                spanProcessor.onEnd(data);
+            }
+        }
+    }
+
+    /**
+     * Reports the round trip of every attempt to {@code limiter}.
+     */
+    private static <T> RetryExecutor.Attempt<T> sampled(AdaptiveLimiter limiter, RetryExecutor.Attempt<T> callable) {
+        return attempt -> {
+            long start = System.nanoTime();
+            try {
+                T response = callable.call(attempt);
+                limiter.onSample(start, System.nanoTime(), false);
+                return response;
+            } catch (Exception ex) {
+                limiter.onSample(start, System.nanoTime(), isOverload(ex));
+                throw ex;
+            }
+        };
+    }
+
+    /**
+     * Times every attempt and counts retries.
+     */
+    private static <T> RetryExecutor.Attempt<ResponseEntity<T>> instrumented(DownstreamMetrics metrics, HttpMethod method,
+                                                                              RetryExecutor.Attempt<ResponseEntity<T>> callable) {
+        return attempt -> {
+            if (attempt > 1) {
+                metrics.recordRetry(method, attempt);
+            }
+            long start = System.nanoTime();
+            try {
+                ResponseEntity<T> response = callable.call(attempt);
+                recordAttempt(metrics, method, response, null, System.nanoTime() - start);
+                return response;
+            } catch (Exception ex) {
+                recordAttempt(metrics, method, null, ex, System.nanoTime() - start);
+                throw ex;
+            }
+        };
+    }
+
+    private static void recordAttempt(DownstreamMetrics metrics, HttpMethod method, ResponseEntity<?> response,
+                                      Throwable error, long durationNanos) {
+        if (error == null) {
+            int status = response.getStatusCode().value();
+            metrics.recordAttempt(method, status, outcomeOf(status), durationNanos);
+        } else if (error instanceof HttpStatusCodeException statusEx) {
+            int status = statusEx.getStatusCode().value();
+            metrics.recordAttempt(method, status, outcomeOf(status), durationNanos);
+        } else {
+            metrics.recordAttempt(method, 0, ClientMetrics.Outcome.IO_ERROR, durationNanos);
+        }
+    }
+
+    static ClientMetrics.Outcome outcomeOf(int status) {
+        if (status >= 500) {
+            return ClientMetrics.Outcome.SERVER_ERROR;
+        }
+        return status >= 400 ? ClientMetrics.Outcome.CLIENT_ERROR : ClientMetrics.Outcome.SUCCESS;
+    }
+
+    /**
+     * Server errors and I/O failures, timeouts included, mean the downstream is struggling;
+     * any other failure still measured a normal round trip.
+     */
+    private static boolean isOverload(Throwable ex) {
+        return ex instanceof HttpServerErrorException || ex instanceof ResourceAccessException;
+    }
+
+    /**
+     * Logs and traces a failed call and maps it to the {@link RemoteServiceException} hierarchy.
+     */
+    private RuntimeException handleFailure(HttpMethod method, String url, Exception ex, RequestSpan span) {
+        span.logFailure(log, url, ex);
+        endSpan(span, method, url, ex instanceof HttpStatusCodeException statusEx ? statusEx.getStatusCode().value() : 0, ex);
+
+        if (ex instanceof HttpStatusCodeException statusEx) {
+            return mapException(url, statusEx);
+        }
+
+        if (ex instanceof RemoteServiceException remoteServiceException) {
+            return remoteServiceException;
+        }
+
+        return new RemoteServiceException(
+                new RemoteErrorResponse(
+                        500,
+                        "Unexpected Error",
+                        ex.getMessage(),
+                        url
+                )
+        );
+    }
+
+    private DownstreamMetrics metricsFor(String url) {
+        return downstreamMetrics != null ? downstreamMetrics.get(url) : DownstreamMetrics.NOOP;
+    }
+
+    private static RemoteServiceException rejected(DownstreamMetrics metrics, HttpMethod method,
+                                                   RemoteServiceException ex) {
+        metrics.recordAttempt(method, ex.getErrorResponse().getStatus(), ClientMetrics.Outcome.REJECTED, 0);
+        return ex;
     }
 
-    private void recordCircuitBreakerSuccess() {
+    /**
+     * The circuit breakers of this client, or {@code null} when none are configured.
+     */
+    DownstreamRegistry<CircuitBreaker> circuitBreakers() {
+        return circuitBreakers;
+    }
+
+    private CircuitBreaker circuitBreakerFor(String url) {
+        return circuitBreakers != null ? circuitBreakers.get(url) : null;
+    }
+
+    private void recordCircuitBreakerSuccess(CircuitBreaker circuitBreaker, CircuitBreaker.Permit permit) {
         if (circuitBreaker != null) {
-            circuitBreaker.recordSuccess();
+            circuitBreaker.recordSuccess(permit);
         }
     }
 
-    private void recordCircuitBreakerFailure() {
+    private void recordCircuitBreakerFailure(CircuitBreaker circuitBreaker, CircuitBreaker.Permit permit) {
         if (circuitBreaker != null) {
-            circuitBreaker.recordFailure();
+            circuitBreaker.recordFailure(permit);
         }
     }
 
-    private void checkIfCircuitBreakerClosed(String url) {
-        if (circuitBreaker != null && !circuitBreaker.allowRequest()) {
-            log.warn("Circuit breaker is open - Skipping call");
-            throw new RemoteServiceException(
-                    new RemoteErrorResponse(
-                            503,
-                            "Service unavailable",
-                            "Circuit breaker is open - Skipping call",
-                            url
-                    )
-            );
+    static RemoteServiceException circuitOpen(String url) {
+        log.warn("Circuit breaker is open - Skipping call");
+        return new RemoteServiceException(
+                new RemoteErrorResponse(
+                        503,
+                        "Service unavailable",
+                        "Circuit breaker is open - Skipping call",
+                        url
+                )
+        );
+    }
+
+    private static RemoteServiceException deadlineExceeded(String url) {
+        log.warn("Deadline exceeded - Skipping call");
+        return new RemoteServiceException(
+                new RemoteErrorResponse(
+                        504,
+                        "Deadline exceeded",
+                        "Deadline exceeded - Skipping call",
+                        url
+                )
+        );
+    }
+
+    /**
+     * Reports an I/O failure, such as a timeout cut short by the call's deadline, as the deadline being exceeded
+     * once it has passed.
+     */
+    private static Exception expired(String url, Exception ex, Deadline deadline) {
+        // A blocking read of the body fails with a RestClientException caused by the IOException, an async one
+        // that outlasts the deadline with a TimeoutException
+        boolean timedOut = ex instanceof ResourceAccessException || ex instanceof TimeoutException
+                || ex instanceof RestClientException && ex.getCause() instanceof IOException;
+        if (deadline == null || !deadline.isExpired() || !timedOut) {
+            return ex;
+        }
+        RemoteServiceException exceeded = new RemoteServiceException(
+                new RemoteErrorResponse(
+                        504,
+                        "Deadline exceeded",
+                        ex.getMessage(),
+                        url
+                )
+        );
+        exceeded.initCause(ex);
+        return exceeded;
+    }
+
+    private Hedger hedgerFor(HttpMethod method, String url) {
+        if (hedgers == null) {
+            return null;
+        }
+        Hedger hedger = hedgers.get(url);
+        return hedger != null && hedger.appliesTo(method) ? hedger : null;
+    }
+
+    private Compression compressionFor(String url) {
+        return compressions != null ? compressions.get(url) : null;
+    }
+
+    private Bulkhead bulkheadFor(String url) {
+        return bulkheads != null ? bulkheads.get(url) : null;
+    }
+
+    /**
+     * @return {@code false} if the call must be rejected
+     */
+    private boolean acquireBulkhead(Bulkhead bulkhead) {
+        if (bulkhead == null) {
+            return true;
+        }
+        try {
+            return bulkhead.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void releaseBulkhead(Bulkhead bulkhead) {
+        if (bulkhead != null) {
+            bulkhead.release();
+        }
+    }
+
+    private AdaptiveLimiter limiterFor(String url) {
+        return limiters != null ? limiters.get(url) : null;
+    }
+
+    private void releaseLimit(AdaptiveLimiter limiter) {
+        if (limiter != null) {
+            limiter.release();
+        }
+    }
+
+    private RemoteServiceException limitExceeded(String url) {
+        log.warn("Concurrency limit reached - Rejecting call");
+        return new ConcurrencyLimitExceededException(
+                new RemoteErrorResponse(
+                        429,
+                        "Concurrency limit reached",
+                        "Concurrency limit reached - Rejecting call",
+                        url
+                )
+        );
+    }
+
+    private RemoteServiceException bulkheadFull(String url) {
+        log.warn("Bulkhead is full - Rejecting call");
+        return new BulkheadFullException(
+                new RemoteErrorResponse(
+                        429,
+                        "Bulkhead full",
+                        "Bulkhead is full - Rejecting call",
+                        url
+                )
+        );
+    }
+
+    /**
+     * Small daemon pool for background refreshes of stale cache entries.
+     */
+    private static ExecutorService newRefreshExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(REFRESH_THREADS, REFRESH_THREADS, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(REFRESH_QUEUE_SIZE), runnable -> {
+                    Thread thread = new Thread(runnable, "common-rest-refresh-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * One metrics handle per configured route and per downstream host, or none when metrics are disabled.
+     */
+    static DownstreamRegistry<DownstreamMetrics> createDownstreamMetrics(ClientMetrics metrics, RouteResolver routes) {
+        if (metrics == ClientMetrics.NOOP) {
+            return null;
+        }
+        return new DownstreamRegistry<>(
+                routes,
+                (name, route) -> metrics.downstream(name),
+                metrics::downstream,
+                null,
+                DEFAULT_IDLE_EVICTION_MS,
+                downstream -> true
+        );
+    }
+
+    /**
+     * Builds one breaker per configured route and, depending on {@link CircuitBreakerProperties.Scope},
+     * one per downstream host or a single shared one for everything else.
+     */
+    static DownstreamRegistry<CircuitBreaker> createCircuitBreakers(RestClientProperties props, RouteResolver routes,
+                                                                    ClientMetrics metrics) {
+        CircuitBreakerProperties defaults = props.getCircuitBreaker();
+        boolean routeOverrides = props.getRoutes().values().stream()
+                .anyMatch(route -> route.getCircuitBreaker() != null);
+        if (defaults == null && !routeOverrides) {
+            return null;
+        }
+
+        BiFunction<String, CircuitBreakerProperties, CircuitBreaker> factory = (name, cbProps) -> {
+            DownstreamMetrics downstream = metrics.downstream(name);
+            CircuitBreaker breaker = new CircuitBreaker(cbProps, downstream::circuitBreakerTransition);
+            downstream.circuitBreakerCreated(breaker);
+            return breaker;
+        };
+        BiFunction<String, RouteProperties, CircuitBreaker> routeFactory = (name, route) -> {
+            CircuitBreakerProperties cbProps = route.getCircuitBreaker() != null ? route.getCircuitBreaker() : defaults;
+            return cbProps != null ? factory.apply(name, cbProps) : null;
+        };
+        boolean perHost = defaults != null && defaults.getScope() == CircuitBreakerProperties.Scope.HOST;
+        return new DownstreamRegistry<>(
+                routes,
+                routeFactory,
+                perHost ? host -> factory.apply(host, defaults) : null,
+                defaults != null && !perHost ? factory.apply("*", defaults) : null,
+                defaults != null ? defaults.getIdleEvictionMs() : 0,
+                breaker -> breaker.getState() == CircuitBreaker.State.CLOSED,
+                (host, breaker) -> metrics.downstream(host).circuitBreakerRemoved(breaker)
+        );
+    }
+
+    /**
+     * Builds one bulkhead per configured route and one per downstream host for everything else.
+     */
+    private static DownstreamRegistry<Bulkhead> createBulkheads(RestClientProperties props, RouteResolver routes) {
+        BulkheadProperties defaults = props.getBulkhead();
+        boolean routeOverrides = props.getRoutes().values().stream()
+                .anyMatch(route -> route.getBulkhead() != null);
+        if (defaults == null && !routeOverrides) {
+            return null;
         }
+
+        BiFunction<String, RouteProperties, Bulkhead> routeFactory = (name, route) -> {
+            BulkheadProperties bulkheadProps = route.getBulkhead() != null ? route.getBulkhead() : defaults;
+            return bulkheadProps != null ? new Bulkhead(bulkheadProps) : null;
+        };
+        return new DownstreamRegistry<>(
+                routes,
+                routeFactory,
+                defaults != null ? host -> new Bulkhead(defaults) : null,
+                null,
+                defaults != null ? defaults.getIdleEvictionMs() : 0,
+                bulkhead -> bulkhead.getInFlight() == 0 && bulkhead.getQueued() == 0
+        );
+    }
+
+    /**
+     * Builds one compression per configured route and a single shared one for everything else, each with its
+     * own pool of deflaters and inflaters.
+     */
+    private static DownstreamRegistry<Compression> createCompressions(RestClientProperties props,
+                                                                      RouteResolver routes) {
+        CompressionProperties defaults = props.getCompression();
+        boolean routeOverrides = props.getRoutes().values().stream()
+                .anyMatch(route -> route.getCompression() != null);
+        if (defaults == null && !routeOverrides) {
+            return null;
+        }
+
+        Compression shared = defaults != null ? new Compression(defaults) : null;
+        BiFunction<String, RouteProperties, Compression> routeFactory = (name, route) ->
+                route.getCompression() != null ? new Compression(route.getCompression()) : shared;
+        return new DownstreamRegistry<>(
+                routes,
+                routeFactory,
+                null,
+                shared,
+                DEFAULT_IDLE_EVICTION_MS,
+                compression -> true
+        );
+    }
+
+    /**
+     * Builds one hedger per configured route and one per downstream host for everything else, so each keeps
+     * the latency percentile of its own downstream.
+     */
+    private static DownstreamRegistry<Hedger> createHedgers(RestClientProperties props, RouteResolver routes) {
+        HedgeProperties defaults = props.getHedge();
+        boolean routeOverrides = props.getRoutes().values().stream()
+                .anyMatch(route -> route.getHedge() != null);
+        if (defaults == null && !routeOverrides) {
+            return null;
+        }
+
+        BiFunction<String, RouteProperties, Hedger> routeFactory = (name, route) -> {
+            HedgeProperties hedgeProps = route.getHedge() != null ? route.getHedge() : defaults;
+            return hedgeProps != null ? new Hedger(hedgeProps) : null;
+        };
+        return new DownstreamRegistry<>(
+                routes,
+                routeFactory,
+                defaults != null ? host -> new Hedger(defaults) : null,
+                null,
+                DEFAULT_IDLE_EVICTION_MS,
+                hedger -> true
+        );
+    }
+
+    /**
+     * Builds one adaptive limiter per configured route and one per downstream host for everything else.
+     */
+    private static DownstreamRegistry<AdaptiveLimiter> createLimiters(RestClientProperties props, RouteResolver routes,
+                                                                      ClientMetrics metrics) {
+        AdaptiveLimitProperties defaults = props.getAdaptiveLimit();
+        boolean routeOverrides = props.getRoutes().values().stream()
+                .anyMatch(route -> route.getAdaptiveLimit() != null);
+        if (defaults == null && !routeOverrides) {
+            return null;
+        }
+
+        BiFunction<String, AdaptiveLimitProperties, AdaptiveLimiter> factory = (name, limitProps) -> {
+            AdaptiveLimiter limiter = new AdaptiveLimiter(limitProps);
+            metrics.downstream(name).adaptiveLimiterCreated(limiter);
+            return limiter;
+        };
+        BiFunction<String, RouteProperties, AdaptiveLimiter> routeFactory = (name, route) -> {
+            AdaptiveLimitProperties limitProps = route.getAdaptiveLimit() != null ? route.getAdaptiveLimit() : defaults;
+            return limitProps != null ? factory.apply(name, limitProps) : null;
+        };
+        return new DownstreamRegistry<>(
+                routes,
+                routeFactory,
+                defaults != null ? host -> factory.apply(host, defaults) : null,
+                null,
+                defaults != null ? defaults.getIdleEvictionMs() : 0,
+                limiter -> limiter.getInFlight() == 0,
+                (host, limiter) -> metrics.downstream(host).adaptiveLimiterRemoved(limiter)
+        );
     }
 
     private RuntimeException mapException(String url, HttpStatusCodeException ex) {
-        HttpStatusCode statusCode = ex.getStatusCode();
+        return remoteException(url, ex.getStatusCode(), ex.getResponseBodyAsString());
+    }
 
+    /**
+     * Maps an error status to the {@link RemoteServiceException} subtype of the status.
+     */
+    static RuntimeException remoteException(String url, HttpStatusCode statusCode, String body) {
         RemoteErrorResponse errorResponse = new RemoteErrorResponse(
                 statusCode.value(),
                 statusCode.toString(),
-                ex.getResponseBodyAsString(),
+                body,
                 url
         );
 
         HttpStatus resolved = HttpStatus.resolve(statusCode.value());
         if (resolved != null) {
-            switch (resolved) {
-                case BAD_REQUEST -> throw new BadRequestException(errorResponse);
-                case NOT_FOUND -> throw new NotFoundException(errorResponse);
-                case INTERNAL_SERVER_ERROR -> throw new InternalServerErrorException(errorResponse);
-                default -> throw new RemoteServiceException(errorResponse);
-            }
+            return switch (resolved) {
+                case BAD_REQUEST -> new BadRequestException(errorResponse);
+                case NOT_FOUND -> new NotFoundException(errorResponse);
+                case INTERNAL_SERVER_ERROR -> new InternalServerErrorException(errorResponse);
+                default -> new RemoteServiceException(errorResponse);
+            };
         }
-        throw new RemoteServiceException(errorResponse);
+        return new RemoteServiceException(errorResponse);
     }
 }
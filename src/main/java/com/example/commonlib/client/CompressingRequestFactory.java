@@ -0,0 +1,265 @@
+package com.example.commonlib.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.FastByteArrayOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.function.Function;
+
+/**
+ * Adds compression to the requests of another {@link ClientHttpRequestFactory}, for the downstreams that
+ * have a {@link Compression} configured.
+ * <p>
+ * Request bodies of a known length are compressed on the fly when they reach the threshold. Bodies of an
+ * unknown length, such as JSON written by Jackson, are held raw until they reach the threshold and
+ * compressed into memory from then on, so small bodies go out uncompressed with an exact
+ * {@code Content-Length}. Requests that already carry a {@code Content-Encoding} are left alone.
+ * <p>
+ * Responses are requested with {@code Accept-Encoding: gzip, deflate} and decoded, dropping the
+ * {@code Content-Encoding} and {@code Content-Length} headers that described the encoded body. Transports that
+ * decompress by themselves, like Apache HttpClient, pass the response on already decoded.
+ */
+final class CompressingRequestFactory implements ClientHttpRequestFactory {
+
+    private final ClientHttpRequestFactory delegate;
+    private final Function<String, Compression> compressionFor;
+
+    /**
+     * @param compressionFor the compression of a URL, or {@code null} where it is not configured
+     */
+    CompressingRequestFactory(ClientHttpRequestFactory delegate, Function<String, Compression> compressionFor) {
+        this.delegate = delegate;
+        this.compressionFor = compressionFor;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        ClientHttpRequest request = delegate.createRequest(uri, httpMethod);
+        Compression compression = compressionFor.apply(uri.toString());
+        if (compression == null) {
+            return request;
+        }
+        if (compression.decompressesResponses() && !request.getHeaders().containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+            request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, Compression.ACCEPT_ENCODING);
+        }
+        return new CompressingRequest(request, compression);
+    }
+
+    private static final class CompressingRequest implements ClientHttpRequest, StreamingHttpOutputMessage {
+
+        private final ClientHttpRequest delegate;
+        private final Compression compression;
+        private ThresholdOutputStream buffered;
+        private Body body;
+
+        CompressingRequest(ClientHttpRequest delegate, Compression compression) {
+            this.delegate = delegate;
+            this.compression = compression;
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return delegate.getMethod();
+        }
+
+        @Override
+        public URI getURI() {
+            return delegate.getURI();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            if (!compression.compressesRequests() || getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)) {
+                return delegate.getBody();
+            }
+            if (buffered == null) {
+                buffered = new ThresholdOutputStream(compression);
+            }
+            return buffered;
+        }
+
+        @Override
+        public void setBody(Body body) {
+            this.body = body;
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            if (body != null) {
+                writeStreamingBody(body);
+            } else if (buffered != null) {
+                writeBuffered(buffered);
+            }
+            ClientHttpResponse response = delegate.execute();
+            String encoding = response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+            return compression.decompressesResponses() && Compression.isSupported(encoding)
+                    ? new DecompressingResponse(response, compression, encoding)
+                    : response;
+        }
+
+        private void writeStreamingBody(Body body) throws IOException {
+            HttpHeaders headers = getHeaders();
+            long contentLength = headers.getContentLength();
+            if (!compression.compressesRequests() || headers.containsKey(HttpHeaders.CONTENT_ENCODING)
+                    || (contentLength >= 0 && !compression.compresses(contentLength))) {
+                setDelegateBody(body);
+                return;
+            }
+            if (contentLength >= 0) {
+                headers.set(HttpHeaders.CONTENT_ENCODING, Compression.GZIP);
+                headers.remove(HttpHeaders.CONTENT_LENGTH);
+                setDelegateBody(out -> {
+                    try (OutputStream gzip = compression.gzip(out)) {
+                        body.writeTo(gzip);
+                    }
+                });
+                return;
+            }
+            ThresholdOutputStream threshold = new ThresholdOutputStream(compression);
+            body.writeTo(threshold);
+            writeBuffered(threshold);
+        }
+
+        private void writeBuffered(ThresholdOutputStream buffered) throws IOException {
+            buffered.close();
+            HttpHeaders headers = getHeaders();
+            if (buffered.isCompressed()) {
+                headers.set(HttpHeaders.CONTENT_ENCODING, Compression.GZIP);
+            }
+            headers.setContentLength(buffered.size());
+            setDelegateBody(buffered::writeTo);
+        }
+
+        private void setDelegateBody(Body body) throws IOException {
+            if (delegate instanceof StreamingHttpOutputMessage streaming) {
+                streaming.setBody(body);
+            } else {
+                body.writeTo(delegate.getBody());
+            }
+        }
+    }
+
+    /**
+     * Keeps a body raw until it reaches the threshold, then gzip-compresses everything into memory.
+     */
+    private static final class ThresholdOutputStream extends OutputStream {
+
+        private final Compression compression;
+        private FastByteArrayOutputStream raw = new FastByteArrayOutputStream();
+        private FastByteArrayOutputStream compressed;
+        private OutputStream gzip;
+
+        ThresholdOutputStream(Compression compression) {
+            this.compression = compression;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (gzip != null) {
+                gzip.write(b, off, len);
+                return;
+            }
+            raw.write(b, off, len);
+            if (raw.size() >= compression.thresholdBytes()) {
+                compressed = new FastByteArrayOutputStream();
+                gzip = compression.gzip(compressed);
+                raw.writeTo(gzip);
+                raw = null;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (gzip != null) {
+                gzip.close();
+            }
+        }
+
+        boolean isCompressed() {
+            return compressed != null;
+        }
+
+        int size() {
+            return compressed != null ? compressed.size() : raw.size();
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            (compressed != null ? compressed : raw).writeTo(out);
+        }
+    }
+
+    private static final class DecompressingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final Compression compression;
+        private final String encoding;
+        private final HttpHeaders headers;
+        private InputStream body;
+
+        DecompressingResponse(ClientHttpResponse delegate, Compression compression, String encoding) {
+            this.delegate = delegate;
+            this.compression = compression;
+            this.encoding = encoding;
+            HttpHeaders decoded = new HttpHeaders();
+            decoded.putAll(delegate.getHeaders());
+            decoded.remove(HttpHeaders.CONTENT_ENCODING);
+            decoded.remove(HttpHeaders.CONTENT_LENGTH);
+            this.headers = HttpHeaders.readOnlyHttpHeaders(decoded);
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = compression.decode(encoding, delegate.getBody());
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            try {
+                if (body != null) {
+                    body.close();
+                }
+            } catch (IOException ex) {
+                // the delegate releases the connection below either way
+            } finally {
+                delegate.close();
+            }
+        }
+    }
+}
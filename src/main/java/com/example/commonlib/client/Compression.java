@@ -0,0 +1,295 @@
+package com.example.commonlib.client;
+
+import com.example.commonlib.config.CompressionProperties;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Gzip request compression and gzip/deflate response decompression for one compression configuration.
+ * <p>
+ * {@link Deflater} and {@link Inflater} hold native zlib memory that is only freed by {@code end()} or
+ * finalization, so creating one per call churns native memory under load. They are pooled here instead: a
+ * stream borrows one and returns it, reset, when it is closed. Instances beyond the pool size are ended.
+ * The gzip framing is written and checked by hand because {@link java.util.zip.GZIPOutputStream} and
+ * {@link java.util.zip.GZIPInputStream} always create their own.
+ */
+final class Compression {
+
+    static final String GZIP = "gzip";
+    static final String DEFLATE = "deflate";
+    static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    private final boolean requestCompression;
+    private final int thresholdBytes;
+    private final int level;
+    private final boolean responseDecompression;
+    private final BlockingQueue<Deflater> deflaters;
+    private final BlockingQueue<Inflater> gzipInflaters;
+    private final BlockingQueue<Inflater> zlibInflaters;
+
+    Compression(CompressionProperties props) {
+        this.requestCompression = props.isRequestCompression();
+        this.thresholdBytes = Math.max(0, props.getRequestThresholdBytes());
+        this.level = props.getLevel();
+        this.responseDecompression = props.isResponseDecompression();
+        int poolSize = Math.max(1, props.getPoolSize());
+        this.deflaters = new ArrayBlockingQueue<>(poolSize);
+        this.gzipInflaters = new ArrayBlockingQueue<>(poolSize);
+        this.zlibInflaters = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    boolean compressesRequests() {
+        return requestCompression;
+    }
+
+    int thresholdBytes() {
+        return thresholdBytes;
+    }
+
+    boolean decompressesResponses() {
+        return responseDecompression;
+    }
+
+    /**
+     * @param contentLength the body length, or -1 when unknown
+     * @return whether a body of that length is sent compressed
+     */
+    boolean compresses(long contentLength) {
+        return requestCompression && (contentLength < 0 || contentLength >= thresholdBytes);
+    }
+
+    /**
+     * @return whether responses with this {@code Content-Encoding} can be decompressed
+     */
+    static boolean isSupported(String contentEncoding) {
+        if (contentEncoding == null) {
+            return false;
+        }
+        String encoding = contentEncoding.trim().toLowerCase(Locale.ROOT);
+        return encoding.equals(GZIP) || encoding.equals("x-gzip") || encoding.equals(DEFLATE);
+    }
+
+    /**
+     * @return a stream that gzip-compresses into {@code out}; closing it finishes the gzip member and returns
+     * the deflater to the pool, but leaves {@code out} open
+     */
+    OutputStream gzip(OutputStream out) throws IOException {
+        return new GzipOutputStream(out, borrowDeflater());
+    }
+
+    byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, bytes.length / 4));
+        try (OutputStream gzip = gzip(compressed)) {
+            gzip.write(bytes);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * @return a stream of the decoded bytes of {@code in}, which an empty body decodes to as well
+     */
+    InputStream decode(String contentEncoding, InputStream in) throws IOException {
+        int first = in.read();
+        if (first < 0) {
+            return in;
+        }
+        InputStream source = new SequenceInputStream(new ByteArrayInputStream(new byte[]{(byte) first}), in);
+        if (DEFLATE.equals(contentEncoding.trim().toLowerCase(Locale.ROOT))) {
+            return new PooledInflaterInputStream(source, borrowInflater(zlibInflaters, false), zlibInflaters);
+        }
+        readGzipHeader(source);
+        return new GzipInputStream(source, borrowInflater(gzipInflaters, true), gzipInflaters);
+    }
+
+    byte[] decode(String contentEncoding, byte[] bytes) throws IOException {
+        try (InputStream decoded = decode(contentEncoding, new ByteArrayInputStream(bytes))) {
+            return decoded.readAllBytes();
+        }
+    }
+
+    private Deflater borrowDeflater() {
+        Deflater deflater = deflaters.poll();
+        return deflater != null ? deflater : new Deflater(level, true);
+    }
+
+    private void release(Deflater deflater) {
+        deflater.reset();
+        if (!deflaters.offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    private static Inflater borrowInflater(BlockingQueue<Inflater> pool, boolean nowrap) {
+        Inflater inflater = pool.poll();
+        return inflater != null ? inflater : new Inflater(nowrap);
+    }
+
+    private static void release(Inflater inflater, BlockingQueue<Inflater> pool) {
+        inflater.reset();
+        if (!pool.offer(inflater)) {
+            inflater.end();
+        }
+    }
+
+    private static void readGzipHeader(InputStream in) throws IOException {
+        if (readByte(in) != 0x1f || readByte(in) != 0x8b || readByte(in) != Deflater.DEFLATED) {
+            throw new ZipException("Not in GZIP format");
+        }
+        int flags = readByte(in);
+        in.skipNBytes(6);
+        if ((flags & FEXTRA) != 0) {
+            in.skipNBytes(readByte(in) | (readByte(in) << 8));
+        }
+        if ((flags & FNAME) != 0) {
+            while (readByte(in) != 0) {
+                // skip the zero-terminated file name
+            }
+        }
+        if ((flags & FCOMMENT) != 0) {
+            while (readByte(in) != 0) {
+                // skip the zero-terminated comment
+            }
+        }
+        if ((flags & FHCRC) != 0) {
+            in.skipNBytes(2);
+        }
+    }
+
+    private static int readByte(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("Unexpected end of GZIP stream");
+        }
+        return b;
+    }
+
+    private final class GzipOutputStream extends DeflaterOutputStream {
+
+        private final CRC32 crc = new CRC32();
+        private boolean closed;
+
+        GzipOutputStream(OutputStream out, Deflater deflater) throws IOException {
+            super(out, deflater, BUFFER_SIZE);
+            out.write(GZIP_HEADER);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            super.write(b, off, len);
+            crc.update(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                finish();
+                writeIntLE((int) crc.getValue());
+                writeIntLE((int) def.getBytesRead());
+                out.flush();
+            } finally {
+                release(def);
+            }
+        }
+
+        private void writeIntLE(int value) throws IOException {
+            out.write(value & 0xff);
+            out.write((value >>> 8) & 0xff);
+            out.write((value >>> 16) & 0xff);
+            out.write((value >>> 24) & 0xff);
+        }
+    }
+
+    private static class PooledInflaterInputStream extends InflaterInputStream {
+
+        private final BlockingQueue<Inflater> pool;
+        private boolean closed;
+
+        PooledInflaterInputStream(InputStream in, Inflater inflater, BlockingQueue<Inflater> pool) {
+            super(in, inflater, BUFFER_SIZE);
+            this.pool = pool;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                super.close();
+            } finally {
+                release(inf, pool);
+            }
+        }
+    }
+
+    /**
+     * Inflates a single gzip member and checks its CRC-32 and length trailer.
+     */
+    private static final class GzipInputStream extends PooledInflaterInputStream {
+
+        private final CRC32 crc = new CRC32();
+        private boolean trailerChecked;
+
+        GzipInputStream(InputStream in, Inflater inflater, BlockingQueue<Inflater> pool) {
+            super(in, inflater, pool);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (trailerChecked) {
+                return -1;
+            }
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                crc.update(b, off, n);
+            } else if (n < 0) {
+                checkTrailer();
+            }
+            return n;
+        }
+
+        private void checkTrailer() throws IOException {
+            trailerChecked = true;
+            int remaining = inf.getRemaining();
+            InputStream trailer = remaining > 0
+                    ? new SequenceInputStream(new ByteArrayInputStream(buf, len - remaining, remaining), in)
+                    : in;
+            long expectedCrc = readIntLE(trailer);
+            long expectedSize = readIntLE(trailer);
+            if (expectedCrc != crc.getValue() || expectedSize != (inf.getBytesWritten() & 0xffffffffL)) {
+                throw new ZipException("Corrupt GZIP trailer");
+            }
+        }
+
+        private static long readIntLE(InputStream in) throws IOException {
+            return (readByte(in) | (readByte(in) << 8) | (readByte(in) << 16) | ((long) readByte(in) << 24));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.commonlib.client;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Trips after a number of failures in a row; any success resets the count.
+ */
+final class ConsecutiveFailureWindow implements OutcomeWindow {
+
+    private final int failureThreshold;
+    private final AtomicInteger failureCount = new AtomicInteger(0);
+
+    ConsecutiveFailureWindow(int failureThreshold) {
+        this.failureThreshold = failureThreshold;
+    }
+
+    @Override
+    public void recordSuccess() {
+        // Skip the write on the common path so successful calls don't bounce the cache line
+        if (failureCount.get() != 0) {
+            failureCount.set(0);
+        }
+    }
+
+    @Override
+    public boolean recordFailure() {
+        return failureCount.incrementAndGet() >= failureThreshold;
+    }
+
+    @Override
+    public void reset() {
+        failureCount.set(0);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.commonlib.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Counts the body bytes read from a response, after any decoding, so a cached body can be weighed when the
+ * response has no {@code Content-Length}: chunked responses, and decoded ones whose length was dropped.
+ */
+final class CountingResponse implements ClientHttpResponse {
+
+    private final ClientHttpResponse delegate;
+    private CountingInputStream body;
+
+    CountingResponse(ClientHttpResponse delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * @return the number of body bytes read so far
+     */
+    long bytesRead() {
+        return body != null ? body.count : 0;
+    }
+
+    @Override
+    public HttpStatusCode getStatusCode() throws IOException {
+        return delegate.getStatusCode();
+    }
+
+    @Override
+    public String getStatusText() throws IOException {
+        return delegate.getStatusText();
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return delegate.getHeaders();
+    }
+
+    @Override
+    public InputStream getBody() throws IOException {
+        if (body == null) {
+            body = new CountingInputStream(delegate.getBody());
+        }
+        return body;
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        /**
+         * Without mark support readers peek through a pushback stream instead, so no byte is counted twice.
+         */
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.commonlib.client;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Point in time by which a call, including all of its retries and backoff delays, must have finished.
+ * <p>
+ * The deadline of the current thread applies to every call made on it, on top of any configured
+ * {@code deadline.timeout-ms}; the earlier of the two wins. Each attempt's timeouts are cut to the remaining
+ * time, a response body still being read when it passes is abandoned, a retry is only started if the time
+ * left after its backoff delay still covers an attempt, and the remaining milliseconds are sent downstream in
+ * the {@code deadline.header} header. Services that receive that header make it current for the duration of the request, so their own calls stay within the caller's budget:
+ * <pre>{@code
+ * Deadline deadline = Deadline.fromHeader(request.getHeader(Deadline.HEADER));
+ * try (Deadline.Scope scope = deadline != null ? deadline.makeCurrent() : null) {
+ *     client.get(url, Customer.class);
+ * }
+ * }</pre>
+ */
+public final class Deadline {
+
+    public static final String HEADER = "X-Request-Timeout-Ms";
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * @return a deadline {@code timeout} from now
+     */
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * Parses a remaining time in milliseconds, as sent in the {@link #HEADER} header.
+     *
+     * @return the deadline, or {@code null} when {@code value} is missing or malformed
+     */
+    public static Deadline fromHeader(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            long remainingMs = Long.parseLong(value.trim());
+            return remainingMs >= 0 ? after(Duration.ofMillis(remainingMs)) : null;
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the deadline made current on this thread, or {@code null} outside of one
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Applies this deadline to calls made on this thread until the returned scope is closed, which restores
+     * the previous one. Within an enclosing deadline that is earlier, the enclosing one stays in effect.
+     */
+    public Scope makeCurrent() {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(earliest(previous, this));
+        return () -> restore(previous);
+    }
+
+    /**
+     * Wraps {@code task} so that it runs with the current thread's deadline, for handing work to another thread.
+     */
+    public static <T> Supplier<T> wrap(Supplier<T> task) {
+        Deadline deadline = CURRENT.get();
+        if (deadline == null) {
+            return task;
+        }
+        return () -> {
+            try (Scope scope = deadline.makeCurrent()) {
+                return task.get();
+            }
+        };
+    }
+
+    /**
+     * @return the time left, negative once the deadline has passed
+     */
+    public Duration remaining() {
+        return Duration.ofNanos(remainingNanos());
+    }
+
+    /**
+     * @return the whole milliseconds left, 0 once the deadline has passed
+     */
+    public long remainingMillis() {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(remainingNanos()));
+    }
+
+    public boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    long remainingNanos() {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    /**
+     * @return the earlier of two deadlines, either of which may be {@code null}
+     */
+    static Deadline earliest(Deadline a, Deadline b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        return a.deadlineNanos - b.deadlineNanos <= 0 ? a : b;
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline[remaining=" + remaining() + "]";
+    }
+
+    private static void restore(Deadline previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Restores the previous deadline when closed.
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
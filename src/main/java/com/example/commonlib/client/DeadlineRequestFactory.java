@@ -0,0 +1,208 @@
+package com.example.commonlib.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+
+/**
+ * Holds the response bodies of another {@link ClientHttpRequestFactory} to the {@link Deadline} that was current
+ * when the request was sent.
+ * <p>
+ * The transports' read timeout is cut to the time left when an attempt starts, but it bounds each read rather
+ * than the whole body: a server that sends a few bytes at a time keeps every read short and the call alive well
+ * past its deadline. Here each read of the body first checks the deadline and fails with a
+ * {@link SocketTimeoutException} once it has passed, so a body is read for at most one read timeout beyond it.
+ * Closing a response would then drain the rest of the body to keep the connection, so the body stream is closed
+ * first, which drops the connection of the JDK transport; transports whose body streams drain on close register
+ * with {@link #onAbort(Runnable)} how to drop the connection instead.
+ */
+final class DeadlineRequestFactory implements ClientHttpRequestFactory {
+
+    private static final ThreadLocal<Abort> CREATING = new ThreadLocal<>();
+
+    private final ClientHttpRequestFactory delegate;
+
+    DeadlineRequestFactory(ClientHttpRequestFactory delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Sets how to drop the connection of the request that is being created on this thread, for a transport to
+     * call from within its own {@link ClientHttpRequestFactory#createRequest}.
+     */
+    static void onAbort(Runnable action) {
+        Abort abort = CREATING.get();
+        if (abort != null) {
+            abort.action = action;
+        }
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        Abort abort = new Abort();
+        CREATING.set(abort);
+        try {
+            return new DeadlineRequest(delegate.createRequest(uri, httpMethod), abort);
+        } finally {
+            CREATING.remove();
+        }
+    }
+
+    private static final class Abort {
+
+        private Runnable action;
+    }
+
+    private static final class DeadlineRequest implements ClientHttpRequest, StreamingHttpOutputMessage {
+
+        private final ClientHttpRequest delegate;
+        private final Abort abort;
+        private Body body;
+
+        DeadlineRequest(ClientHttpRequest delegate, Abort abort) {
+            this.delegate = delegate;
+            this.abort = abort;
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return delegate.getMethod();
+        }
+
+        @Override
+        public URI getURI() {
+            return delegate.getURI();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void setBody(Body body) {
+            if (delegate instanceof StreamingHttpOutputMessage streaming) {
+                streaming.setBody(body);
+            } else {
+                this.body = body;
+            }
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            if (body != null) {
+                body.writeTo(delegate.getBody());
+            }
+            Deadline deadline = Deadline.current();
+            ClientHttpResponse response = delegate.execute();
+            return deadline != null ? new DeadlineResponse(response, deadline, abort) : response;
+        }
+    }
+
+    private static final class DeadlineResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final Deadline deadline;
+        private final Abort abort;
+        private InputStream body;
+
+        DeadlineResponse(ClientHttpResponse delegate, Deadline deadline, Abort abort) {
+            this.delegate = delegate;
+            this.deadline = deadline;
+            this.abort = abort;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new DeadlineInputStream(delegate.getBody(), deadline, abort);
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+
+    private static final class DeadlineInputStream extends FilterInputStream {
+
+        private final Deadline deadline;
+        private final Abort abort;
+
+        DeadlineInputStream(InputStream in, Deadline deadline, Abort abort) {
+            super(in);
+            this.deadline = deadline;
+            this.abort = abort;
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkDeadline();
+            return super.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            checkDeadline();
+            return super.read(b, off, len);
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            checkDeadline();
+            return super.skip(n);
+        }
+
+        private void checkDeadline() throws SocketTimeoutException {
+            if (deadline.isExpired()) {
+                abort();
+                throw new SocketTimeoutException("Deadline exceeded while reading the response body");
+            }
+        }
+
+        private void abort() {
+            if (abort.action != null) {
+                abort.action.run();
+                return;
+            }
+            try {
+                in.close();
+            } catch (IOException ex) {
+                // the connection is dropped either way
+            }
+        }
+    }
+}
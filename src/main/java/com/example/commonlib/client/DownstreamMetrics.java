@@ -0,0 +1,61 @@
+package com.example.commonlib.client;
+
+import org.springframework.http.HttpMethod;
+
+/**
+ * Metrics of one downstream, see {@link ClientMetrics}. Methods are called on the request path and must
+ * not block.
+ */
+public interface DownstreamMetrics {
+
+    DownstreamMetrics NOOP = new DownstreamMetrics() {
+    };
+
+    /**
+     * A call, including all of its retries, started or finished.
+     */
+    default void callStarted() {
+    }
+
+    default void callFinished() {
+    }
+
+    /**
+     * @param status HTTP status of the attempt, or 0 when no response was received
+     */
+    default void recordAttempt(HttpMethod method, int status, ClientMetrics.Outcome outcome, long durationNanos) {
+    }
+
+    /**
+     * @param attempt the attempt about to be sent, 2 for the first retry
+     */
+    default void recordRetry(HttpMethod method, int attempt) {
+    }
+
+    /**
+     * Called for every hedge sent while an attempt is still waiting for its first response.
+     */
+    default void recordHedge(HttpMethod method) {
+    }
+
+    default void circuitBreakerCreated(CircuitBreaker circuitBreaker) {
+    }
+
+    /**
+     * A breaker passed to {@link #circuitBreakerCreated} was dropped after being idle.
+     */
+    default void circuitBreakerRemoved(CircuitBreaker circuitBreaker) {
+    }
+
+    default void circuitBreakerTransition(CircuitBreaker.State from, CircuitBreaker.State to) {
+    }
+
+    default void adaptiveLimiterCreated(AdaptiveLimiter limiter) {
+    }
+
+    /**
+     * A limiter passed to {@link #adaptiveLimiterCreated} was dropped after being idle.
+     */
+    default void adaptiveLimiterRemoved(AdaptiveLimiter limiter) {
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.commonlib.client;
+
+import com.example.commonlib.config.RouteProperties;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Holds one instance of per-downstream state (circuit breaker, limiter, ...) for each configured route
+ * and, when enabled, for each host that matches no route.
+ * <p>
+ * Route instances are created up front and looked up by index. Host instances live in a
+ * {@link ConcurrentHashMap} probed with a thread-confined {@link HostKey}, so a lookup for a known
+ * host allocates nothing. Host instances idle for longer than the eviction time are dropped on a
+ * later lookup once {@code evictable} agrees, and handed to {@code evicted} if one is given.
+ */
+final class DownstreamRegistry<T> {
+
+    private static final long ACCESS_GRANULARITY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final class Entry<T> {
+        private final T value;
+        private volatile long lastAccessNanos;
+
+        private Entry(T value, long now) {
+            this.value = value;
+            this.lastAccessNanos = now;
+        }
+
+        private void touch(long now) {
+            // Only write when the timestamp is noticeably stale to keep the hot path read-mostly
+            if (now - lastAccessNanos > ACCESS_GRANULARITY_NANOS) {
+                lastAccessNanos = now;
+            }
+        }
+    }
+
+    private final RouteResolver routes;
+    private final Object[] routeValues;
+    private final T shared;
+    private final Function<String, T> hostFactory;
+    private final ConcurrentHashMap<HostKey, Entry<T>> hosts = new ConcurrentHashMap<>();
+    private final ThreadLocal<HostKey> probes = ThreadLocal.withInitial(HostKey::new);
+    private final long idleNanos;
+    private final Predicate<T> evictable;
+    private final BiConsumer<String, T> evicted;
+    private final AtomicLong nextSweepNanos;
+
+    /**
+     * @param routes       configured routes
+     * @param routeFactory creates the instance for a route from its name and properties, may return {@code null}
+     * @param hostFactory  creates the instance for an unrouted host from its authority, or {@code null} to share
+     *                     {@code shared}
+     * @param shared       instance used for unrouted URLs when {@code hostFactory} is {@code null}, may be {@code null}
+     * @param idleMs       idle time after which a host instance may be evicted
+     * @param evictable    whether an idle host instance can be dropped without losing state
+     */
+    DownstreamRegistry(RouteResolver routes,
+                       BiFunction<String, RouteProperties, T> routeFactory,
+                       Function<String, T> hostFactory,
+                       T shared,
+                       long idleMs,
+                       Predicate<T> evictable) {
+        this(routes, routeFactory, hostFactory, shared, idleMs, evictable, null);
+    }
+
+    /**
+     * @param evicted called with the host and instance of every host instance dropped, may be {@code null}
+     */
+    DownstreamRegistry(RouteResolver routes,
+                       BiFunction<String, RouteProperties, T> routeFactory,
+                       Function<String, T> hostFactory,
+                       T shared,
+                       long idleMs,
+                       Predicate<T> evictable,
+                       BiConsumer<String, T> evicted) {
+        this.routes = routes;
+        this.routeValues = new Object[routes.size()];
+        for (RouteResolver.Route route : routes.routes()) {
+            routeValues[route.index()] = routeFactory.apply(route.name(), route.properties());
+        }
+        this.hostFactory = hostFactory;
+        this.shared = shared;
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMs);
+        this.evictable = evictable;
+        this.evicted = evicted;
+        this.nextSweepNanos = new AtomicLong(System.nanoTime() + idleNanos);
+    }
+
+    /**
+     * @return the instance responsible for {@code url}, or {@code null} if none applies
+     */
+    @SuppressWarnings("unchecked")
+    T get(String url) {
+        RouteResolver.Route route = routes.resolve(url);
+        if (route != null) {
+            return (T) routeValues[route.index()];
+        }
+        if (hostFactory == null) {
+            return shared;
+        }
+
+        long now = System.nanoTime();
+        HostKey probe = probes.get().wrap(url);
+        Entry<T> entry = hosts.get(probe);
+        if (entry == null) {
+            entry = hosts.computeIfAbsent(probe.copy(), key -> new Entry<>(hostFactory.apply(key.toString()), now));
+        } else {
+            entry.touch(now);
+        }
+        probe.clear();
+
+        if (now - nextSweepNanos.get() >= 0) {
+            evictIdle(now);
+        }
+        return entry.value;
+    }
+
+    /**
+     * Visits every instance currently held, with the route name or host it belongs to.
+     */
+    @SuppressWarnings("unchecked")
+    void forEach(BiConsumer<String, T> action) {
+        for (RouteResolver.Route route : routes.routes()) {
+            T value = (T) routeValues[route.index()];
+            if (value != null) {
+                action.accept(route.name(), value);
+            }
+        }
+        if (hostFactory == null) {
+            if (shared != null) {
+                action.accept("*", shared);
+            }
+            return;
+        }
+        hosts.forEach((key, entry) -> action.accept(key.toString(), entry.value));
+    }
+
+    private void evictIdle(long now) {
+        long scheduled = nextSweepNanos.get();
+        // Only the thread that wins the CAS sweeps; everyone else carries on
+        if (!nextSweepNanos.compareAndSet(scheduled, now + Math.max(idleNanos / 4, ACCESS_GRANULARITY_NANOS))) {
+            return;
+        }
+        hosts.forEach((key, entry) -> {
+            if (now - entry.lastAccessNanos > idleNanos && evictable.test(entry.value)
+                    && hosts.remove(key, entry) && evicted != null) {
+                evicted.accept(key.toString(), entry.value);
+            }
+        });
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.commonlib.client;
+
+import com.example.commonlib.config.AdaptiveLimitProperties;
+
+/**
+ * Gradient limit: the ratio of the unloaded round-trip time to the current one tells how much of the
+ * latency is queueing. The limit is scaled by that gradient, clamped to [0.5, 1], plus a headroom of
+ * {@code sqrt(limit)} that lets it probe upwards. Each sample carries a {@code 1 / limit} share of the
+ * change, so the limit moves once per window of calls however many calls that window holds; growth is
+ * applied in full, shrinking is smoothed so single outliers barely move it.
+ * <p>
+ * The unloaded round-trip time is the minimum seen. Every {@link AdaptiveLimitProperties#getMinRttWindow()}
+ * samples it is checked: if no sample came close, the downstream may simply have become slower, so the
+ * limit is halved to drain any queue and the minimum of the following window becomes the new baseline.
+ */
+final class GradientLimit implements LimitAlgorithm {
+
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final double rttTolerance;
+    private final double smoothing;
+    private final int minRttWindow;
+    private long baselineRtt = Long.MAX_VALUE;
+    private long windowMinRtt = Long.MAX_VALUE;
+    private int samples;
+    private boolean probing;
+
+    GradientLimit(AdaptiveLimitProperties props) {
+        this.rttTolerance = props.getRttTolerance();
+        this.smoothing = props.getSmoothing();
+        this.minRttWindow = Math.max(1, props.getMinRttWindow());
+    }
+
+    @Override
+    public double update(double limit, long startNanos, long endNanos, int inFlight, boolean dropped) {
+        long rtt = Math.max(1, endNanos - startNanos);
+        if (!dropped) {
+            windowMinRtt = Math.min(windowMinRtt, rtt);
+        }
+        if (++samples >= minRttWindow) {
+            samples = 0;
+            long observed = windowMinRtt;
+            windowMinRtt = Long.MAX_VALUE;
+            if (probing) {
+                probing = false;
+                if (observed != Long.MAX_VALUE) {
+                    baselineRtt = observed;
+                }
+            } else if (observed <= baselineRtt) {
+                baselineRtt = observed;
+            } else {
+                probing = true;
+                return limit / 2;
+            }
+        }
+        long minRtt = Math.min(baselineRtt, windowMinRtt);
+        if (minRtt == Long.MAX_VALUE) {
+            return limit;
+        }
+
+        double gradient = dropped
+                ? MIN_GRADIENT
+                : Math.max(MIN_GRADIENT, Math.min(1.0, rttTolerance * minRtt / rtt));
+        // A half-used limit says nothing about how far it could grow
+        if (gradient == 1.0 && inFlight * 2 < limit) {
+            return limit;
+        }
+        double change = limit * gradient + Math.sqrt(limit) - limit;
+        return limit + (change > 0 ? change : change * smoothing) / limit;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.commonlib.client;
+
+import com.example.commonlib.config.HedgeProperties;
+import org.springframework.http.HttpMethod;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Sends hedged requests to one downstream: when the first request has not answered within the hedge delay,
+ * an identical one is sent and the first successful response wins. The others are cancelled. The delay is
+ * either fixed or the configured percentile of this downstream's recent latencies, and hedges draw from a
+ * {@link RetryBudget} so they stay a bounded share of the traffic.
+ * <p>
+ * The hedged requests form a single attempt: they fail together only once every one of them failed, so
+ * retries, circuit breakers and limiters see one outcome per attempt. The latency recorded for the delay is
+ * the attempt's, from the first request to the winning response, so hedges that win do not pull the
+ * percentile below the latency they were hedging against.
+ */
+final class Hedger {
+
+    private static final int BUDGET_MAX_TOKENS = 100;
+
+    private final long fixedDelayNanos;
+    private final long minDelayNanos;
+    private final int maxHedges;
+    private final boolean hedgeIdempotentWrites;
+    private final LatencyTracker latencies;
+    private final RetryBudget budget;
+
+    Hedger(HedgeProperties props) {
+        this.fixedDelayNanos = TimeUnit.MILLISECONDS.toNanos(props.getDelayMs());
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(props.getMinDelayMs());
+        this.maxHedges = Math.max(0, props.getMaxHedges());
+        this.hedgeIdempotentWrites = props.isHedgeIdempotentWrites();
+        this.latencies = new LatencyTracker(props.getPercentile());
+        this.budget = new RetryBudget(props.getBudgetPercent(), props.getBudgetMinHedgesPerSecond(), BUDGET_MAX_TOKENS);
+    }
+
+    boolean appliesTo(HttpMethod method) {
+        return HttpMethod.GET.equals(method)
+                || (hedgeIdempotentWrites && (HttpMethod.PUT.equals(method) || HttpMethod.DELETE.equals(method)));
+    }
+
+    /**
+     * @return the current hedge delay, or -1 while the latency percentile is still unknown
+     */
+    long delayNanos() {
+        if (fixedDelayNanos > 0) {
+            return fixedDelayNanos;
+        }
+        long observed = latencies.percentileNanos();
+        return observed < 0 ? -1 : Math.max(minDelayNanos, observed);
+    }
+
+    /**
+     * @param request sends one request; every call must send an identical one
+     * @param onHedge called for every hedge sent
+     */
+    <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> request, Runnable onHedge) {
+        budget.deposit();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        List<CompletableFuture<T>> sent = new CopyOnWriteArrayList<>();
+        AtomicInteger outstanding = new AtomicInteger();
+        result.whenComplete((value, error) -> sent.forEach(future -> future.cancel(true)));
+
+        long start = System.nanoTime();
+        send(request, result, sent, outstanding, start);
+        long delay = delayNanos();
+        if (maxHedges > 0 && delay > 0) {
+            scheduleHedge(request, onHedge, result, sent, outstanding, start, delay, 1);
+        }
+        return result;
+    }
+
+    private <T> void scheduleHedge(Supplier<CompletableFuture<T>> request, Runnable onHedge, CompletableFuture<T> result,
+                                   List<CompletableFuture<T>> sent, AtomicInteger outstanding, long start, long delay,
+                                   int hedge) {
+        SharedScheduler.get().schedule(() -> {
+            if (result.isDone() || !budget.tryWithdraw()) {
+                return;
+            }
+            onHedge.run();
+            send(request, result, sent, outstanding, start);
+            if (hedge < maxHedges) {
+                scheduleHedge(request, onHedge, result, sent, outstanding, start, delay, hedge + 1);
+            }
+        }, delay, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param start when the attempt's first request was sent
+     */
+    private <T> void send(Supplier<CompletableFuture<T>> request, CompletableFuture<T> result,
+                          List<CompletableFuture<T>> sent, AtomicInteger outstanding, long start) {
+        outstanding.incrementAndGet();
+        CompletableFuture<T> future;
+        try {
+            future = request.get();
+        } catch (RuntimeException ex) {
+            future = CompletableFuture.failedFuture(ex);
+        }
+        sent.add(future);
+        if (result.isDone()) {
+            future.cancel(true);
+            return;
+        }
+        future.whenComplete((value, error) -> {
+            if (error == null) {
+                // Recorded before completing, so the next call already hedges with this latency
+                if (!result.isDone()) {
+                    latencies.record(System.nanoTime() - start);
+                }
+                result.complete(value);
+            } else if (outstanding.decrementAndGet() == 0) {
+                result.completeExceptionally(RetryExecutor.unwrap(error));
+            }
+        });
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.commonlib.client;
+
+import java.util.Locale;
+
+/**
+ * Case-insensitive key over the authority part of a URL. A thread-confined instance can be
+ * re-pointed at each request URL and used as a lookup probe, so map lookups by host don't
+ * need to substring the URL; {@link #copy()} is only taken when a new host is stored.
+ */
+final class HostKey {
+
+    private String source;
+    private int start;
+    private int end;
+    private int hash;
+
+    HostKey wrap(String url) {
+        this.source = url;
+        this.start = RouteResolver.authorityStart(url);
+        this.end = RouteResolver.authorityEnd(url, start);
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + Character.toLowerCase(url.charAt(i));
+        }
+        this.hash = h;
+        return this;
+    }
+
+    void clear() {
+        this.source = null;
+    }
+
+    HostKey copy() {
+        HostKey key = new HostKey();
+        key.source = source.substring(start, end).toLowerCase(Locale.ROOT);
+        key.start = 0;
+        key.end = key.source.length();
+        key.hash = hash;
+        return key;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof HostKey other
+                && other.hash == hash
+                && other.end - other.start == end - start
+                && source.regionMatches(true, start, other.source, other.start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return source.substring(start, end);
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.commonlib.client;
+
+import com.example.commonlib.config.RestClientProperties;
+import com.example.commonlib.config.TransportProperties;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Builds and owns the {@link ClientHttpRequestFactory} selected by {@link TransportProperties}.
+ * Pooled transports keep their connections for the lifetime of this object, so it must be closed
+ * together with the owning client. Every request takes its timeouts from {@link Timeouts}, so route
+ * overrides and the calling thread's {@link Deadline} apply.
+ * <p>
+ * Non-blocking calls always go through a JDK {@link HttpClient}. With the JDK transport that is the same
+ * client, and pool, the blocking calls use; otherwise one is created on first use. The JDK client only takes
+ * the connection timeout and HTTP version from the properties: it has no per-client pool size, idle eviction
+ * or connection lifetime, so the APACHE transport's pool settings do not carry over to it. Creation is guarded
+ * by a {@link ReentrantLock} rather than {@code synchronized} so it never pins a virtual thread to its carrier.
+ */
+final class HttpTransport implements AutoCloseable {
+
+    private final RestClientProperties props;
+    private final Executor executor;
+    private final ClientHttpRequestFactory requestFactory;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile HttpClient httpClient;
+
+    private HttpTransport(RestClientProperties props, Executor executor,
+                          ClientHttpRequestFactory requestFactory, HttpClient httpClient) {
+        this.props = props;
+        this.executor = executor;
+        this.requestFactory = requestFactory;
+        this.httpClient = httpClient;
+    }
+
+    /**
+     * @param executor runs the JDK client's internal tasks, or {@code null} for the client's default pool
+     */
+    static HttpTransport create(RestClientProperties props, Executor executor, Timeouts timeouts) {
+        TransportProperties transport = props.getTransport();
+        return switch (transport.getType()) {
+            case SIMPLE -> new HttpTransport(props, executor, simple(timeouts), null);
+            case JDK -> {
+                HttpClient httpClient = jdkHttpClient(props, executor);
+                yield new HttpTransport(props, executor, jdk(httpClient, timeouts), httpClient);
+            }
+            case APACHE -> new HttpTransport(props, executor, apache(props, transport, timeouts), null);
+        };
+    }
+
+    ClientHttpRequestFactory requestFactory() {
+        return requestFactory;
+    }
+
+    HttpClient httpClient() {
+        HttpClient client = httpClient;
+        if (client == null) {
+            lock.lock();
+            try {
+                client = httpClient;
+                if (client == null) {
+                    client = jdkHttpClient(props, executor);
+                    httpClient = client;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return client;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (requestFactory instanceof HttpComponentsClientHttpRequestFactory apache
+                && apache.getHttpClient() instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static ClientHttpRequestFactory simple(Timeouts timeouts) {
+        return new SimpleClientHttpRequestFactory() {
+            @Override
+            protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
+                super.prepareConnection(connection, httpMethod);
+                String url = connection.getURL().toString();
+                connection.setConnectTimeout(timeouts.connectionTimeout(url));
+                connection.setReadTimeout(timeouts.readTimeout(url));
+                // Closing the response drains the body, which a deadline must not wait for
+                DeadlineRequestFactory.onAbort(connection::disconnect);
+            }
+        };
+    }
+
+    /**
+     * The JDK factory has a single read timeout, so a lightweight one is created per request around the
+     * shared client. Its connection timeout is the client's and cannot be set per request. The read timeout
+     * only covers the response headers, so {@link ReadTimeoutRequestFactory} bounds each read of the body.
+     */
+    private static ClientHttpRequestFactory jdk(HttpClient httpClient, Timeouts timeouts) {
+        Executor executor = httpClient.executor().orElseGet(SimpleAsyncTaskExecutor::new);
+        return (uri, httpMethod) -> {
+            var factory = new JdkClientHttpRequestFactory(httpClient, executor);
+            int readTimeout = timeouts.readTimeout(uri.toString());
+            // 0 means no timeout, which the JDK client takes as leaving it unset rather than as a zero duration
+            if (readTimeout <= 0) {
+                return factory.createRequest(uri, httpMethod);
+            }
+            factory.setReadTimeout(readTimeout);
+            return new ReadTimeoutRequestFactory(factory, readTimeout).createRequest(uri, httpMethod);
+        };
+    }
+
+    private static HttpClient jdkHttpClient(RestClientProperties props, Executor executor) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(props.getTransport().isHttp2Enabled() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NORMAL);
+        // 0 means no timeout, which the JDK client takes as leaving it unset rather than as a zero duration
+        if (props.getConnectionTimeout() > 0) {
+            builder.connectTimeout(Duration.ofMillis(props.getConnectionTimeout()));
+        }
+        if (executor != null) {
+            builder.executor(executor);
+        }
+        return builder.build();
+    }
+
+    @SuppressWarnings("deprecation")
+    private static ClientHttpRequestFactory apache(RestClientProperties props, TransportProperties transport,
+                                                   Timeouts timeouts) {
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(props.getConnectionTimeout()))
+                .setSocketTimeout(Timeout.ofMilliseconds(props.getReadTimeout()))
+                .setTimeToLive(transport.getKeepAliveTtlMs() > 0
+                        ? TimeValue.ofMilliseconds(transport.getKeepAliveTtlMs())
+                        : TimeValue.NEG_ONE_MILLISECOND)
+                .build();
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnPerRoute(transport.getMaxConnectionsPerRoute())
+                .setMaxConnTotal(transport.getMaxConnectionsTotal())
+                .setDefaultConnectionConfig(connectionConfig)
+                .build();
+
+        // Reused connections take their socket timeout from the request, not from the connection config
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(props.getConnectionTimeout()))
+                .setResponseTimeout(Timeout.ofMilliseconds(props.getReadTimeout()))
+                .build();
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .disableAutomaticRetries()
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(transport.getIdleEvictionMs()))
+                .build();
+
+        var factory = new HttpComponentsClientHttpRequestFactory(httpClient) {
+            @Override
+            protected void postProcessHttpRequest(ClassicHttpRequest request) {
+                // Closing the response drains the body, which a deadline must not wait for
+                if (request instanceof Cancellable cancellable) {
+                    DeadlineRequestFactory.onAbort(cancellable::cancel);
+                }
+            }
+        };
+        // The request's connect timeout is deprecated in favour of ConnectionConfig, but it is the only
+        // per-request one and still takes precedence over the pool's
+        factory.setHttpContextFactory((httpMethod, uri) -> {
+            String url = uri.toString();
+            HttpClientContext context = HttpClientContext.create();
+            context.setRequestConfig(RequestConfig.copy(requestConfig)
+                    .setConnectTimeout(Timeout.ofMilliseconds(timeouts.connectionTimeout(url)))
+                    .setResponseTimeout(Timeout.ofMilliseconds(timeouts.readTimeout(url)))
+                    .build());
+            return context;
+        });
+        return factory;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.commonlib.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads the elements of a top-level JSON array one at a time with Jackson's streaming parser, so only the
+ * element being read is held in memory rather than the whole response. An empty body reads as an empty array.
+ * <p>
+ * Once constructed, the reader owns the response: it is closed once the array ends, on the first failure, or by
+ * {@link #close()}. A failure is mapped before the response is closed, so closing it can tell how the read ended.
+ */
+final class JsonArrayReader<T> implements Iterator<T>, Closeable {
+
+    private final JsonParser parser;
+    private final ObjectReader reader;
+    private final Closeable response;
+    private final Function<IOException, RuntimeException> errorMapper;
+    private boolean ready;
+    private boolean closed;
+
+    /**
+     * @param errorMapper turns a read failure into the exception thrown to the caller
+     * @throws IOException if the body does not start with a JSON array; the response is then left to the caller
+     */
+    JsonArrayReader(ObjectMapper objectMapper, InputStream body, Class<T> elementType, Closeable response,
+                    Function<IOException, RuntimeException> errorMapper) throws IOException {
+        this.parser = objectMapper.getFactory().createParser(body);
+        this.reader = objectMapper.readerFor(elementType);
+        this.response = response;
+        this.errorMapper = errorMapper;
+        JsonToken first = parser.nextToken();
+        if (first == null) {
+            closed = true;
+            closeQuietly();
+        } else if (first != JsonToken.START_ARRAY) {
+            parser.close();
+            throw new IOException("Expected a JSON array but found " + first);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) {
+            return false;
+        }
+        if (ready) {
+            return true;
+        }
+        try {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                throw new IOException("Unexpected end of JSON array");
+            }
+            if (token == JsonToken.END_ARRAY) {
+                close();
+                return false;
+            }
+            ready = true;
+            return true;
+        } catch (IOException ex) {
+            RuntimeException mapped = errorMapper.apply(ex);
+            close();
+            throw mapped;
+        }
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ready = false;
+        try {
+            return reader.readValue(parser);
+        } catch (IOException ex) {
+            RuntimeException mapped = errorMapper.apply(ex);
+            close();
+            throw mapped;
+        }
+    }
+
+    /**
+     * @return the remaining elements as a sequential stream that closes this reader when it is closed
+     */
+    Stream<T> stream() {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false)
+                .onClose(this::close);
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            closeQuietly();
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            parser.close();
+        } catch (IOException ex) {
+            // the response is closed below either way
+        }
+        try {
+            response.close();
+        } catch (IOException ex) {
+            // nothing left to release
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.commonlib.client;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the latencies of the most recent calls in a lock-free ring and recomputes one percentile of them
+ * every {@link #RECOMPUTE_INTERVAL} samples, so reading the percentile costs a volatile read.
+ */
+final class LatencyTracker {
+
+    static final int WINDOW = 256;
+    static final int MIN_SAMPLES = 20;
+    static final int RECOMPUTE_INTERVAL = 16;
+
+    private final double percentile;
+    private final AtomicLongArray samples = new AtomicLongArray(WINDOW);
+    private final AtomicLong count = new AtomicLong();
+    private final ReentrantLock recomputeLock = new ReentrantLock();
+    private volatile long percentileNanos = -1;
+
+    /**
+     * @param percentile between 0 and 100
+     */
+    LatencyTracker(double percentile) {
+        this.percentile = Math.max(0, Math.min(100, percentile));
+    }
+
+    void record(long nanos) {
+        long n = count.getAndIncrement();
+        samples.set((int) (n % WINDOW), nanos);
+        long recorded = n + 1;
+        if (recorded >= MIN_SAMPLES && (recorded == MIN_SAMPLES || recorded % RECOMPUTE_INTERVAL == 0)) {
+            recompute();
+        }
+    }
+
+    /**
+     * @return the percentile of recent latencies, or -1 until {@link #MIN_SAMPLES} calls were recorded
+     */
+    long percentileNanos() {
+        return percentileNanos;
+    }
+
+    private void recompute() {
+        if (!recomputeLock.tryLock()) {
+            return;
+        }
+        try {
+            int size = (int) Math.min(count.get(), WINDOW);
+            long[] sorted = new long[size];
+            for (int i = 0; i < size; i++) {
+                sorted[i] = samples.get(i);
+            }
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100 * size) - 1;
+            percentileNanos = sorted[Math.max(0, Math.min(size - 1, index))];
+        } finally {
+            recomputeLock.unlock();
+        }
+    }
+}
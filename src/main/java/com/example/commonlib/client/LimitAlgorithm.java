@@ -0,0 +1,18 @@
+package com.example.commonlib.client;
+
+/**
+ * Computes the next concurrency limit of an {@link AdaptiveLimiter} from one round-trip sample.
+ * Calls are serialised by the limiter, so implementations may keep plain mutable state.
+ */
+interface LimitAlgorithm {
+
+    /**
+     * @param limit      the current limit
+     * @param startNanos when the sampled attempt was sent
+     * @param endNanos   when its response, or failure, arrived
+     * @param inFlight   calls in flight when the sample arrived
+     * @param dropped    whether the attempt failed with a 5xx or a timeout
+     * @return the new limit, before clamping to the configured bounds
+     */
+    double update(double limit, long startNanos, long endNanos, int inFlight, boolean dropped);
+}
@@ -0,0 +1,145 @@
+package com.example.commonlib.client;
+
+import com.example.commonlib.exception.NotFoundException;
+import com.example.commonlib.model.RemoteErrorResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Merges single-key lookups made within a short window into one bulk call. The first key of a batch opens
+ * the window; the batch is sent when the window closes or it reaches its maximum size, whichever comes
+ * first. The same key requested twice in one batch is only sent once.
+ * <p>
+ * The bulk call is user-supplied, typically a {@link CommonRestClient#getAsync(String, Class)} or
+ * {@code postAsync} of a bulk endpoint followed by splitting its response by key, see
+ * {@link CommonRestClient#microBatcher(Function, Class, java.util.function.BiFunction, int, Duration)}. As it
+ * is one downstream request, it is retried and recorded by the circuit breaker once for the whole batch. A
+ * failed bulk call fails every key of the batch with its exception; a key missing from the split result
+ * fails with a {@link NotFoundException}.
+ * <p>
+ * The window is closed on a shared scheduler thread, so the bulk call must return without blocking.
+ *
+ * @param <K> the key type, which must implement {@code equals} and {@code hashCode}
+ * @param <V> the value type
+ */
+public final class MicroBatcher<K, V> {
+
+    private final Function<List<K>, CompletableFuture<Map<K, V>>> bulkCall;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private Batch<K, V> open;
+
+    /**
+     * @param bulkCall     loads the values of the given keys in one call, without blocking
+     * @param maxBatchSize keys after which a batch is sent without waiting for the window to close
+     * @param maxDelay     how long the first key of a batch waits for others to join it
+     */
+    public MicroBatcher(Function<List<K>, CompletableFuture<Map<K, V>>> bulkCall, int maxBatchSize,
+                        Duration maxDelay) {
+        this.bulkCall = bulkCall;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxDelayNanos = maxDelay.toNanos();
+    }
+
+    /**
+     * @return a future of the key's value from the bulk call of the batch it joined
+     */
+    public CompletableFuture<V> get(K key) {
+        Batch<K, V> full = null;
+        CompletableFuture<V> value;
+        lock.lock();
+        try {
+            Batch<K, V> batch = open;
+            if (batch == null) {
+                batch = new Batch<>();
+                open = batch;
+                Batch<K, V> scheduled = batch;
+                batch.timer = SharedScheduler.get().schedule(() -> flushIfOpen(scheduled), maxDelayNanos,
+                        TimeUnit.NANOSECONDS);
+            }
+            value = batch.waiters.computeIfAbsent(key, k -> new CompletableFuture<>());
+            if (batch.waiters.size() >= maxBatchSize) {
+                open = null;
+                full = batch;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (full != null) {
+            full.timer.cancel(false);
+            send(full);
+        }
+        // Callers of the same key must not be able to complete each other's future
+        return value.copy();
+    }
+
+    /**
+     * @return the number of keys waiting for the current window to close
+     */
+    public int pending() {
+        lock.lock();
+        try {
+            return open != null ? open.waiters.size() : 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushIfOpen(Batch<K, V> batch) {
+        lock.lock();
+        try {
+            if (open != batch) {
+                return;
+            }
+            open = null;
+        } finally {
+            lock.unlock();
+        }
+        send(batch);
+    }
+
+    private void send(Batch<K, V> batch) {
+        List<K> keys = new ArrayList<>(batch.waiters.keySet());
+        CompletableFuture<Map<K, V>> response;
+        try {
+            response = bulkCall.apply(keys);
+        } catch (RuntimeException ex) {
+            response = CompletableFuture.failedFuture(ex);
+        }
+        response.whenComplete((values, error) -> {
+            if (error != null) {
+                Throwable cause = RetryExecutor.unwrap(error);
+                batch.waiters.values().forEach(waiter -> waiter.completeExceptionally(cause));
+                return;
+            }
+            batch.waiters.forEach((key, waiter) -> {
+                V value = values != null ? values.get(key) : null;
+                if (value != null) {
+                    waiter.complete(value);
+                } else {
+                    waiter.completeExceptionally(new NotFoundException(new RemoteErrorResponse(
+                            404,
+                            "Not Found",
+                            "No value for key " + key + " in bulk response",
+                            null
+                    )));
+                }
+            });
+        });
+    }
+
+    private static final class Batch<K, V> {
+        private final Map<K, CompletableFuture<V>> waiters = new LinkedHashMap<>();
+        private ScheduledFuture<?> timer;
+    }
+}
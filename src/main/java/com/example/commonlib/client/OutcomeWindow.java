@@ -0,0 +1,17 @@
+package com.example.commonlib.client;
+
+/**
+ * Failure accounting used by {@link CircuitBreaker} while it is CLOSED.
+ * Implementations must be lock-free and must not allocate when recording.
+ */
+interface OutcomeWindow {
+
+    void recordSuccess();
+
+    /**
+     * @return {@code true} if the breaker should trip after this failure
+     */
+    boolean recordFailure();
+
+    void reset();
+}
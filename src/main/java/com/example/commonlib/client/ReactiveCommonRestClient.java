@@ -0,0 +1,350 @@
+package com.example.commonlib.client;
+
+import com.example.commonlib.config.RestClientProperties;
+import com.example.commonlib.config.TransportProperties;
+import com.example.commonlib.exception.RemoteServiceException;
+import com.example.commonlib.model.RemoteErrorResponse;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.channel.ChannelOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking counterpart of {@link CommonRestClient} for WebFlux applications, built on {@link WebClient} and
+ * Reactor Netty, so calls never need to be moved to {@code boundedElastic}.
+ * <p>
+ * It is configured by the same {@link RestClientProperties}: timeouts, the connection pool limits of
+ * {@link TransportProperties}, and per-route or per-host circuit breakers and retries. Retries back off with
+ * {@code retryWhen} and draw from the same kind of retry budget; errors are mapped to the same
+ * {@link RemoteServiceException} subtypes, and attempts are reported to the same {@link ClientMetrics}.
+ * Bulkheads, adaptive limits, caching, single flight, hedging, request compression and tracing are only
+ * available on the blocking client.
+ */
+public class ReactiveCommonRestClient implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveCommonRestClient.class);
+
+    private final ConnectionProvider connectionProvider;
+    private final WebClient webClient;
+    private final RetryExecutor retryExecutor;
+    private final Retry retry;
+    private final DownstreamRegistry<CircuitBreaker> circuitBreakers;
+    private final DownstreamRegistry<DownstreamMetrics> downstreamMetrics;
+
+    public ReactiveCommonRestClient(RestClientProperties props) {
+        this(props, Jackson2ObjectMapperBuilder.json().build());
+    }
+
+    /**
+     * @param objectMapper used to write request bodies and read response bodies
+     */
+    public ReactiveCommonRestClient(RestClientProperties props, ObjectMapper objectMapper) {
+        this(props, objectMapper, ClientMetrics.NOOP);
+    }
+
+    /**
+     * @param objectMapper used to write request bodies and read response bodies
+     * @param metrics      receives latency, retry and circuit breaker measurements per downstream
+     */
+    public ReactiveCommonRestClient(RestClientProperties props, ObjectMapper objectMapper, ClientMetrics metrics) {
+        this(props, objectMapper, metrics, null);
+    }
+
+    /**
+     * @param objectMapper used to write request bodies and read response bodies
+     * @param metrics      receives latency, retry and circuit breaker measurements per downstream
+     * @param blocking     blocking client whose circuit breakers this client uses instead of building its own, so
+     *                     both trip together and report one breaker per downstream; may be {@code null}
+     */
+    public ReactiveCommonRestClient(RestClientProperties props, ObjectMapper objectMapper, ClientMetrics metrics,
+                                    CommonRestClient blocking) {
+        TransportProperties transport = props.getTransport();
+        // Reactor Netty keeps one pool per remote address, so its limit is the per-route one
+        ConnectionProvider.Builder pool = ConnectionProvider.builder("common-rest-client")
+                .maxConnections(transport.getMaxConnectionsPerRoute())
+                .maxIdleTime(Duration.ofMillis(transport.getIdleEvictionMs()));
+        if (transport.getKeepAliveTtlMs() > 0) {
+            pool.maxLifeTime(Duration.ofMillis(transport.getKeepAliveTtlMs()));
+        }
+        this.connectionProvider = pool.build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, props.getConnectionTimeout())
+                .responseTimeout(Duration.ofMillis(props.getReadTimeout()))
+                .compress(props.getCompression() != null && props.getCompression().isResponseDecompression());
+        this.webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                    // Like the blocking client, whole bodies are not capped; streamed arrays are decoded per element
+                    codecs.defaultCodecs().maxInMemorySize(-1);
+                })
+                .build();
+
+        this.retryExecutor = props.getRetry() != null ? new RetryExecutor(props.getRetry()) : null;
+        this.retry = retryExecutor != null ? Retry.from(signals -> signals.concatMap(signal -> {
+            long delay = retryExecutor.nextRetryDelay((int) signal.totalRetries() + 1);
+            return delay < 0 ? Mono.error(signal.failure()) : Mono.delay(Duration.ofMillis(delay));
+        })) : null;
+
+        RouteResolver routes = new RouteResolver(props.getRoutes());
+        this.downstreamMetrics = CommonRestClient.createDownstreamMetrics(metrics, routes);
+        this.circuitBreakers = blocking != null
+                ? blocking.circuitBreakers()
+                : CommonRestClient.createCircuitBreakers(props, routes, metrics);
+    }
+
+    /**
+     * Executes an HTTP GET request when the returned {@code Mono} is subscribed, see
+     * {@link CommonRestClient#get(String, Class)} for the retry, circuit breaker and error mapping behaviour.
+     *
+     * @param url          the URL to call
+     * @param responseType the type of the expected response body
+     * @param <T>          the response type
+     * @return a {@code Mono} of the response body, empty when the response has none
+     */
+    public <T> Mono<T> get(String url, Class<T> responseType) {
+        return exchange(HttpMethod.GET, url, null, responseType);
+    }
+
+    /**
+     * Executes an HTTP POST request when the returned {@code Mono} is subscribed.
+     *
+     * @param url           the target URL
+     * @param requestBody   the body of the POST request (may be null)
+     * @param responseType  the type of the expected response
+     * @param <T>           the request body type
+     * @param <R>           the response body type
+     * @return a {@code Mono} of the response body, empty when the response has none
+     */
+    public <T, R> Mono<R> post(String url, T requestBody, Class<R> responseType) {
+        return exchange(HttpMethod.POST, url, requestBody, responseType);
+    }
+
+    /**
+     * Executes an HTTP PUT request when the returned {@code Mono} is subscribed.
+     *
+     * @param url           the target URL
+     * @param requestBody   the body of the PUT request (may be null)
+     * @param responseType  the type of the expected response
+     * @param <T>           the request body type
+     * @param <R>           the response body type
+     * @return a {@code Mono} of the response body, empty when the response has none
+     */
+    public <T, R> Mono<R> put(String url, T requestBody, Class<R> responseType) {
+        return exchange(HttpMethod.PUT, url, requestBody, responseType);
+    }
+
+    /**
+     * Executes an HTTP DELETE request when the returned {@code Mono} is subscribed.
+     *
+     * @param url           the target URL
+     * @param responseType  the type of the expected response body
+     * @param <R>           the response type
+     * @return a {@code Mono} of the response body, empty when the response has none
+     */
+    public <R> Mono<R> delete(String url, Class<R> responseType) {
+        return exchange(HttpMethod.DELETE, url, null, responseType);
+    }
+
+    /**
+     * Executes an HTTP GET request for a JSON array and emits its elements as they are decoded. The body is
+     * read from the connection only as fast as the subscriber requests elements, so a slow consumer holds
+     * back the download instead of buffering it; cancelling the {@code Flux} releases the connection.
+     * <p>
+     * As for {@link CommonRestClient#getStream(String, Class)}, retries apply until the response headers arrive,
+     * and the circuit breaker outcome is recorded once the {@code Flux} ends: an I/O error while reading the body
+     * fails it with a {@link RemoteServiceException} and counts as a failure, while an element that does not map
+     * to {@code elementType} fails it with the decoder's exception and does not, nor does cancelling it.
+     *
+     * @param url         the URL to call
+     * @param elementType the type of the array elements
+     * @param <T>         the element type
+     * @return a {@code Flux} of the array elements
+     */
+    public <T> Flux<T> getStream(String url, Class<T> elementType) {
+        return call(HttpMethod.GET, url, () -> webClient.get().uri(url).retrieve().toEntityFlux(elementType),
+                HttpEntity::getBody);
+    }
+
+    /**
+     * Releases the pooled connections.
+     */
+    @Override
+    public void close() {
+        connectionProvider.dispose();
+    }
+
+    private <T> Mono<T> exchange(HttpMethod method, String url, Object body, Class<T> responseType) {
+        return call(method, url, () -> {
+            WebClient.RequestBodySpec request = webClient.method(method).uri(url);
+            return (body != null ? request.bodyValue(body) : request).retrieve().toEntity(responseType);
+        }).mapNotNull(HttpEntity::getBody);
+    }
+
+    private <T> Mono<ResponseEntity<T>> call(HttpMethod method, String url,
+                                             Supplier<Mono<ResponseEntity<T>>> exchange) {
+        return Mono.from(call(method, url, exchange, Flux::just));
+    }
+
+    /**
+     * Checks the circuit breaker once per call, then runs attempts until one succeeds or retrying stops, and
+     * maps the last failure. Backoff delays run on Reactor's timer, so no thread waits between attempts. The
+     * response is then read with {@code read}, and the call's circuit breaker outcome is recorded once that ends.
+     */
+    private <T, R> Flux<R> call(HttpMethod method, String url, Supplier<Mono<ResponseEntity<T>>> exchange,
+                                Function<ResponseEntity<T>, Flux<R>> read) {
+        return Flux.defer(() -> {
+            DownstreamMetrics metrics = metricsFor(url);
+            CircuitBreaker circuitBreaker = circuitBreakerFor(url);
+            CircuitBreaker.Permit permit = circuitBreaker != null ? circuitBreaker.tryAcquire() : null;
+            if (circuitBreaker != null && permit == null) {
+                RemoteServiceException open = CommonRestClient.circuitOpen(url);
+                metrics.recordAttempt(method, open.getErrorResponse().getStatus(), ClientMetrics.Outcome.REJECTED, 0);
+                return Flux.error(open);
+            }
+
+            AtomicInteger attempts = new AtomicInteger();
+            Mono<ResponseEntity<T>> attempt = Mono.defer(() -> {
+                int number = attempts.incrementAndGet();
+                if (number > 1) {
+                    log.info("Retry attempt {} for {}", number, url);
+                    metrics.recordRetry(method, number);
+                }
+                long start = System.nanoTime();
+                return exchange.get()
+                        .doOnNext(response -> recordAttempt(metrics, method, response.getStatusCode().value(),
+                                System.nanoTime() - start))
+                        .doOnError(ex -> recordAttempt(metrics, method, statusOf(ex), System.nanoTime() - start));
+            });
+            if (retry != null) {
+                attempt = attempt.retryWhen(retry);
+            }
+
+            // Set once the outcome is recorded, as a streamed read can end in both an error and a cancel
+            AtomicBoolean ended = new AtomicBoolean();
+            Runnable succeeded = () -> {
+                if (ended.compareAndSet(false, true)) {
+                    recordCircuitBreakerSuccess(circuitBreaker, permit);
+                }
+            };
+            metrics.callStarted();
+            return attempt
+                    .doOnNext(response -> {
+                        if (retryExecutor != null) {
+                            retryExecutor.recordSuccess(attempts.get());
+                        }
+                    })
+                    .onErrorMap(ex -> {
+                        ended.set(true);
+                        recordCircuitBreakerFailure(circuitBreaker, permit);
+                        return handleFailure(url, ex);
+                    })
+                    .flatMapMany(response -> read.apply(response)
+                            .onErrorMap(ex -> {
+                                log.error("Failed reading response stream of {} - Error: {}", url, ex.getMessage());
+                                if (isMappingError(ex)) {
+                                    succeeded.run();
+                                    return ex;
+                                }
+                                if (ended.compareAndSet(false, true)) {
+                                    recordCircuitBreakerFailure(circuitBreaker, permit);
+                                }
+                                return unexpected(url, ex);
+                            })
+                            .doOnComplete(succeeded)
+                            .doOnCancel(succeeded))
+                    .doFinally(signal -> metrics.callFinished());
+        });
+    }
+
+    /**
+     * Maps a failed call to the {@link RemoteServiceException} hierarchy.
+     */
+    private Throwable handleFailure(String url, Throwable ex) {
+        log.error("Failed call to {} - Error: {}", url, ex.getMessage());
+
+        if (ex instanceof WebClientResponseException statusEx) {
+            return CommonRestClient.remoteException(url, statusEx.getStatusCode(), statusEx.getResponseBodyAsString());
+        }
+        if (ex instanceof RemoteServiceException) {
+            return ex;
+        }
+        return unexpected(url, ex);
+    }
+
+    private static RemoteServiceException unexpected(String url, Throwable ex) {
+        return new RemoteServiceException(
+                new RemoteErrorResponse(
+                        500,
+                        "Unexpected Error",
+                        ex.getMessage(),
+                        url
+                )
+        );
+    }
+
+    /**
+     * @return whether decoding failed because the body did not map to the requested type, which is a problem of
+     *         the caller's types rather than of the downstream
+     */
+    private static boolean isMappingError(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DatabindException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int statusOf(Throwable ex) {
+        return ex instanceof WebClientResponseException statusEx ? statusEx.getStatusCode().value() : 0;
+    }
+
+    private static void recordAttempt(DownstreamMetrics metrics, HttpMethod method, int status, long durationNanos) {
+        metrics.recordAttempt(method, status,
+                status > 0 ? CommonRestClient.outcomeOf(status) : ClientMetrics.Outcome.IO_ERROR, durationNanos);
+    }
+
+    private DownstreamMetrics metricsFor(String url) {
+        return downstreamMetrics != null ? downstreamMetrics.get(url) : DownstreamMetrics.NOOP;
+    }
+
+    private CircuitBreaker circuitBreakerFor(String url) {
+        return circuitBreakers != null ? circuitBreakers.get(url) : null;
+    }
+
+    private static void recordCircuitBreakerSuccess(CircuitBreaker circuitBreaker, CircuitBreaker.Permit permit) {
+        if (circuitBreaker != null) {
+            circuitBreaker.recordSuccess(permit);
+        }
+    }
+
+    private static void recordCircuitBreakerFailure(CircuitBreaker circuitBreaker, CircuitBreaker.Permit permit) {
+        if (circuitBreaker != null) {
+            circuitBreaker.recordFailure(permit);
+        }
+    }
+}
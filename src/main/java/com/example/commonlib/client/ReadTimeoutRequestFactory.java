@@ -0,0 +1,204 @@
+package com.example.commonlib.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds each read of the response bodies of another {@link ClientHttpRequestFactory} by a read timeout.
+ * <p>
+ * The JDK client's request timeout only covers the response headers, and its body stream blocks for as long
+ * as the server sends nothing, so a body that stalls would hold the call forever. Here every read arms a timer
+ * on the {@link SharedScheduler} that closes the body stream, which wakes the read and drops the connection,
+ * and the read then fails with a {@link SocketTimeoutException} as it would on the SIMPLE and APACHE transports.
+ * Closing the response drains what is left of the body under the same timer.
+ */
+final class ReadTimeoutRequestFactory implements ClientHttpRequestFactory {
+
+    private final ClientHttpRequestFactory delegate;
+    private final long readTimeoutMs;
+
+    ReadTimeoutRequestFactory(ClientHttpRequestFactory delegate, long readTimeoutMs) {
+        this.delegate = delegate;
+        this.readTimeoutMs = readTimeoutMs;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        return new ReadTimeoutRequest(delegate.createRequest(uri, httpMethod), readTimeoutMs);
+    }
+
+    private static final class ReadTimeoutRequest implements ClientHttpRequest, StreamingHttpOutputMessage {
+
+        private final ClientHttpRequest delegate;
+        private final long readTimeoutMs;
+        private Body body;
+
+        ReadTimeoutRequest(ClientHttpRequest delegate, long readTimeoutMs) {
+            this.delegate = delegate;
+            this.readTimeoutMs = readTimeoutMs;
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return delegate.getMethod();
+        }
+
+        @Override
+        public URI getURI() {
+            return delegate.getURI();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void setBody(Body body) {
+            if (delegate instanceof StreamingHttpOutputMessage streaming) {
+                streaming.setBody(body);
+            } else {
+                this.body = body;
+            }
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            if (body != null) {
+                body.writeTo(delegate.getBody());
+            }
+            ClientHttpResponse response = delegate.execute();
+            return new ReadTimeoutResponse(response, new ReadTimeoutInputStream(response.getBody(), readTimeoutMs));
+        }
+    }
+
+    private static final class ReadTimeoutResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final ReadTimeoutInputStream body;
+
+        ReadTimeoutResponse(ClientHttpResponse delegate, ReadTimeoutInputStream body) {
+            this.delegate = delegate;
+            this.body = body;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public void close() {
+            // Closing drains the rest of the body, which must not stall either
+            ScheduledFuture<?> timer = body.startTimer();
+            try {
+                delegate.close();
+            } finally {
+                timer.cancel(false);
+            }
+        }
+    }
+
+    private static final class ReadTimeoutInputStream extends FilterInputStream {
+
+        private final long readTimeoutMs;
+        private volatile boolean timedOut;
+
+        ReadTimeoutInputStream(InputStream in, long readTimeoutMs) {
+            super(in);
+            this.readTimeoutMs = readTimeoutMs;
+        }
+
+        @Override
+        public int read() throws IOException {
+            ScheduledFuture<?> timer = startTimer();
+            try {
+                return super.read();
+            } catch (IOException ex) {
+                throw timedOut(ex);
+            } finally {
+                timer.cancel(false);
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            ScheduledFuture<?> timer = startTimer();
+            try {
+                return super.read(b, off, len);
+            } catch (IOException ex) {
+                throw timedOut(ex);
+            } finally {
+                timer.cancel(false);
+            }
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            ScheduledFuture<?> timer = startTimer();
+            try {
+                return super.skip(n);
+            } catch (IOException ex) {
+                throw timedOut(ex);
+            } finally {
+                timer.cancel(false);
+            }
+        }
+
+        private ScheduledFuture<?> startTimer() {
+            return SharedScheduler.get().schedule(this::timeOut, readTimeoutMs, TimeUnit.MILLISECONDS);
+        }
+
+        private void timeOut() {
+            timedOut = true;
+            try {
+                in.close();
+            } catch (IOException ex) {
+                // the read fails either way
+            }
+        }
+
+        private IOException timedOut(IOException ex) {
+            if (!timedOut) {
+                return ex;
+            }
+            SocketTimeoutException timeout = new SocketTimeoutException("Read timed out");
+            timeout.initCause(ex);
+            return timeout;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.commonlib.client;
+
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A request body that is written straight to the connection instead of being serialized in memory first,
+ * for uploading large files and generated content such as NDJSON. Bodies of unknown length are sent with
+ * chunked transfer encoding.
+ * <p>
+ * Files and byte buffers are replayable and can be retried. Input streams and publishers can only be read
+ * once: a failed call is retried only if the body was not sent yet, for example when connecting failed.
+ */
+public final class RequestBody {
+
+    /**
+     * Chunks of a {@link Flow.Publisher} requested ahead of the ones being written.
+     */
+    static final int PUBLISHER_PREFETCH = 8;
+
+    private static final int FILE_CHUNK_SIZE = 64 * 1024;
+
+    @FunctionalInterface
+    private interface Writer {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private final Writer writer;
+    private final long contentLength;
+    private final boolean replayable;
+    private final MediaType contentType;
+    private final AtomicBoolean consumed;
+
+    private RequestBody(Writer writer, long contentLength, boolean replayable, MediaType contentType,
+                        AtomicBoolean consumed) {
+        this.writer = writer;
+        this.contentLength = contentLength;
+        this.replayable = replayable;
+        this.contentType = contentType;
+        this.consumed = consumed;
+    }
+
+    /**
+     * A body read from {@code in} while it is sent. The stream is not closed.
+     */
+    public static RequestBody of(InputStream in) {
+        return new RequestBody(in::transferTo, -1, false, MediaType.APPLICATION_OCTET_STREAM, new AtomicBoolean());
+    }
+
+    /**
+     * A replayable body with the contents of {@code file}, streamed from disk with {@link FileChannel#transferTo}.
+     *
+     * @throws UncheckedIOException if the file size cannot be read
+     */
+    public static RequestBody of(Path file) {
+        long size;
+        try {
+            size = Files.size(file);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return new RequestBody(out -> transferFile(file, size, out), size, true, MediaType.APPLICATION_OCTET_STREAM,
+                new AtomicBoolean());
+    }
+
+    /**
+     * A replayable body with the remaining bytes of {@code buffer}. The buffer's position is not changed.
+     */
+    public static RequestBody of(ByteBuffer buffer) {
+        ByteBuffer content = buffer.asReadOnlyBuffer();
+        return new RequestBody(out -> writeBuffer(content.duplicate(), out), content.remaining(), true,
+                MediaType.APPLICATION_OCTET_STREAM, new AtomicBoolean());
+    }
+
+    /**
+     * A body of the chunks published by {@code publisher}, subscribed to when the body is sent. At most
+     * {@value #PUBLISHER_PREFETCH} chunks are buffered ahead of the connection. Reactor's {@code Flux} can be
+     * adapted with {@code JdkFlowAdapter.publisherToFlowPublisher}.
+     */
+    public static RequestBody of(Flow.Publisher<ByteBuffer> publisher) {
+        return new RequestBody(out -> writePublisher(publisher, out), -1, false, MediaType.APPLICATION_OCTET_STREAM,
+                new AtomicBoolean());
+    }
+
+    /**
+     * @return a copy of this body sent with the given {@code Content-Type}, {@code application/octet-stream}
+     * by default
+     */
+    public RequestBody withContentType(MediaType contentType) {
+        return new RequestBody(writer, contentLength, replayable, contentType, consumed);
+    }
+
+    /**
+     * @return the length in bytes, or -1 when it is unknown and the body is sent chunked
+     */
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    public MediaType getContentType() {
+        return contentType;
+    }
+
+    public boolean isReplayable() {
+        return replayable;
+    }
+
+    /**
+     * @return whether the body can still be sent, which is always the case for replayable bodies
+     */
+    boolean canSend() {
+        return replayable || !consumed.get();
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+        if (!replayable && !consumed.compareAndSet(false, true)) {
+            throw new IllegalStateException("Request body can only be sent once");
+        }
+        writer.writeTo(out);
+    }
+
+    private static void transferFile(Path file, long size, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = 0;
+            while (position < size) {
+                long transferred = channel.transferTo(position, Math.min(FILE_CHUNK_SIZE, size - position), target);
+                if (transferred <= 0) {
+                    throw new IOException("File " + file + " shrank while it was sent");
+                }
+                position += transferred;
+            }
+        }
+    }
+
+    private static void writeBuffer(ByteBuffer buffer, OutputStream out) throws IOException {
+        if (buffer.hasArray()) {
+            out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            return;
+        }
+        WritableByteChannel target = Channels.newChannel(out);
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+    }
+
+    /**
+     * Writes the published chunks on the calling thread, requesting a new one for each chunk written so the
+     * publisher never gets more than {@value #PUBLISHER_PREFETCH} chunks ahead.
+     */
+    private static void writePublisher(Flow.Publisher<ByteBuffer> publisher, OutputStream out) throws IOException {
+        ChunkSubscriber subscriber = new ChunkSubscriber();
+        publisher.subscribe(subscriber);
+        try {
+            while (true) {
+                Object signal = subscriber.signals.take();
+                if (signal == ChunkSubscriber.COMPLETE) {
+                    return;
+                }
+                if (signal instanceof Throwable error) {
+                    throw error instanceof IOException io ? io : new IOException("Request body publisher failed", error);
+                }
+                writeBuffer((ByteBuffer) signal, out);
+                subscriber.request();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            subscriber.cancel();
+            throw new InterruptedIOException("Interrupted while waiting for the request body");
+        } catch (IOException | RuntimeException ex) {
+            subscriber.cancel();
+            throw ex;
+        }
+    }
+
+    private static final class ChunkSubscriber implements Flow.Subscriber<ByteBuffer> {
+
+        static final Object COMPLETE = new Object();
+
+        // One slot more than the prefetch for the terminal signal
+        final BlockingQueue<Object> signals = new ArrayBlockingQueue<>(PUBLISHER_PREFETCH + 1);
+        private volatile Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(PUBLISHER_PREFETCH);
+        }
+
+        @Override
+        public void onNext(ByteBuffer item) {
+            if (!signals.offer(item)) {
+                onError(new IllegalStateException("Request body publisher sent more chunks than requested"));
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            signals.offer(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            signals.offer(COMPLETE);
+        }
+
+        void request() {
+            subscription.request(1);
+        }
+
+        void cancel() {
+            Flow.Subscription current = subscription;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.commonlib.client;
+
+/**
+ * Identifies a GET by what makes two of them interchangeable: the URL and the type its body is read as.
+ */
+record RequestKey(String url, Class<?> responseType) {
+}
@@ -0,0 +1,249 @@
+package com.example.commonlib.client;
+
+import com.example.commonlib.config.CacheProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Private HTTP cache of deserialized GET response bodies, keyed by URL and response type, so a hit skips both
+ * the round trip and the JSON parsing. Freshness follows {@code Cache-Control: max-age} unless the route sets
+ * its own TTL; stale entries with an {@code ETag} or {@code Last-Modified} validator are revalidated with a
+ * conditional request. The least recently used entries are evicted once either the entry count or the total
+ * body size is exceeded.
+ * <p>
+ * Past its freshness an entry can still be served for a while: within the stale-while-revalidate window while
+ * a refresh runs in the background, and within the stale-if-error window when the call fails. Both windows
+ * come from the configuration and can be shortened per response by the {@code stale-while-revalidate} and
+ * {@code stale-if-error} directives.
+ * <p>
+ * Cached bodies are handed to every caller of the same key, so they must be treated as immutable.
+ */
+final class ResponseCache {
+
+    /**
+     * Weight of a response whose body size is unknown.
+     */
+    static final long DEFAULT_WEIGHT = 1024;
+
+    /**
+     * @param ttlNanos                   freshness lifetime the entry was stored with, reused when a 304 does not
+     *                                   carry a new one
+     * @param staleWhileRevalidateNanos  how long past freshness the entry is served while it is refreshed
+     * @param staleIfErrorNanos          how long past freshness the entry is served when the call fails
+     */
+    record Entry(Object body, String etag, String lastModified, long ttlNanos, long freshUntilNanos,
+                 long staleWhileRevalidateNanos, long staleIfErrorNanos, long weight) {
+
+        boolean isFresh(long nowNanos) {
+            return freshUntilNanos - nowNanos > 0;
+        }
+
+        boolean isUsableWhileRevalidating(long nowNanos) {
+            return freshUntilNanos + staleWhileRevalidateNanos - nowNanos > 0;
+        }
+
+        boolean isUsableOnError(long nowNanos) {
+            return freshUntilNanos + staleIfErrorNanos - nowNanos > 0;
+        }
+
+        boolean hasValidator() {
+            return etag != null || lastModified != null;
+        }
+
+        /**
+         * Adds the {@code If-None-Match} and {@code If-Modified-Since} headers of a conditional request.
+         */
+        void addValidators(HttpHeaders headers) {
+            if (etag != null) {
+                headers.set(HttpHeaders.IF_NONE_MATCH, etag);
+            }
+            if (lastModified != null) {
+                headers.set(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+            }
+        }
+    }
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final long defaultTtlNanos;
+    private final long maxStaleWhileRevalidateNanos;
+    private final long maxStaleIfErrorNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<RequestKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+
+    ResponseCache(CacheProperties props) {
+        this.maxEntries = props.getMaxEntries();
+        this.maxWeight = props.getMaxWeightBytes();
+        this.defaultTtlNanos = TimeUnit.MILLISECONDS.toNanos(props.getDefaultTtlMs());
+        this.maxStaleWhileRevalidateNanos = TimeUnit.MILLISECONDS.toNanos(props.getStaleWhileRevalidateMs());
+        this.maxStaleIfErrorNanos = TimeUnit.MILLISECONDS.toNanos(props.getStaleIfErrorMs());
+    }
+
+    Entry get(RequestKey key) {
+        lock.lock();
+        try {
+            return entries.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stores a {@code 200} response if its headers allow it, or drops the key's entry otherwise.
+     *
+     * @param bodyBytes  the number of body bytes read, after decoding, or -1 to go by {@code Content-Length}
+     * @param routeTtlMs the route's TTL, replacing {@code max-age}, or {@code null}
+     */
+    void store(RequestKey key, ResponseEntity<?> response, long bodyBytes, Long routeTtlMs) {
+        HttpHeaders headers = response.getHeaders();
+        long ttlNanos = response.getStatusCode().value() == 200 ? ttlNanos(headers, routeTtlMs, defaultTtlNanos) : -1;
+        String etag = headers.getETag();
+        String lastModified = headers.getFirst(HttpHeaders.LAST_MODIFIED);
+        long contentLength = headers.getContentLength();
+        long entryWeight = bodyBytes >= 0 ? bodyBytes : contentLength >= 0 ? contentLength : DEFAULT_WEIGHT;
+        long staleWhileRevalidateNanos = staleNanos(headers, "stale-while-revalidate=", maxStaleWhileRevalidateNanos);
+        long staleIfErrorNanos = staleNanos(headers, "stale-if-error=", maxStaleIfErrorNanos);
+        if (ttlNanos < 0 || response.getBody() == null || entryWeight > maxWeight
+                || (ttlNanos == 0 && etag == null && lastModified == null
+                && staleWhileRevalidateNanos == 0 && staleIfErrorNanos == 0)) {
+            remove(key);
+            return;
+        }
+        put(key, new Entry(response.getBody(), etag, lastModified, ttlNanos, System.nanoTime() + ttlNanos,
+                staleWhileRevalidateNanos, staleIfErrorNanos, entryWeight));
+    }
+
+    /**
+     * Renews {@code cached} after the server answered its conditional request with {@code 304 Not Modified}.
+     *
+     * @return the renewed entry
+     */
+    Entry revalidated(RequestKey key, Entry cached, HttpHeaders notModified, Long routeTtlMs) {
+        long ttlNanos = ttlNanos(notModified, routeTtlMs, cached.ttlNanos());
+        if (ttlNanos < 0) {
+            remove(key);
+            return cached;
+        }
+        String etag = notModified.getETag();
+        String lastModified = notModified.getFirst(HttpHeaders.LAST_MODIFIED);
+        Entry renewed = new Entry(cached.body(),
+                etag != null ? etag : cached.etag(),
+                lastModified != null ? lastModified : cached.lastModified(),
+                ttlNanos, System.nanoTime() + ttlNanos,
+                staleNanos(notModified, "stale-while-revalidate=", cached.staleWhileRevalidateNanos()),
+                staleNanos(notModified, "stale-if-error=", cached.staleIfErrorNanos()),
+                cached.weight());
+        put(key, renewed);
+        return renewed;
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long weight() {
+        lock.lock();
+        try {
+            return weight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(RequestKey key, Entry entry) {
+        lock.lock();
+        try {
+            Entry previous = entries.put(key, entry);
+            weight += entry.weight() - (previous != null ? previous.weight() : 0);
+            Iterator<Map.Entry<RequestKey, Entry>> eldest = entries.entrySet().iterator();
+            while ((entries.size() > maxEntries || weight > maxWeight) && eldest.hasNext()) {
+                weight -= eldest.next().getValue().weight();
+                eldest.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(RequestKey key) {
+        lock.lock();
+        try {
+            Entry removed = entries.remove(key);
+            if (removed != null) {
+                weight -= removed.weight();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the freshness lifetime, 0 to revalidate on every use, or -1 when the response must not be stored
+     */
+    static long ttlNanos(HttpHeaders headers, Long routeTtlMs, long fallbackNanos) {
+        long maxAgeSeconds = -1;
+        for (String value : headers.getOrEmpty(HttpHeaders.CACHE_CONTROL)) {
+            for (String directive : value.split(",")) {
+                String name = directive.trim().toLowerCase(Locale.ROOT);
+                if (name.equals("no-store")) {
+                    return -1;
+                }
+                if (name.equals("no-cache")) {
+                    maxAgeSeconds = 0;
+                } else if (name.startsWith("max-age=") && maxAgeSeconds != 0) {
+                    maxAgeSeconds = parseSeconds(name.substring(8));
+                }
+            }
+        }
+        if (routeTtlMs != null) {
+            return TimeUnit.MILLISECONDS.toNanos(routeTtlMs);
+        }
+        if (maxAgeSeconds < 0) {
+            return fallbackNanos;
+        }
+        long ageSeconds = headers.containsKey(HttpHeaders.AGE)
+                ? Math.max(0, parseSeconds(headers.getFirst(HttpHeaders.AGE)))
+                : 0;
+        return TimeUnit.SECONDS.toNanos(Math.max(0, maxAgeSeconds - ageSeconds));
+    }
+
+    /**
+     * @return the {@code directive}'s value, capped at {@code maxNanos}, or {@code maxNanos} when it is absent
+     */
+    static long staleNanos(HttpHeaders headers, String directive, long maxNanos) {
+        if (maxNanos == 0) {
+            return 0;
+        }
+        for (String value : headers.getOrEmpty(HttpHeaders.CACHE_CONTROL)) {
+            for (String part : value.split(",")) {
+                String name = part.trim().toLowerCase(Locale.ROOT);
+                if (name.startsWith(directive)) {
+                    long seconds = Math.max(0, parseSeconds(name.substring(directive.length())));
+                    return Math.min(TimeUnit.SECONDS.toNanos(seconds), maxNanos);
+                }
+            }
+        }
+        return maxNanos;
+    }
+
+    private static long parseSeconds(String value) {
+        try {
+            return Long.parseLong(value.trim().replace("\"", ""));
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.commonlib.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket that bounds extra attempts to a share of successful calls.
+ * <p>
+ * Every successful first attempt deposits {@code percent / 100} of a token, up to {@code maxTokens}, and
+ * every extra attempt withdraws a whole one. Independently, a reserve refilled at
+ * {@code minPerSecond} (GCRA style, bursting up to one second's worth) keeps a trickle of extra
+ * attempts available when there are no successes to earn tokens from.
+ */
+final class RetryBudget {
+
+    private static final long MILLI_TOKENS = 1000;
+    private static final long RESERVE_BURST_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final long depositMilliTokens;
+    private final long capacityMilliTokens;
+    private final long reserveIntervalNanos;
+    private final AtomicLong balance = new AtomicLong();
+    private final AtomicLong reserveTheoreticalArrival = new AtomicLong(System.nanoTime() - RESERVE_BURST_NANOS);
+
+    RetryBudget(double percent, int minPerSecond, int maxTokens) {
+        this.depositMilliTokens = Math.max(1, Math.round(percent * MILLI_TOKENS / 100));
+        this.capacityMilliTokens = Math.max(1, maxTokens) * MILLI_TOKENS;
+        this.reserveIntervalNanos = minPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / minPerSecond : 0;
+    }
+
+    void deposit() {
+        while (true) {
+            long current = balance.get();
+            if (current >= capacityMilliTokens) {
+                return;
+            }
+            if (balance.compareAndSet(current, Math.min(current + depositMilliTokens, capacityMilliTokens))) {
+                return;
+            }
+        }
+    }
+
+    boolean tryWithdraw() {
+        while (true) {
+            long current = balance.get();
+            if (current < MILLI_TOKENS) {
+                return tryWithdrawReserve();
+            }
+            if (balance.compareAndSet(current, current - MILLI_TOKENS)) {
+                return true;
+            }
+        }
+    }
+
+    private boolean tryWithdrawReserve() {
+        if (reserveIntervalNanos == 0) {
+            return false;
+        }
+        long now = System.nanoTime();
+        while (true) {
+            long current = reserveTheoreticalArrival.get();
+            long next = Math.max(current, now - RESERVE_BURST_NANOS) + reserveIntervalNanos;
+            if (next - now > 0) {
+                return false;
+            }
+            if (reserveTheoreticalArrival.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+}
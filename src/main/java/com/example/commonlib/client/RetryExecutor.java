@@ -4,40 +4,108 @@ import com.example.commonlib.config.RetryProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Random;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongPredicate;
 
+/**
+ * Retries an action with exponential backoff and jitter. The executor itself is stateless per call,
+ * so one instance can be shared by every thread of a client; the attempt number is handed to the action.
+ * <p>
+ * When {@link RetryProperties#getBudgetPercent()} is set, retries also draw from a client-wide
+ * {@link RetryBudget}; once it is exhausted the last failure is returned immediately instead of backing off.
+ */
 public class RetryExecutor {
     private static final Logger log = LoggerFactory.getLogger(RetryExecutor.class);
 
+    /**
+     * A blocking action that receives its 1-based attempt number.
+     */
+    @FunctionalInterface
+    public interface Attempt<T> {
+        T call(int attempt) throws Exception;
+    }
+
+    /**
+     * A non-blocking action that receives its 1-based attempt number and returns without waiting for the result.
+     */
+    @FunctionalInterface
+    public interface AsyncAttempt<T> {
+        CompletionStage<T> call(int attempt);
+    }
+
     private final RetryProperties retryProperties;
-    private int currentAttempt = 0;
-    private final Random random = new Random();
+    private final ScheduledExecutorService scheduler;
+    private final RetryBudget budget;
 
     public RetryExecutor(RetryProperties retryProperties) {
-        this.retryProperties = retryProperties;
+        this(retryProperties, SharedScheduler.get());
     }
 
-    public int getCurrentAttempt() {
-        return currentAttempt;
+    /**
+     * @param scheduler runs the next attempt of {@link #executeAsync(AsyncAttempt)} once the backoff delay has passed
+     */
+    public RetryExecutor(RetryProperties retryProperties, ScheduledExecutorService scheduler) {
+        this.retryProperties = retryProperties;
+        this.scheduler = scheduler;
+        this.budget = retryProperties.getBudgetPercent() > 0
+                ? new RetryBudget(retryProperties.getBudgetPercent(),
+                        retryProperties.getBudgetMinRetriesPerSecond(),
+                        retryProperties.getBudgetMaxTokens())
+                : null;
     }
 
     public <T> T executeWithRetry(Callable<T> action) throws Exception {
+        return executeWithRetry(attempt -> action.call());
+    }
+
+    /**
+     * Runs {@code action} on the calling thread, sleeping between attempts.
+     */
+    public <T> T executeWithRetry(Attempt<T> action) throws Exception {
+        return executeWithRetry(action, () -> true);
+    }
+
+    /**
+     * Runs {@code action} on the calling thread, sleeping between attempts, as long as {@code canRetry} allows
+     * another one after a failure; otherwise that failure is thrown right away.
+     */
+    public <T> T executeWithRetry(Attempt<T> action, BooleanSupplier canRetry) throws Exception {
+        return executeWithRetry(action, delayMs -> canRetry.getAsBoolean());
+    }
+
+    /**
+     * Runs {@code action} on the calling thread, sleeping between attempts, as long as {@code canRetryAfter}
+     * allows another attempt after the backoff delay in milliseconds it is given, for example while a
+     * {@link Deadline} can still cover it; otherwise the last failure is thrown right away.
+     */
+    public <T> T executeWithRetry(Attempt<T> action, LongPredicate canRetryAfter) throws Exception {
         int attempts = 0;
         Exception lastException = null;
 
         while (attempts < retryProperties.getMaxAttempts()) {
-            currentAttempt = attempts + 1;
             try {
-                return action.call();
+                T result = action.call(attempts + 1);
+                recordSuccess(attempts + 1);
+                return result;
             } catch (Exception ex) {
                 lastException = ex;
                 attempts++;
                 if (attempts >= retryProperties.getMaxAttempts()) {
                     break;
                 }
-
                 long delay = computeBackoffDelay(attempts);
+                if (!canRetryAfter.test(delay) || !acquireRetry(attempts)) {
+                    break;
+                }
+                log.debug("Attempt {} failed, retrying after {}ms", attempts, delay);
                 Thread.sleep(delay);
             }
         }
@@ -45,11 +113,106 @@ public class RetryExecutor {
         throw lastException;
     }
 
+    /**
+     * Runs {@code action} and schedules each retry on the scheduler instead of sleeping, so no thread
+     * is held while backing off. The returned future completes with the first successful result or the
+     * last failure; cancelling it stops further attempts.
+     */
+    public <T> CompletableFuture<T> executeAsync(AsyncAttempt<T> action) {
+        return executeAsync(action, delayMs -> true);
+    }
+
+    /**
+     * Like {@link #executeAsync(AsyncAttempt)}, retrying only as long as {@code canRetryAfter} allows another
+     * attempt after the backoff delay in milliseconds it is given.
+     */
+    public <T> CompletableFuture<T> executeAsync(AsyncAttempt<T> action, LongPredicate canRetryAfter) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attemptAsync(action, canRetryAfter, 1, result);
+        return result;
+    }
+
+    private <T> void attemptAsync(AsyncAttempt<T> action, LongPredicate canRetryAfter, int attempt,
+                                  CompletableFuture<T> result) {
+        if (result.isDone()) {
+            return;
+        }
+
+        CompletionStage<T> stage;
+        try {
+            stage = action.call(attempt);
+        } catch (Exception ex) {
+            stage = CompletableFuture.failedFuture(ex);
+        }
+
+        stage.whenComplete((value, error) -> {
+            if (error == null) {
+                recordSuccess(attempt);
+                result.complete(value);
+                return;
+            }
+            long delay = nextRetryDelay(attempt, canRetryAfter);
+            if (delay < 0) {
+                result.completeExceptionally(unwrap(error));
+                return;
+            }
+            scheduler.schedule(() -> attemptAsync(action, canRetryAfter, attempt + 1, result), delay,
+                    TimeUnit.MILLISECONDS);
+        });
+    }
+
+    /**
+     * Decides whether the failed attempt is retried, for callers that schedule attempts themselves, such as
+     * the reactive client's {@code retryWhen}. A retry is taken from the budget.
+     *
+     * @return the backoff delay in milliseconds before the next attempt, or -1 if {@code failedAttempt} was the
+     * last one or the retry budget is exhausted
+     */
+    long nextRetryDelay(int failedAttempt) {
+        return nextRetryDelay(failedAttempt, delayMs -> true);
+    }
+
+    private long nextRetryDelay(int failedAttempt, LongPredicate canRetryAfter) {
+        if (failedAttempt >= retryProperties.getMaxAttempts()) {
+            return -1;
+        }
+        long delay = computeBackoffDelay(failedAttempt);
+        if (!canRetryAfter.test(delay) || !acquireRetry(failedAttempt)) {
+            return -1;
+        }
+        log.debug("Attempt {} failed, retrying after {}ms", failedAttempt, delay);
+        return delay;
+    }
+
+    /**
+     * Feeds the retry budget with a call that succeeded on its first attempt.
+     */
+    void recordSuccess(int attempt) {
+        if (budget != null && attempt == 1) {
+            budget.deposit();
+        }
+    }
+
+    private boolean acquireRetry(int failedAttempt) {
+        if (budget == null || budget.tryWithdraw()) {
+            return true;
+        }
+        log.debug("Retry budget exhausted after attempt {}, failing fast", failedAttempt);
+        return false;
+    }
+
     private long computeBackoffDelay(int attempts) {
         long delay = (long) (retryProperties.getBaseDelayMs() * Math.pow(2, attempts - 1));
         delay = Math.min(delay, retryProperties.getMaxDelayMs());
 
-        double jitter = 1 + (random.nextDouble() * 2 - 1) * retryProperties.getJitterFactor();
+        double jitter = 1 + (ThreadLocalRandom.current().nextDouble() * 2 - 1) * retryProperties.getJitterFactor();
         return (long) (delay * jitter);
     }
+
+    static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
 }
@@ -0,0 +1,126 @@
+package com.example.commonlib.client;
+
+import com.example.commonlib.config.RouteProperties;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Matches request URLs against the configured {@link RouteProperties} without allocating.
+ * Routes pinned to a host are tried before host-agnostic ones, and within each group those with a longer path
+ * prefix first, so a route for one host is never shadowed by a broader route for every host.
+ */
+final class RouteResolver {
+
+    static final class Route {
+        private final int index;
+        private final String name;
+        private final RouteProperties properties;
+        private final String host;
+        private final boolean hostHasPort;
+        private final String pathPrefix;
+        private final boolean pathPrefixEndsSegment;
+
+        private Route(int index, String name, RouteProperties properties) {
+            this.index = index;
+            this.name = name;
+            this.properties = properties;
+            this.host = properties.getHost();
+            this.hostHasPort = host != null && host.indexOf(':') >= 0;
+            this.pathPrefix = properties.getPathPrefix() != null ? properties.getPathPrefix() : "";
+            this.pathPrefixEndsSegment = pathPrefix.isEmpty() || pathPrefix.endsWith("/");
+        }
+
+        int index() {
+            return index;
+        }
+
+        String name() {
+            return name;
+        }
+
+        RouteProperties properties() {
+            return properties;
+        }
+
+        private boolean matches(String url, int authorityStart, int authorityEnd) {
+            if (host != null) {
+                int hostLength = host.length();
+                int authorityLength = authorityEnd - authorityStart;
+                if (authorityLength < hostLength
+                        || !url.regionMatches(true, authorityStart, host, 0, hostLength)) {
+                    return false;
+                }
+                if (authorityLength != hostLength
+                        && (hostHasPort || url.charAt(authorityStart + hostLength) != ':')) {
+                    return false;
+                }
+            }
+            if (!url.startsWith(pathPrefix, authorityEnd)) {
+                return false;
+            }
+            // Whole segments only: /customers must not match /customers-v2 or /customersearch
+            int prefixEnd = authorityEnd + pathPrefix.length();
+            if (pathPrefixEndsSegment || prefixEnd == url.length()) {
+                return true;
+            }
+            char next = url.charAt(prefixEnd);
+            return next == '/' || next == '?' || next == '#';
+        }
+    }
+
+    private final Route[] routes;
+
+    RouteResolver(Map<String, RouteProperties> routes) {
+        List<Route> compiled = new ArrayList<>(routes.size());
+        routes.forEach((name, properties) -> compiled.add(new Route(compiled.size(), name, properties)));
+        compiled.sort(Comparator.comparing((Route route) -> route.host == null)
+                .thenComparing(Comparator.comparingInt((Route route) -> route.pathPrefix.length()).reversed()));
+        this.routes = compiled.toArray(new Route[0]);
+    }
+
+    int size() {
+        return routes.length;
+    }
+
+    List<Route> routes() {
+        return List.of(routes);
+    }
+
+    /**
+     * @return the most specific route matching {@code url}, or {@code null}
+     */
+    Route resolve(String url) {
+        if (routes.length == 0) {
+            return null;
+        }
+        int authorityStart = authorityStart(url);
+        int authorityEnd = authorityEnd(url, authorityStart);
+        for (Route route : routes) {
+            if (route.matches(url, authorityStart, authorityEnd)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    static int authorityStart(String url) {
+        int schemeEnd = url.indexOf("://");
+        int start = schemeEnd < 0 ? 0 : schemeEnd + 3;
+        int end = authorityEnd(url, start);
+        int userInfoEnd = url.lastIndexOf('@', end - 1);
+        return userInfoEnd >= start ? userInfoEnd + 1 : start;
+    }
+
+    static int authorityEnd(String url, int authorityStart) {
+        for (int i = authorityStart; i < url.length(); i++) {
+            char c = url.charAt(i);
+            if (c == '/' || c == '?' || c == '#') {
+                return i;
+            }
+        }
+        return url.length();
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.commonlib.client;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Process-wide daemon scheduler for short timer tasks such as async retry backoff and read timeouts.
+ * Tasks must only hand work off (start a non-blocking call, complete a future) and never block. Cancelled
+ * tasks leave the queue at once, so timers that are armed per read and nearly always cancelled do not pile up.
+ */
+final class SharedScheduler {
+
+    private static final class Holder {
+        private static final ScheduledExecutorService INSTANCE = create();
+    }
+
+    private SharedScheduler() {
+    }
+
+    static ScheduledExecutorService get() {
+        return Holder.INSTANCE;
+    }
+
+    private static ScheduledExecutorService create() {
+        AtomicInteger threadCount = new AtomicInteger();
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "common-rest-scheduler-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.commonlib.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Ring buffer of outcome buckets that trips on a failure rate once enough calls have been seen.
+ * <p>
+ * Each bucket is a single {@code long} packing the bucket epoch with its success and failure counts,
+ * so a bucket is recycled and updated with one CAS. The epoch is either the call sequence number divided
+ * by the bucket size (count-based) or the monotonic clock divided by the bucket length (time-based).
+ * A count-based window therefore covers between {@code windowSize - bucketSize} and {@code windowSize} calls.
+ */
+final class SlidingOutcomeWindow implements OutcomeWindow {
+
+    private static final int COUNT_BITS = 21;
+    private static final int EPOCH_BITS = 64 - 2 * COUNT_BITS;
+    private static final long COUNT_MAX = (1L << COUNT_BITS) - 1;
+    private static final long EPOCH_MASK = (1L << EPOCH_BITS) - 1;
+    private static final long EPOCH_HALF_RANGE = 1L << (EPOCH_BITS - 1);
+
+    private final AtomicLongArray buckets;
+    private final int bucketCount;
+    private final LongSupplier epochSource;
+    private final int minimumNumberOfCalls;
+    private final double failureRateThreshold;
+
+    private SlidingOutcomeWindow(int bucketCount, LongSupplier epochSource,
+                                 int minimumNumberOfCalls, double failureRateThreshold) {
+        this.buckets = new AtomicLongArray(bucketCount);
+        this.bucketCount = bucketCount;
+        this.epochSource = epochSource;
+        this.minimumNumberOfCalls = Math.max(1, minimumNumberOfCalls);
+        this.failureRateThreshold = failureRateThreshold;
+    }
+
+    static SlidingOutcomeWindow countBased(int windowSize, int bucketCount,
+                                           int minimumNumberOfCalls, double failureRateThreshold) {
+        int buckets = Math.max(1, Math.min(bucketCount, windowSize));
+        long bucketSize = Math.max(1, windowSize / buckets);
+        AtomicLong sequence = new AtomicLong();
+        return new SlidingOutcomeWindow(buckets, () -> sequence.getAndIncrement() / bucketSize,
+                minimumNumberOfCalls, failureRateThreshold);
+    }
+
+    static SlidingOutcomeWindow timeBased(long windowDurationMs, int bucketCount,
+                                          int minimumNumberOfCalls, double failureRateThreshold) {
+        int buckets = Math.max(1, bucketCount);
+        long bucketNanos = Math.max(1, windowDurationMs * 1_000_000L / buckets);
+        return new SlidingOutcomeWindow(buckets, () -> Math.floorDiv(System.nanoTime(), bucketNanos),
+                minimumNumberOfCalls, failureRateThreshold);
+    }
+
+    @Override
+    public void recordSuccess() {
+        record(epochSource.getAsLong(), 1, 0);
+    }
+
+    @Override
+    public boolean recordFailure() {
+        long epoch = epochSource.getAsLong();
+        record(epoch, 0, 1);
+        return isFailureRateExceeded(epoch & EPOCH_MASK);
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < bucketCount; i++) {
+            buckets.set(i, 0L);
+        }
+    }
+
+    private void record(long epoch, long successes, long failures) {
+        int index = (int) Math.floorMod(epoch, (long) bucketCount);
+        long tag = epoch & EPOCH_MASK;
+        while (true) {
+            long current = buckets.get(index);
+            long age = (tag - epochOf(current)) & EPOCH_MASK;
+            long next;
+            if (age == 0) {
+                next = pack(tag, successesOf(current) + successes, failuresOf(current) + failures);
+            } else if (age < EPOCH_HALF_RANGE) {
+                // The slot still holds an expired bucket; recycle it for the current epoch
+                next = pack(tag, successes, failures);
+            } else {
+                // A faster thread already moved this slot past our epoch, the outcome has aged out
+                return;
+            }
+            if (buckets.compareAndSet(index, current, next)) {
+                return;
+            }
+        }
+    }
+
+    private boolean isFailureRateExceeded(long currentTag) {
+        long total = 0;
+        long failed = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            long bucket = buckets.get(i);
+            if (((currentTag - epochOf(bucket)) & EPOCH_MASK) < bucketCount) {
+                long failures = failuresOf(bucket);
+                total += successesOf(bucket) + failures;
+                failed += failures;
+            }
+        }
+        return total >= minimumNumberOfCalls && failed * 100.0 >= failureRateThreshold * total;
+    }
+
+    private static long pack(long epoch, long successes, long failures) {
+        return (epoch << (2 * COUNT_BITS))
+                | (Math.min(successes, COUNT_MAX) << COUNT_BITS)
+                | Math.min(failures, COUNT_MAX);
+    }
+
+    private static long epochOf(long bucket) {
+        return bucket >>> (2 * COUNT_BITS);
+    }
+
+    private static long successesOf(long bucket) {
+        return (bucket >>> COUNT_BITS) & COUNT_MAX;
+    }
+
+    private static long failuresOf(long bucket) {
+        return bucket & COUNT_MAX;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.commonlib.client;
+
+import com.example.commonlib.config.DeadlineProperties;
+import com.example.commonlib.config.RestClientProperties;
+import com.example.commonlib.config.RouteProperties;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves the timeouts of a call: the connection and read timeouts of its route, and its {@link Deadline}.
+ * A deadline caps every attempt's timeouts at the time left and only lets a retry start if an attempt still
+ * fits after its backoff delay.
+ */
+final class Timeouts {
+
+    private final RouteResolver routes;
+    private final int connectionTimeout;
+    private final int readTimeout;
+    private final long deadlineMs;
+    private final long minAttemptNanos;
+    private final String header;
+
+    Timeouts(RestClientProperties props, RouteResolver routes) {
+        DeadlineProperties deadline = props.getDeadline();
+        this.routes = routes;
+        this.connectionTimeout = props.getConnectionTimeout();
+        this.readTimeout = props.getReadTimeout();
+        this.deadlineMs = deadline.getTimeoutMs();
+        this.minAttemptNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, deadline.getMinAttemptMs()));
+        this.header = deadline.getHeader() == null || deadline.getHeader().isBlank() ? null : deadline.getHeader();
+    }
+
+    /**
+     * @return the earlier of the current thread's deadline and the configured budget of a call to {@code url}
+     * starting now, or {@code null} when the call has neither
+     */
+    Deadline deadlineFor(String url) {
+        RouteProperties route = route(url);
+        long budgetMs = route != null && route.getDeadlineMs() != null ? route.getDeadlineMs() : deadlineMs;
+        Deadline configured = budgetMs > 0 ? Deadline.after(Duration.ofMillis(budgetMs)) : null;
+        return Deadline.earliest(Deadline.current(), configured);
+    }
+
+    /**
+     * @return whether enough of {@code deadline} is left to start an attempt after waiting {@code delayMs}
+     */
+    boolean allowsAttempt(Deadline deadline, long delayMs) {
+        return deadline == null || deadline.remainingNanos() - TimeUnit.MILLISECONDS.toNanos(delayMs) >= minAttemptNanos;
+    }
+
+    /**
+     * @return the connection timeout in milliseconds of {@code url}, cut to the current thread's deadline
+     */
+    int connectionTimeout(String url) {
+        RouteProperties route = route(url);
+        return capped(route != null && route.getConnectionTimeout() != null ? route.getConnectionTimeout() : connectionTimeout,
+                Deadline.current());
+    }
+
+    /**
+     * @return the read timeout in milliseconds of {@code url}, cut to the current thread's deadline
+     */
+    int readTimeout(String url) {
+        return readTimeout(url, Deadline.current());
+    }
+
+    /**
+     * @return the read timeout in milliseconds of {@code url}, cut to {@code deadline}
+     */
+    int readTimeout(String url, Deadline deadline) {
+        RouteProperties route = route(url);
+        return capped(route != null && route.getReadTimeout() != null ? route.getReadTimeout() : readTimeout, deadline);
+    }
+
+    /**
+     * Sends the time left of {@code deadline} downstream, if a header is configured.
+     */
+    void propagate(Deadline deadline, HttpHeaders headers) {
+        if (deadline != null && header != null) {
+            headers.set(header, Long.toString(deadline.remainingMillis()));
+        }
+    }
+
+    private RouteProperties route(String url) {
+        RouteResolver.Route route = routes.resolve(url);
+        return route != null ? route.properties() : null;
+    }
+
+    /**
+     * A timeout of 0 or less means none, which a deadline turns into the time left. The result is at least
+     * 1 ms, as 0 would mean no timeout to the transports.
+     */
+    private static int capped(int timeoutMs, Deadline deadline) {
+        if (deadline == null) {
+            return timeoutMs;
+        }
+        long remainingMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline.remainingNanos() + 999_999));
+        return (int) (timeoutMs > 0 ? Math.min(timeoutMs, remainingMs) : Math.min(remainingMs, Integer.MAX_VALUE));
+    }
+}
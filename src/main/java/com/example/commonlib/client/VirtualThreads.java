@@ -0,0 +1,25 @@
+package com.example.commonlib.client;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates virtual-thread executors without compiling against Java 21, so the library keeps its Java 17
+ * baseline and only applications that opt in need a newer runtime.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    static ExecutorService newThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException ex) {
+            throw new IllegalStateException("Virtual thread execution mode requires Java 21 or later, running on "
+                    + Runtime.version(), ex);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Could not create a virtual thread executor", ex);
+        }
+    }
+}
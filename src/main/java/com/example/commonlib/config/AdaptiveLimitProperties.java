@@ -0,0 +1,139 @@
+package com.example.commonlib.config;
+
+public class AdaptiveLimitProperties {
+
+    public enum Algorithm {
+        AIMD, // Adds one per window of successes, multiplies by backoffRatio on overload
+        GRADIENT // Scales by the ratio of minimum to current round-trip time
+    }
+
+    /**
+     * How the concurrency limit reacts to latency and overload
+     */
+    private Algorithm algorithm = Algorithm.AIMD;
+
+    /**
+     * Concurrency limit before any round trip has been measured
+     */
+    private int initialLimit = 20;
+
+    /**
+     * Lowest concurrency limit the algorithm may settle on
+     */
+    private int minLimit = 1;
+
+    /**
+     * Highest concurrency limit the algorithm may settle on
+     */
+    private int maxLimit = 200;
+
+    /**
+     * Factor applied to the limit on overload. Applies to AIMD
+     */
+    private double backoffRatio = 0.9;
+
+    /**
+     * Round-trip time in milliseconds treated as overload, 0 counts only 5xx and timeouts. Applies to AIMD
+     */
+    private long latencyThresholdMs = 0;
+
+    /**
+     * Allowed ratio of current to minimum round-trip time before the limit shrinks. Applies to GRADIENT
+     */
+    private double rttTolerance = 1.5;
+
+    /**
+     * Weight of each new limit estimate (0.2 = 20%). Applies to GRADIENT
+     */
+    private double smoothing = 0.2;
+
+    /**
+     * Number of samples after which the minimum round-trip time is measured afresh. Applies to GRADIENT
+     */
+    private int minRttWindow = 1000;
+
+    /**
+     * Idle time in milliseconds after which an unused per-host limiter is dropped
+     */
+    private long idleEvictionMs = 600000;
+
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(Algorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    public void setBackoffRatio(double backoffRatio) {
+        this.backoffRatio = backoffRatio;
+    }
+
+    public long getLatencyThresholdMs() {
+        return latencyThresholdMs;
+    }
+
+    public void setLatencyThresholdMs(long latencyThresholdMs) {
+        this.latencyThresholdMs = latencyThresholdMs;
+    }
+
+    public double getRttTolerance() {
+        return rttTolerance;
+    }
+
+    public void setRttTolerance(double rttTolerance) {
+        this.rttTolerance = rttTolerance;
+    }
+
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    public void setSmoothing(double smoothing) {
+        this.smoothing = smoothing;
+    }
+
+    public int getMinRttWindow() {
+        return minRttWindow;
+    }
+
+    public void setMinRttWindow(int minRttWindow) {
+        this.minRttWindow = minRttWindow;
+    }
+
+    public long getIdleEvictionMs() {
+        return idleEvictionMs;
+    }
+
+    public void setIdleEvictionMs(long idleEvictionMs) {
+        this.idleEvictionMs = idleEvictionMs;
+    }
+}
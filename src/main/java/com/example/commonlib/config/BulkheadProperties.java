@@ -0,0 +1,56 @@
+package com.example.commonlib.config;
+
+public class BulkheadProperties {
+
+    /**
+     * Maximum number of calls in flight to one downstream
+     */
+    private int maxConcurrentCalls = 25;
+
+    /**
+     * Maximum number of blocking calls allowed to wait for a free slot, 0 rejects immediately
+     */
+    private int maxWaitQueue = 0;
+
+    /**
+     * Maximum time in milliseconds a queued call waits for a free slot before it is rejected
+     */
+    private long maxWaitMs = 0;
+
+    /**
+     * Idle time in milliseconds after which an unused per-host bulkhead is dropped
+     */
+    private long idleEvictionMs = 600000;
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+        this.maxConcurrentCalls = maxConcurrentCalls;
+    }
+
+    public int getMaxWaitQueue() {
+        return maxWaitQueue;
+    }
+
+    public void setMaxWaitQueue(int maxWaitQueue) {
+        this.maxWaitQueue = maxWaitQueue;
+    }
+
+    public long getMaxWaitMs() {
+        return maxWaitMs;
+    }
+
+    public void setMaxWaitMs(long maxWaitMs) {
+        this.maxWaitMs = maxWaitMs;
+    }
+
+    public long getIdleEvictionMs() {
+        return idleEvictionMs;
+    }
+
+    public void setIdleEvictionMs(long idleEvictionMs) {
+        this.idleEvictionMs = idleEvictionMs;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.commonlib.config;
+
+public class CacheProperties {
+
+    /**
+     * Maximum number of cached GET responses
+     */
+    private int maxEntries = 1000;
+
+    /**
+     * Maximum total size in bytes of the cached response bodies, as read after decoding
+     */
+    private long maxWeightBytes = 16 * 1024 * 1024;
+
+    /**
+     * Freshness lifetime in milliseconds for responses without Cache-Control max-age, 0 revalidates them on every call
+     */
+    private long defaultTtlMs = 0;
+
+    /**
+     * Maximum staleness in milliseconds of an entry returned at once while it is refreshed in the background, 0 disables
+     */
+    private long staleWhileRevalidateMs = 0;
+
+    /**
+     * Maximum staleness in milliseconds of an entry returned when the call fails on a 5xx, I/O error, rejection or open circuit, 0 disables
+     */
+    private long staleIfErrorMs = 0;
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public long getMaxWeightBytes() {
+        return maxWeightBytes;
+    }
+
+    public void setMaxWeightBytes(long maxWeightBytes) {
+        this.maxWeightBytes = maxWeightBytes;
+    }
+
+    public long getDefaultTtlMs() {
+        return defaultTtlMs;
+    }
+
+    public void setDefaultTtlMs(long defaultTtlMs) {
+        this.defaultTtlMs = defaultTtlMs;
+    }
+
+    public long getStaleWhileRevalidateMs() {
+        return staleWhileRevalidateMs;
+    }
+
+    public void setStaleWhileRevalidateMs(long staleWhileRevalidateMs) {
+        this.staleWhileRevalidateMs = staleWhileRevalidateMs;
+    }
+
+    public long getStaleIfErrorMs() {
+        return staleIfErrorMs;
+    }
+
+    public void setStaleIfErrorMs(long staleIfErrorMs) {
+        this.staleIfErrorMs = staleIfErrorMs;
+    }
+}
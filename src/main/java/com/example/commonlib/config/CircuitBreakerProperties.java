@@ -1,16 +1,102 @@
 package com.example.commonlib.config;
 
 public class CircuitBreakerProperties {
+
+    public enum Mode {
+        CONSECUTIVE, // Opens after failureThreshold failures in a row
+        COUNT_BASED, // Opens on failure rate over the last windowSize calls
+        TIME_BASED // Opens on failure rate over the last windowDurationMs
+    }
+
+    public enum Scope {
+        CLIENT, // One breaker shared by every call of the client
+        HOST // One breaker per downstream host and port
+    }
+
     /**
-     * Maximum failure count to make the state OPEN
+     * Which calls share a breaker when no route matches. Ignored on route overrides
+     */
+    private Scope scope = Scope.HOST;
+
+    /**
+     * Idle time in milliseconds after which a closed per-host breaker is dropped
+     */
+    private long idleEvictionMs = 600000;
+
+    /**
+     * How failures are counted before the state becomes OPEN
+     */
+    private Mode mode = Mode.CONSECUTIVE;
+
+    /**
+     * Maximum failure count to make the state OPEN. Applies to CONSECUTIVE mode
      */
     private int failureThreshold = 3;
 
     /**
-     * Maximum duration in seconds the circuit will be in OPEN state
+     * Duration in milliseconds the circuit will be in OPEN state
      */
     private long openDurationMs = 10;
 
+    /**
+     * Number of probe calls let through while HALF_OPEN
+     */
+    private int permittedCallsInHalfOpen = 1;
+
+    /**
+     * Share of probe calls (1.0 = all) that must succeed before the state returns to CLOSED
+     */
+    private double halfOpenSuccessRatio = 1.0;
+
+    /**
+     * Number of calls covered by the sliding window. Applies to COUNT_BASED mode
+     */
+    private int windowSize = 100;
+
+    /**
+     * Length in milliseconds of the sliding window. Applies to TIME_BASED mode
+     */
+    private long windowDurationMs = 10000;
+
+    /**
+     * Number of buckets the sliding window is split into; the oldest bucket is dropped as the window slides
+     */
+    private int bucketCount = 10;
+
+    /**
+     * Failure rate in percent (50.0 = 50%) at or above which the state becomes OPEN
+     */
+    private double failureRateThreshold = 50.0;
+
+    /**
+     * Minimum number of calls in the sliding window before the failure rate is evaluated
+     */
+    private int minimumNumberOfCalls = 20;
+
+    public Scope getScope() {
+        return scope;
+    }
+
+    public void setScope(Scope scope) {
+        this.scope = scope;
+    }
+
+    public long getIdleEvictionMs() {
+        return idleEvictionMs;
+    }
+
+    public void setIdleEvictionMs(long idleEvictionMs) {
+        this.idleEvictionMs = idleEvictionMs;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
     public int getFailureThreshold() {
         return failureThreshold;
     }
@@ -26,4 +112,60 @@ public class CircuitBreakerProperties {
     public void setOpenDurationMs(long openDurationMs) {
         this.openDurationMs = openDurationMs;
     }
+
+    public int getPermittedCallsInHalfOpen() {
+        return permittedCallsInHalfOpen;
+    }
+
+    public void setPermittedCallsInHalfOpen(int permittedCallsInHalfOpen) {
+        this.permittedCallsInHalfOpen = permittedCallsInHalfOpen;
+    }
+
+    public double getHalfOpenSuccessRatio() {
+        return halfOpenSuccessRatio;
+    }
+
+    public void setHalfOpenSuccessRatio(double halfOpenSuccessRatio) {
+        this.halfOpenSuccessRatio = halfOpenSuccessRatio;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public void setWindowSize(int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    public long getWindowDurationMs() {
+        return windowDurationMs;
+    }
+
+    public void setWindowDurationMs(long windowDurationMs) {
+        this.windowDurationMs = windowDurationMs;
+    }
+
+    public int getBucketCount() {
+        return bucketCount;
+    }
+
+    public void setBucketCount(int bucketCount) {
+        this.bucketCount = bucketCount;
+    }
+
+    public double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public void setFailureRateThreshold(double failureRateThreshold) {
+        this.failureRateThreshold = failureRateThreshold;
+    }
+
+    public int getMinimumNumberOfCalls() {
+        return minimumNumberOfCalls;
+    }
+
+    public void setMinimumNumberOfCalls(int minimumNumberOfCalls) {
+        this.minimumNumberOfCalls = minimumNumberOfCalls;
+    }
 }
@@ -1,16 +1,69 @@
 package com.example.commonlib.config;
 
+import com.example.commonlib.client.ClientMetrics;
 import com.example.commonlib.client.CommonRestClient;
+import com.example.commonlib.client.ReactiveCommonRestClient;
+import com.example.commonlib.metrics.MicrometerClientMetrics;
+import com.example.commonlib.tracing.SpanExporter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
 
-@AutoConfiguration
+@AutoConfiguration(afterName = {
+        "org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration",
+        "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration"
+})
 @EnableConfigurationProperties(RestClientProperties.class)
 public class CommonRestAutoConfiguration {
 
     @Bean
-    public CommonRestClient commonRestClient(RestClientProperties properties) {
-        return new CommonRestClient(properties);
+    public CommonRestClient commonRestClient(RestClientProperties properties, ObjectProvider<ObjectMapper> objectMapper,
+                                             ObjectProvider<ClientMetrics> metrics,
+                                             ObjectProvider<SpanExporter> spanExporter) {
+        return new CommonRestClient(properties,
+                objectMapper.getIfAvailable(() -> Jackson2ObjectMapperBuilder.json().build()),
+                metrics.getIfAvailable(() -> ClientMetrics.NOOP),
+                spanExporter.getIfAvailable());
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterRegistry.class)
+    static class MetricsConfiguration {
+
+        @Bean
+        @ConditionalOnBean(MeterRegistry.class)
+        @ConditionalOnMissingBean(ClientMetrics.class)
+        public ClientMetrics commonRestClientMetrics(MeterRegistry registry) {
+            return new MicrometerClientMetrics(registry);
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass({WebClient.class, HttpClient.class})
+    @ConditionalOnProperty(prefix = "rest.client", name = "reactive", havingValue = "true")
+    static class ReactiveConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(ReactiveCommonRestClient.class)
+        public ReactiveCommonRestClient reactiveCommonRestClient(RestClientProperties properties,
+                                                                 ObjectProvider<ObjectMapper> objectMapper,
+                                                                 ObjectProvider<ClientMetrics> metrics,
+                                                                 ObjectProvider<CommonRestClient> blocking) {
+            return new ReactiveCommonRestClient(properties,
+                    objectMapper.getIfAvailable(() -> Jackson2ObjectMapperBuilder.json().build()),
+                    metrics.getIfAvailable(() -> ClientMetrics.NOOP),
+                    blocking.getIfAvailable());
+        }
     }
 }
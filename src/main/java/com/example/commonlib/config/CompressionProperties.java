@@ -0,0 +1,69 @@
+package com.example.commonlib.config;
+
+public class CompressionProperties {
+
+    /**
+     * Whether request bodies of at least request-threshold-bytes are sent gzip-compressed
+     */
+    private boolean requestCompression = true;
+
+    /**
+     * Smallest request body in bytes that is compressed; streamed bodies of unknown length are always compressed
+     */
+    private int requestThresholdBytes = 2048;
+
+    /**
+     * Deflate level from 1 (fastest) to 9 (smallest) used for request bodies
+     */
+    private int level = 6;
+
+    /**
+     * Whether gzip and deflate responses are requested with Accept-Encoding and decompressed
+     */
+    private boolean responseDecompression = true;
+
+    /**
+     * Idle Deflater and Inflater instances kept for reuse, each holding native zlib memory
+     */
+    private int poolSize = 32;
+
+    public boolean isRequestCompression() {
+        return requestCompression;
+    }
+
+    public void setRequestCompression(boolean requestCompression) {
+        this.requestCompression = requestCompression;
+    }
+
+    public int getRequestThresholdBytes() {
+        return requestThresholdBytes;
+    }
+
+    public void setRequestThresholdBytes(int requestThresholdBytes) {
+        this.requestThresholdBytes = requestThresholdBytes;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public void setLevel(int level) {
+        this.level = level;
+    }
+
+    public boolean isResponseDecompression() {
+        return responseDecompression;
+    }
+
+    public void setResponseDecompression(boolean responseDecompression) {
+        this.responseDecompression = responseDecompression;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+}
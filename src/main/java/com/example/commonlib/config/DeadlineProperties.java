@@ -0,0 +1,45 @@
+package com.example.commonlib.config;
+
+public class DeadlineProperties {
+
+    /**
+     * Budget in milliseconds of every call, covering all attempts and backoff delays; 0 leaves calls
+     * without a deadline unless one is current on the calling thread
+     */
+    private long timeoutMs = 0;
+
+    /**
+     * Header carrying the remaining milliseconds of the deadline downstream; empty to not send it
+     */
+    private String header = "X-Request-Timeout-Ms";
+
+    /**
+     * Shortest remaining time in milliseconds an attempt is started with; with less left the call fails
+     * with status 504 instead
+     */
+    private long minAttemptMs = 10;
+
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    public void setTimeoutMs(long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    public String getHeader() {
+        return header;
+    }
+
+    public void setHeader(String header) {
+        this.header = header;
+    }
+
+    public long getMinAttemptMs() {
+        return minAttemptMs;
+    }
+
+    public void setMinAttemptMs(long minAttemptMs) {
+        this.minAttemptMs = minAttemptMs;
+    }
+}
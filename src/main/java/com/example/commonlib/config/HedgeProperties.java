@@ -0,0 +1,95 @@
+package com.example.commonlib.config;
+
+public class HedgeProperties {
+
+    /**
+     * Time in milliseconds without a response after which a hedge is sent, 0 derives it from the observed latency percentile
+     */
+    private long delayMs = 0;
+
+    /**
+     * Latency percentile of recent calls used as the hedge delay when delay-ms is 0
+     */
+    private double percentile = 95.0;
+
+    /**
+     * Lower bound in milliseconds of the derived hedge delay
+     */
+    private long minDelayMs = 10;
+
+    /**
+     * Maximum number of hedges sent per attempt, each after a further delay
+     */
+    private int maxHedges = 1;
+
+    /**
+     * Hedges allowed as a percentage of calls; the rest wait for their first request
+     */
+    private double budgetPercent = 10.0;
+
+    /**
+     * Hedges per second always allowed by the hedge budget, even before enough calls have been made
+     */
+    private int budgetMinHedgesPerSecond = 1;
+
+    /**
+     * Whether PUT and DELETE are hedged too, which requires them to be idempotent on the server
+     */
+    private boolean hedgeIdempotentWrites = false;
+
+    public long getDelayMs() {
+        return delayMs;
+    }
+
+    public void setDelayMs(long delayMs) {
+        this.delayMs = delayMs;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public void setPercentile(double percentile) {
+        this.percentile = percentile;
+    }
+
+    public long getMinDelayMs() {
+        return minDelayMs;
+    }
+
+    public void setMinDelayMs(long minDelayMs) {
+        this.minDelayMs = minDelayMs;
+    }
+
+    public int getMaxHedges() {
+        return maxHedges;
+    }
+
+    public void setMaxHedges(int maxHedges) {
+        this.maxHedges = maxHedges;
+    }
+
+    public double getBudgetPercent() {
+        return budgetPercent;
+    }
+
+    public void setBudgetPercent(double budgetPercent) {
+        this.budgetPercent = budgetPercent;
+    }
+
+    public int getBudgetMinHedgesPerSecond() {
+        return budgetMinHedgesPerSecond;
+    }
+
+    public void setBudgetMinHedgesPerSecond(int budgetMinHedgesPerSecond) {
+        this.budgetMinHedgesPerSecond = budgetMinHedgesPerSecond;
+    }
+
+    public boolean isHedgeIdempotentWrites() {
+        return hedgeIdempotentWrites;
+    }
+
+    public void setHedgeIdempotentWrites(boolean hedgeIdempotentWrites) {
+        this.hedgeIdempotentWrites = hedgeIdempotentWrites;
+    }
+}
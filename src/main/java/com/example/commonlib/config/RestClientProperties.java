@@ -2,9 +2,17 @@ package com.example.commonlib.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @ConfigurationProperties(prefix = "rest.client")
 public class RestClientProperties {
 
+    public enum ExecutionMode {
+        PLATFORM, // Async calls use the non-blocking JDK HttpClient pipeline
+        VIRTUAL // Async calls run the blocking pipeline on a virtual thread per call (Java 21+)
+    }
+
     /**
      * Connection timeout in milliseconds
      */
@@ -15,10 +23,46 @@ public class RestClientProperties {
      */
     private int readTimeout = 5000;
 
+    /**
+     * Threads that async calls and their retry backoff run on
+     */
+    private ExecutionMode executionMode = ExecutionMode.PLATFORM;
+
+    private TransportProperties transport = new TransportProperties();
+
+    private TracingProperties tracing = new TracingProperties();
+
+    private DeadlineProperties deadline = new DeadlineProperties();
+
     private RetryProperties retry;
 
     private CircuitBreakerProperties circuitBreaker;
 
+    private BulkheadProperties bulkhead;
+
+    private AdaptiveLimitProperties adaptiveLimit;
+
+    private CacheProperties cache;
+
+    private HedgeProperties hedge;
+
+    private CompressionProperties compression;
+
+    /**
+     * Whether concurrent GETs of the same URL and response type share one request
+     */
+    private boolean singleFlight = false;
+
+    /**
+     * Whether to register a ReactiveCommonRestClient bean when WebFlux and Reactor Netty are on the classpath
+     */
+    private boolean reactive = false;
+
+    /**
+     * Per-route overrides keyed by route name
+     */
+    private Map<String, RouteProperties> routes = new LinkedHashMap<>();
+
     public int getConnectionTimeout() {
         return connectionTimeout;
     }
@@ -35,6 +79,38 @@ public class RestClientProperties {
         this.readTimeout = readTimeout;
     }
 
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    public void setExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+    }
+
+    public TransportProperties getTransport() {
+        return transport;
+    }
+
+    public void setTransport(TransportProperties transport) {
+        this.transport = transport;
+    }
+
+    public TracingProperties getTracing() {
+        return tracing;
+    }
+
+    public void setTracing(TracingProperties tracing) {
+        this.tracing = tracing;
+    }
+
+    public DeadlineProperties getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(DeadlineProperties deadline) {
+        this.deadline = deadline;
+    }
+
     public RetryProperties getRetry() {
         return retry;
     }
@@ -50,4 +126,68 @@ public class RestClientProperties {
     public void setCircuitBreaker(CircuitBreakerProperties circuitBreaker) {
         this.circuitBreaker = circuitBreaker;
     }
+
+    public BulkheadProperties getBulkhead() {
+        return bulkhead;
+    }
+
+    public void setBulkhead(BulkheadProperties bulkhead) {
+        this.bulkhead = bulkhead;
+    }
+
+    public AdaptiveLimitProperties getAdaptiveLimit() {
+        return adaptiveLimit;
+    }
+
+    public void setAdaptiveLimit(AdaptiveLimitProperties adaptiveLimit) {
+        this.adaptiveLimit = adaptiveLimit;
+    }
+
+    public CacheProperties getCache() {
+        return cache;
+    }
+
+    public void setCache(CacheProperties cache) {
+        this.cache = cache;
+    }
+
+    public HedgeProperties getHedge() {
+        return hedge;
+    }
+
+    public void setHedge(HedgeProperties hedge) {
+        this.hedge = hedge;
+    }
+
+    public CompressionProperties getCompression() {
+        return compression;
+    }
+
+    public void setCompression(CompressionProperties compression) {
+        this.compression = compression;
+    }
+
+    public boolean isSingleFlight() {
+        return singleFlight;
+    }
+
+    public void setSingleFlight(boolean singleFlight) {
+        this.singleFlight = singleFlight;
+    }
+
+    public boolean isReactive() {
+        return reactive;
+    }
+
+    public void setReactive(boolean reactive) {
+        this.reactive = reactive;
+    }
+
+    public Map<String, RouteProperties> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, RouteProperties> routes) {
+        this.routes = routes;
+    }
 }
@@ -22,6 +22,21 @@ public class RetryProperties {
      */
     private double jitterFactor = 0.2;
 
+    /**
+     * Retries allowed as a percentage of successful first attempts (10.0 = 10%), 0 disables the retry budget
+     */
+    private double budgetPercent = 0;
+
+    /**
+     * Retries per second always allowed by the retry budget, even without successful calls
+     */
+    private int budgetMinRetriesPerSecond = 10;
+
+    /**
+     * Maximum number of retry tokens the retry budget can save up
+     */
+    private int budgetMaxTokens = 100;
+
     public int getMaxAttempts() {
         return maxAttempts;
     }
@@ -53,4 +68,28 @@ public class RetryProperties {
     public void setJitterFactor(double jitterFactor) {
         this.jitterFactor = jitterFactor;
     }
+
+    public double getBudgetPercent() {
+        return budgetPercent;
+    }
+
+    public void setBudgetPercent(double budgetPercent) {
+        this.budgetPercent = budgetPercent;
+    }
+
+    public int getBudgetMinRetriesPerSecond() {
+        return budgetMinRetriesPerSecond;
+    }
+
+    public void setBudgetMinRetriesPerSecond(int budgetMinRetriesPerSecond) {
+        this.budgetMinRetriesPerSecond = budgetMinRetriesPerSecond;
+    }
+
+    public int getBudgetMaxTokens() {
+        return budgetMaxTokens;
+    }
+
+    public void setBudgetMaxTokens(int budgetMaxTokens) {
+        this.budgetMaxTokens = budgetMaxTokens;
+    }
 }
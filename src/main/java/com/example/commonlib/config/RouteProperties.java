@@ -0,0 +1,151 @@
+package com.example.commonlib.config;
+
+public class RouteProperties {
+
+    /**
+     * Host the route applies to, optionally with a port (api.example.com or api.example.com:8443)
+     */
+    private String host;
+
+    /**
+     * Path prefix the route applies to (/customers), matched on whole path segments. Routes with a host win over
+     * those without, then the longest matching prefix wins
+     */
+    private String pathPrefix;
+
+    /**
+     * Connection timeout in milliseconds for this route, replacing the client-wide one. Not supported by the
+     * JDK transport, whose client has a single connection timeout
+     */
+    private Integer connectionTimeout;
+
+    /**
+     * Read timeout in milliseconds for this route, replacing the client-wide one
+     */
+    private Integer readTimeout;
+
+    /**
+     * Call budget in milliseconds for this route, replacing deadline.timeout-ms; 0 leaves the route's calls
+     * without a configured deadline
+     */
+    private Long deadlineMs;
+
+    /**
+     * Circuit breaker settings for this route, replacing the client-wide ones
+     */
+    private CircuitBreakerProperties circuitBreaker;
+
+    /**
+     * Bulkhead settings for this route, replacing the client-wide ones
+     */
+    private BulkheadProperties bulkhead;
+
+    /**
+     * Adaptive concurrency limit settings for this route, replacing the client-wide ones
+     */
+    private AdaptiveLimitProperties adaptiveLimit;
+
+    /**
+     * Hedging settings for this route, replacing the client-wide ones
+     */
+    private HedgeProperties hedge;
+
+    /**
+     * Compression settings for this route, replacing the client-wide ones
+     */
+    private CompressionProperties compression;
+
+    /**
+     * Freshness lifetime in milliseconds of this route's cached GET responses, replacing Cache-Control max-age;
+     * 0 turns caching off for the route
+     */
+    private Long cacheTtlMs;
+
+    public String getHost() {
+        return host;
+    }
+
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    public String getPathPrefix() {
+        return pathPrefix;
+    }
+
+    public void setPathPrefix(String pathPrefix) {
+        this.pathPrefix = pathPrefix;
+    }
+
+    public Integer getConnectionTimeout() {
+        return connectionTimeout;
+    }
+
+    public void setConnectionTimeout(Integer connectionTimeout) {
+        this.connectionTimeout = connectionTimeout;
+    }
+
+    public Integer getReadTimeout() {
+        return readTimeout;
+    }
+
+    public void setReadTimeout(Integer readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    public Long getDeadlineMs() {
+        return deadlineMs;
+    }
+
+    public void setDeadlineMs(Long deadlineMs) {
+        this.deadlineMs = deadlineMs;
+    }
+
+    public CircuitBreakerProperties getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public void setCircuitBreaker(CircuitBreakerProperties circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public BulkheadProperties getBulkhead() {
+        return bulkhead;
+    }
+
+    public void setBulkhead(BulkheadProperties bulkhead) {
+        this.bulkhead = bulkhead;
+    }
+
+    public AdaptiveLimitProperties getAdaptiveLimit() {
+        return adaptiveLimit;
+    }
+
+    public void setAdaptiveLimit(AdaptiveLimitProperties adaptiveLimit) {
+        this.adaptiveLimit = adaptiveLimit;
+    }
+
+    public HedgeProperties getHedge() {
+        return hedge;
+    }
+
+    public void setHedge(HedgeProperties hedge) {
+        this.hedge = hedge;
+    }
+
+    public CompressionProperties getCompression() {
+        return compression;
+    }
+
+    public void setCompression(CompressionProperties compression) {
+        this.compression = compression;
+    }
+
+    public Long getCacheTtlMs() {
+        return cacheTtlMs;
+    }
+
+    public void setCacheTtlMs(Long cacheTtlMs) {
+        this.cacheTtlMs = cacheTtlMs;
+    }
+}
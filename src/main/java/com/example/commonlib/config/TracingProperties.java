@@ -0,0 +1,69 @@
+package com.example.commonlib.config;
+
+public class TracingProperties {
+
+    /**
+     * Share of calls that log start and success lines (0.1 = 10%). Failures and retries are always logged
+     */
+    private double samplingRate = 1.0;
+
+    /**
+     * Whether outgoing requests carry W3C traceparent and tracestate headers
+     */
+    private boolean propagation = true;
+
+    /**
+     * Finished spans waiting for export before new ones are dropped
+     */
+    private int exportQueueSize = 2048;
+
+    /**
+     * Spans handed to the SpanExporter at once
+     */
+    private int exportBatchSize = 512;
+
+    /**
+     * Longest time in milliseconds a finished span waits for its batch to fill up
+     */
+    private long exportIntervalMs = 5000;
+
+    public double getSamplingRate() {
+        return samplingRate;
+    }
+
+    public void setSamplingRate(double samplingRate) {
+        this.samplingRate = samplingRate;
+    }
+
+    public boolean isPropagation() {
+        return propagation;
+    }
+
+    public void setPropagation(boolean propagation) {
+        this.propagation = propagation;
+    }
+
+    public int getExportQueueSize() {
+        return exportQueueSize;
+    }
+
+    public void setExportQueueSize(int exportQueueSize) {
+        this.exportQueueSize = exportQueueSize;
+    }
+
+    public int getExportBatchSize() {
+        return exportBatchSize;
+    }
+
+    public void setExportBatchSize(int exportBatchSize) {
+        this.exportBatchSize = exportBatchSize;
+    }
+
+    public long getExportIntervalMs() {
+        return exportIntervalMs;
+    }
+
+    public void setExportIntervalMs(long exportIntervalMs) {
+        this.exportIntervalMs = exportIntervalMs;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.commonlib.config;
+
+/**
+ * Transport of the blocking client's calls. Async calls, hedged calls and batches always run on a
+ * {@code java.net.http.HttpClient} instead: with the JDK transport the same client, otherwise a second one that
+ * only takes the connection timeout and {@link #isHttp2Enabled() HTTP version} from here. The JDK client has no
+ * per-client pool settings, so the connection limits, idle eviction and keep-alive TTL below do not apply to
+ * those calls. Its pool is unbounded and tuned JVM-wide by the {@code jdk.httpclient.connectionPoolSize} and
+ * {@code jdk.httpclient.keepalive.timeout} system properties; bound their concurrency with a bulkhead.
+ */
+public class TransportProperties {
+
+    public enum Type {
+        SIMPLE, // HttpURLConnection, no pool control
+        JDK, // java.net.http.HttpClient with its built-in keep-alive pool and HTTP/2; read timeout covers headers only
+        APACHE // Apache HttpClient 5 with a bounded per-route pool
+    }
+
+    /**
+     * HTTP transport used by the client
+     */
+    private Type type = Type.APACHE;
+
+    /**
+     * Maximum pooled connections per route (host and port). Applies to the APACHE transport's blocking calls and
+     * the reactive client, whose Reactor Netty pool is kept per remote address
+     */
+    private int maxConnectionsPerRoute = 50;
+
+    /**
+     * Maximum pooled connections across all routes. Applies to the APACHE transport's blocking calls only;
+     * Reactor Netty has no limit across remote addresses
+     */
+    private int maxConnectionsTotal = 200;
+
+    /**
+     * Idle time in milliseconds after which a pooled connection is evicted. Applies to the APACHE transport's
+     * blocking calls and the reactive client
+     */
+    private long idleEvictionMs = 30000;
+
+    /**
+     * Maximum lifetime in milliseconds of a pooled keep-alive connection, 0 for unlimited.
+     * Applies to the APACHE transport's blocking calls and the reactive client; the JDK transport and async calls
+     * use the jdk.httpclient.keepalive.timeout system property
+     */
+    private long keepAliveTtlMs = 300000;
+
+    /**
+     * Negotiate HTTP/2 where the server supports it. Applies to the JDK transport and to async calls
+     */
+    private boolean http2Enabled = false;
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+    }
+
+    public int getMaxConnectionsTotal() {
+        return maxConnectionsTotal;
+    }
+
+    public void setMaxConnectionsTotal(int maxConnectionsTotal) {
+        this.maxConnectionsTotal = maxConnectionsTotal;
+    }
+
+    public long getIdleEvictionMs() {
+        return idleEvictionMs;
+    }
+
+    public void setIdleEvictionMs(long idleEvictionMs) {
+        this.idleEvictionMs = idleEvictionMs;
+    }
+
+    public long getKeepAliveTtlMs() {
+        return keepAliveTtlMs;
+    }
+
+    public void setKeepAliveTtlMs(long keepAliveTtlMs) {
+        this.keepAliveTtlMs = keepAliveTtlMs;
+    }
+
+    public boolean isHttp2Enabled() {
+        return http2Enabled;
+    }
+
+    public void setHttp2Enabled(boolean http2Enabled) {
+        this.http2Enabled = http2Enabled;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.commonlib.exception;
+
+import com.example.commonlib.model.RemoteErrorResponse;
+
+/**
+ * The call was rejected by the client's own bulkhead without reaching the downstream.
+ */
+public class BulkheadFullException extends RemoteServiceException {
+    public BulkheadFullException(RemoteErrorResponse errorResponse) {
+        super(errorResponse);
+    }
+}
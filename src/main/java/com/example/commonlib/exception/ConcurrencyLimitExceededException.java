@@ -0,0 +1,12 @@
+package com.example.commonlib.exception;
+
+import com.example.commonlib.model.RemoteErrorResponse;
+
+/**
+ * The call was rejected by the client's own adaptive concurrency limit without reaching the downstream.
+ */
+public class ConcurrencyLimitExceededException extends RemoteServiceException {
+    public ConcurrencyLimitExceededException(RemoteErrorResponse errorResponse) {
+        super(errorResponse);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.commonlib.metrics;
+
+import com.example.commonlib.client.ClientMetrics;
+import com.example.commonlib.client.DownstreamMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Publishes the client's measurements to a Micrometer {@link MeterRegistry}. Every meter is tagged with
+ * {@code downstream}, the route name or host it belongs to.
+ */
+public class MicrometerClientMetrics implements ClientMetrics {
+
+    /**
+     * Timer of every attempt, tagged with {@code method}, {@code status} and {@code outcome}
+     */
+    public static final String REQUESTS = "rest.client.requests";
+
+    /**
+     * Counter of retries, tagged with {@code method}
+     */
+    public static final String RETRIES = "rest.client.retries";
+
+    /**
+     * Counter of hedged requests, tagged with {@code method}
+     */
+    public static final String HEDGES = "rest.client.hedges";
+
+    /**
+     * Gauge of calls in flight, retries and backoff included
+     */
+    public static final String IN_FLIGHT = "rest.client.in.flight";
+
+    /**
+     * Gauge of the downstream's breakers in each {@code state}: 1 for the current state and 0 for the others
+     * while one breaker is live under the name, 0 for all once an idle host's breaker has been evicted
+     */
+    public static final String CIRCUIT_BREAKER_STATE = "rest.client.circuit.breaker.state";
+
+    /**
+     * Counter of breaker state changes, tagged with {@code from} and {@code to}
+     */
+    public static final String CIRCUIT_BREAKER_TRANSITIONS = "rest.client.circuit.breaker.transitions";
+
+    /**
+     * Gauge of the adaptive concurrency limit, summed over the downstream's live limiters
+     */
+    public static final String CONCURRENCY_LIMIT = "rest.client.concurrency.limit";
+
+    private final MeterRegistry registry;
+    private final ConcurrentHashMap<String, MicrometerDownstreamMetrics> downstreams = new ConcurrentHashMap<>();
+
+    public MicrometerClientMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public DownstreamMetrics downstream(String downstream) {
+        return downstreams.computeIfAbsent(downstream, name -> new MicrometerDownstreamMetrics(registry, name));
+    }
+}
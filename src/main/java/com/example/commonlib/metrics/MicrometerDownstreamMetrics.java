@@ -0,0 +1,242 @@
+package com.example.commonlib.metrics;
+
+import com.example.commonlib.client.AdaptiveLimiter;
+import com.example.commonlib.client.CircuitBreaker;
+import com.example.commonlib.client.ClientMetrics;
+import com.example.commonlib.client.DownstreamMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpMethod;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Meters of one downstream. Each meter is registered on first use and cached in a slot indexed by
+ * method, outcome and state, so recording looks up an array instead of building tags. Caches grow by
+ * copy-on-write CAS and never lock.
+ * <p>
+ * The breaker and limiter gauges read every breaker and limiter created under this name and not yet
+ * removed, so an evicted host's breaker stops counting and one created again takes its place.
+ */
+final class MicrometerDownstreamMetrics implements DownstreamMetrics {
+
+    private static final HttpMethod[] METHODS = {
+            HttpMethod.GET, HttpMethod.POST, HttpMethod.PUT, HttpMethod.DELETE,
+            HttpMethod.PATCH, HttpMethod.HEAD, HttpMethod.OPTIONS
+    };
+    private static final int OTHER_METHOD = METHODS.length;
+    private static final ClientMetrics.Outcome[] OUTCOMES = ClientMetrics.Outcome.values();
+    private static final CircuitBreaker.State[] STATES = CircuitBreaker.State.values();
+
+    private record StatusTimer(int status, Timer timer) {
+    }
+
+    private final MeterRegistry registry;
+    private final Tags tags;
+    private final AtomicReferenceArray<StatusTimer[]> timers =
+            new AtomicReferenceArray<>((OTHER_METHOD + 1) * OUTCOMES.length);
+    private final AtomicReferenceArray<Counter> retries = new AtomicReferenceArray<>(OTHER_METHOD + 1);
+    private final AtomicReferenceArray<Counter> hedges = new AtomicReferenceArray<>(OTHER_METHOD + 1);
+    private final AtomicReferenceArray<Counter> transitions = new AtomicReferenceArray<>(STATES.length * STATES.length);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicReference<CircuitBreaker[]> circuitBreakers = new AtomicReference<>(new CircuitBreaker[0]);
+    private final AtomicReference<AdaptiveLimiter[]> limiters = new AtomicReference<>(new AdaptiveLimiter[0]);
+
+    MicrometerDownstreamMetrics(MeterRegistry registry, String downstream) {
+        this.registry = registry;
+        this.tags = Tags.of("downstream", downstream);
+        Gauge.builder(MicrometerClientMetrics.IN_FLIGHT, inFlight, AtomicInteger::get)
+                .tags(tags)
+                .description("Calls in flight, retries and backoff included")
+                .register(registry);
+    }
+
+    @Override
+    public void callStarted() {
+        inFlight.incrementAndGet();
+    }
+
+    @Override
+    public void callFinished() {
+        inFlight.decrementAndGet();
+    }
+
+    @Override
+    public void recordAttempt(HttpMethod method, int status, ClientMetrics.Outcome outcome, long durationNanos) {
+        timer(method, status, outcome).record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordRetry(HttpMethod method, int attempt) {
+        methodCounter(retries, MicrometerClientMetrics.RETRIES, method).increment();
+    }
+
+    @Override
+    public void recordHedge(HttpMethod method) {
+        methodCounter(hedges, MicrometerClientMetrics.HEDGES, method).increment();
+    }
+
+    private Counter methodCounter(AtomicReferenceArray<Counter> counters, String name, HttpMethod method) {
+        int index = indexOf(method);
+        Counter counter = counters.get(index);
+        if (counter == null) {
+            counter = Counter.builder(name)
+                    .tags(tags)
+                    .tag("method", methodTag(method, index))
+                    .register(registry);
+            counters.compareAndSet(index, null, counter);
+        }
+        return counter;
+    }
+
+    @Override
+    public void circuitBreakerCreated(CircuitBreaker circuitBreaker) {
+        if (add(circuitBreakers, circuitBreaker)) {
+            for (CircuitBreaker.State state : STATES) {
+                Gauge.builder(MicrometerClientMetrics.CIRCUIT_BREAKER_STATE, circuitBreakers,
+                                breakers -> countInState(breakers.get(), state))
+                        .tags(tags)
+                        .tag("state", lowerCase(state.name()))
+                        .register(registry);
+            }
+        }
+    }
+
+    @Override
+    public void circuitBreakerRemoved(CircuitBreaker circuitBreaker) {
+        remove(circuitBreakers, circuitBreaker);
+    }
+
+    @Override
+    public void circuitBreakerTransition(CircuitBreaker.State from, CircuitBreaker.State to) {
+        int index = from.ordinal() * STATES.length + to.ordinal();
+        Counter counter = transitions.get(index);
+        if (counter == null) {
+            counter = Counter.builder(MicrometerClientMetrics.CIRCUIT_BREAKER_TRANSITIONS)
+                    .tags(tags)
+                    .tag("from", lowerCase(from.name()))
+                    .tag("to", lowerCase(to.name()))
+                    .register(registry);
+            transitions.compareAndSet(index, null, counter);
+        }
+        counter.increment();
+    }
+
+    @Override
+    public void adaptiveLimiterCreated(AdaptiveLimiter limiter) {
+        if (add(limiters, limiter)) {
+            Gauge.builder(MicrometerClientMetrics.CONCURRENCY_LIMIT, limiters, current -> sumOfLimits(current.get()))
+                    .tags(tags)
+                    .register(registry);
+        }
+    }
+
+    @Override
+    public void adaptiveLimiterRemoved(AdaptiveLimiter limiter) {
+        remove(limiters, limiter);
+    }
+
+    private static int countInState(CircuitBreaker[] breakers, CircuitBreaker.State state) {
+        int count = 0;
+        for (CircuitBreaker breaker : breakers) {
+            if (breaker.getState() == state) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int sumOfLimits(AdaptiveLimiter[] limiters) {
+        int sum = 0;
+        for (AdaptiveLimiter limiter : limiters) {
+            sum += limiter.getLimit();
+        }
+        return sum;
+    }
+
+    /**
+     * @return whether {@code value} is the first one added, so its gauges still have to be registered
+     */
+    private static <T> boolean add(AtomicReference<T[]> values, T value) {
+        while (true) {
+            T[] current = values.get();
+            T[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = value;
+            if (values.compareAndSet(current, next)) {
+                return current.length == 0;
+            }
+        }
+    }
+
+    private static <T> void remove(AtomicReference<T[]> values, T value) {
+        while (true) {
+            T[] current = values.get();
+            int index = Arrays.asList(current).indexOf(value);
+            if (index < 0) {
+                return;
+            }
+            T[] next = Arrays.copyOf(current, current.length - 1);
+            System.arraycopy(current, index + 1, next, index, current.length - index - 1);
+            if (values.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    private Timer timer(HttpMethod method, int status, ClientMetrics.Outcome outcome) {
+        int methodIndex = indexOf(method);
+        int slot = methodIndex * OUTCOMES.length + outcome.ordinal();
+        while (true) {
+            StatusTimer[] current = timers.get(slot);
+            if (current != null) {
+                for (StatusTimer entry : current) {
+                    if (entry.status == status) {
+                        return entry.timer;
+                    }
+                }
+            }
+            Timer timer = Timer.builder(MicrometerClientMetrics.REQUESTS)
+                    .tags(tags)
+                    .tag("method", methodTag(method, methodIndex))
+                    .tag("status", status == 0 ? "NONE" : Integer.toString(status))
+                    .tag("outcome", outcome.name())
+                    .publishPercentileHistogram()
+                    .register(registry);
+            StatusTimer[] next;
+            if (current == null) {
+                next = new StatusTimer[] {new StatusTimer(status, timer)};
+            } else {
+                next = Arrays.copyOf(current, current.length + 1);
+                next[current.length] = new StatusTimer(status, timer);
+            }
+            if (timers.compareAndSet(slot, current, next)) {
+                return timer;
+            }
+        }
+    }
+
+    private static int indexOf(HttpMethod method) {
+        for (int i = 0; i < METHODS.length; i++) {
+            if (METHODS[i].equals(method)) {
+                return i;
+            }
+        }
+        return OTHER_METHOD;
+    }
+
+    private static String methodTag(HttpMethod method, int index) {
+        return index == OTHER_METHOD ? "OTHER" : method.name();
+    }
+
+    private static String lowerCase(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.commonlib.tracing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands finished spans to a {@link SpanExporter} in batches from a single daemon thread, so request threads
+ * only pay for a non-blocking queue offer. A batch is exported once it is full or the export interval has
+ * passed. When the queue is full, further spans are dropped rather than slowing down calls.
+ */
+public class BatchSpanProcessor implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchSpanProcessor.class);
+    private static final long SHUTDOWN_TIMEOUT_MS = 10000;
+
+    private final SpanExporter exporter;
+    private final BlockingQueue<SpanData> queue;
+    private final int maxExportBatchSize;
+    private final long exportIntervalNanos;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    /**
+     * @param maxQueueSize       spans waiting for export before new ones are dropped
+     * @param maxExportBatchSize spans handed to the exporter at once
+     * @param exportIntervalMs   longest time a span waits for its batch to fill up
+     */
+    public BatchSpanProcessor(SpanExporter exporter, int maxQueueSize, int maxExportBatchSize, long exportIntervalMs) {
+        this.exporter = exporter;
+        this.queue = new ArrayBlockingQueue<>(maxQueueSize);
+        this.maxExportBatchSize = Math.min(maxExportBatchSize, maxQueueSize);
+        this.exportIntervalNanos = TimeUnit.MILLISECONDS.toNanos(exportIntervalMs);
+        this.worker = new Thread(this::run, "common-rest-span-exporter");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Queues a finished span for export without blocking.
+     */
+    public void onEnd(SpanData span) {
+        if (!running || !queue.offer(span)) {
+            if (dropped.getAndIncrement() == 0) {
+                log.warn("Span export queue is full, dropping spans");
+            }
+        }
+    }
+
+    /**
+     * @return spans dropped because the queue was full or the processor was closed
+     */
+    public long getDroppedSpans() {
+        return dropped.get();
+    }
+
+    /**
+     * Exports the spans still queued, then shuts the exporter down.
+     */
+    @Override
+    public void close() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(SHUTDOWN_TIMEOUT_MS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<SpanData> batch = new ArrayList<>(maxExportBatchSize);
+        long deadline = System.nanoTime() + exportIntervalNanos;
+        while (running) {
+            try {
+                long wait = deadline - System.nanoTime();
+                SpanData span = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : null;
+                if (span != null) {
+                    batch.add(span);
+                    queue.drainTo(batch, maxExportBatchSize - batch.size());
+                }
+            } catch (InterruptedException ex) {
+                // woken up by close(), drained below
+            }
+            if (batch.size() >= maxExportBatchSize || deadline - System.nanoTime() <= 0) {
+                export(batch);
+                deadline = System.nanoTime() + exportIntervalNanos;
+            }
+        }
+
+        do {
+            queue.drainTo(batch, maxExportBatchSize - batch.size());
+            export(batch);
+        } while (!queue.isEmpty());
+        try {
+            exporter.shutdown();
+        } catch (RuntimeException ex) {
+            log.warn("Span exporter failed to shut down: {}", ex.getMessage());
+        }
+    }
+
+    private void export(List<SpanData> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            exporter.export(List.copyOf(batch));
+        } catch (RuntimeException ex) {
+            log.warn("Failed to export {} spans: {}", batch.size(), ex.getMessage());
+        }
+        batch.clear();
+    }
+}
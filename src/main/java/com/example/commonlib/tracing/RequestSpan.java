@@ -2,42 +2,202 @@ package com.example.commonlib.tracing;
 
 import org.slf4j.Logger;
 
-import java.time.Duration;
-import java.time.Instant;
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Per-call client span used for request logging, {@code traceparent} propagation and span export. Starting
+ * one costs a {@link ThreadLocalRandom} draw and a {@link System#nanoTime()} read; IDs are only formatted
+ * when a line is written or a header is sent.
+ * <p>
+ * A span started under a {@link TraceContext} joins its trace and follows its sampling decision; otherwise it
+ * starts a new trace sampled at the given rate. Unsampled spans skip the start, attempt and success lines and
+ * are not exported. Failures are always logged, and retries of any span are logged because they are rare and
+ * worth seeing.
+ */
 public class RequestSpan {
-    private final String spanId;
-    private final Instant startTime;
+    private final long startNanos;
+    private final boolean sampled;
+    private final TraceContext parent;
+    private long traceIdHigh;
+    private long traceIdLow;
+    private long spanId;
+    private long startEpochNanos;
+    private List<SpanData.Event> events;
 
-    private RequestSpan() {
-        this.spanId = UUID.randomUUID().toString();
-        this.startTime = Instant.now();
+    private RequestSpan(TraceContext parent, boolean sampled) {
+        this.startNanos = System.nanoTime();
+        this.parent = parent;
+        this.sampled = sampled;
+        if (parent != null) {
+            this.traceIdHigh = parent.traceIdHigh();
+            this.traceIdLow = parent.traceIdLow();
+        }
+        if (sampled) {
+            this.spanId = nextId();
+            this.startEpochNanos = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+        }
     }
 
     public static RequestSpan start() {
-        return new RequestSpan();
+        return new RequestSpan(null, true);
+    }
+
+    /**
+     * @param samplingRate share of spans that log their whole lifecycle, between 0.0 and 1.0
+     */
+    public static RequestSpan start(double samplingRate) {
+        return start(null, samplingRate);
+    }
+
+    /**
+     * @param parent       the caller's context, usually {@link TraceContext#current()}; {@code null} starts a new trace
+     * @param samplingRate share of new traces that are sampled, between 0.0 and 1.0
+     */
+    public static RequestSpan start(TraceContext parent, double samplingRate) {
+        boolean sampled = parent != null
+                ? parent.isSampled()
+                : samplingRate >= 1.0 || (samplingRate > 0.0 && ThreadLocalRandom.current().nextDouble() < samplingRate);
+        return new RequestSpan(parent, sampled);
     }
 
     public String getSpanId() {
-        return spanId;
+        return TraceContext.toHex(spanId());
+    }
+
+    public String getTraceId() {
+        return context().getTraceId();
+    }
+
+    public boolean isSampled() {
+        return sampled;
+    }
+
+    /**
+     * @return this span as the parent context of the downstream call
+     */
+    public TraceContext context() {
+        if (traceIdHigh == 0 && traceIdLow == 0) {
+            traceIdHigh = ThreadLocalRandom.current().nextLong();
+            traceIdLow = nextId();
+        }
+        return new TraceContext(traceIdHigh, traceIdLow, spanId(), sampled,
+                parent != null ? parent.getTraceState() : null);
+    }
+
+    /**
+     * Writes the {@code traceparent} and, when the parent carried one, {@code tracestate} headers.
+     */
+    public void inject(Map<String, ? super List<String>> headers) {
+        TraceContext context = context();
+        headers.put(TraceContext.TRACEPARENT, List.of(context.toTraceparent()));
+        if (context.getTraceState() != null) {
+            headers.put(TraceContext.TRACESTATE, List.of(context.getTraceState()));
+        }
     }
 
     public void logStart(Logger log, String url) {
-        log.info("[SPAN {}] Started call to {} at {}", spanId, url, startTime);
+        if (sampled && log.isInfoEnabled()) {
+            log.info("[SPAN {}] Started call to {}", getSpanId(), url);
+        }
     }
 
+    /**
+     * Logs an attempt. Retries of sampled spans are also recorded as {@code retry} events.
+     */
     public void logRetry(Logger log, int attempt, String url) {
-        log.info("[SPAN {}] Retry attempt {} for {}", spanId, attempt, url);
+        if (attempt > 1) {
+            if (sampled) {
+                addRetryEvent(attempt);
+            }
+            if (log.isInfoEnabled()) {
+                log.info("[SPAN {}] Retry attempt {} for {}", getSpanId(), attempt, url);
+            }
+        } else if (sampled && log.isDebugEnabled()) {
+            log.debug("[SPAN {}] Attempt {} for {}", getSpanId(), attempt, url);
+        }
     }
 
     public void logSuccess(Logger log, String url) {
-        long durationMs = Duration.between(startTime, Instant.now()).toMillis();
-        log.info("[SPAN {}] Successfully completed call to {} in {} ms", spanId, url, durationMs);
+        if (sampled && log.isInfoEnabled()) {
+            log.info("[SPAN {}] Successfully completed call to {} in {} ms", getSpanId(), url, elapsedMs());
+        }
     }
 
     public void logFailure(Logger log, String url, Exception ex) {
-        long durationMs = Duration.between(startTime, Instant.now()).toMillis();
-        log.error("[SPAN {}] Failed call to {} after {} ms - Error: {}", spanId, url, durationMs, ex.getMessage());
+        if (log.isErrorEnabled()) {
+            log.error("[SPAN {}] Failed call to {} after {} ms - Error: {}", getSpanId(), url, elapsedMs(), ex.getMessage());
+        }
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Ends the span.
+     *
+     * @param statusCode the response status, or 0 when no response was received
+     * @param error      the failure, or {@code null} on success
+     * @return the finished span for export, or {@code null} when the span is not sampled
+     */
+    public SpanData end(String method, String url, int statusCode, Throwable error) {
+        if (!sampled) {
+            return null;
+        }
+        long endEpochNanos = startEpochNanos + elapsedNanos();
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("http.request.method", method);
+        attributes.put("url.full", url);
+        if (statusCode > 0) {
+            attributes.put("http.response.status_code", statusCode);
+        }
+        if (events != null) {
+            attributes.put("http.request.resend_count", events.size());
+        }
+        TraceContext context = context();
+        return new SpanData(
+                context.getTraceId(),
+                context.getSpanId(),
+                parent != null ? parent.getSpanId() : null,
+                context.getTraceState(),
+                method,
+                startEpochNanos,
+                endEpochNanos,
+                attributes,
+                events != null ? List.copyOf(events) : List.of(),
+                error != null ? SpanData.Status.ERROR : SpanData.Status.UNSET,
+                error != null ? error.getMessage() : null
+        );
+    }
+
+    private void addRetryEvent(int attempt) {
+        if (events == null) {
+            events = new ArrayList<>(2);
+        }
+        events.add(new SpanData.Event("retry", startEpochNanos + elapsedNanos(), Map.of("http.request.resend_count", attempt - 1)));
+    }
+
+    private long spanId() {
+        if (spanId == 0) {
+            spanId = nextId();
+        }
+        return spanId;
+    }
+
+    private long elapsedMs() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos());
+    }
+
+    private static long nextId() {
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == 0);
+        return id;
     }
 }
@@ -0,0 +1,48 @@
+package com.example.commonlib.tracing;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A finished client span, shaped after OpenTelemetry's span model so exporters can map it one to one.
+ *
+ * @param traceId        32 lowercase hex digits
+ * @param spanId         16 lowercase hex digits
+ * @param parentSpanId   the calling span, or {@code null} for a root span
+ * @param traceState     the propagated {@code tracestate}, or {@code null}
+ * @param name           the HTTP method, as the HTTP semantic conventions name client spans
+ * @param startEpochNanos start time since the epoch
+ * @param endEpochNanos  end time since the epoch
+ * @param attributes     {@code http.request.method}, {@code url.full}, {@code http.response.status_code}
+ *                       and {@code http.request.resend_count} when there were retries
+ * @param events         one {@code retry} event per retried attempt
+ * @param status         {@link Status#ERROR} when the call failed
+ * @param statusMessage  the failure message, or {@code null}
+ */
+public record SpanData(
+        String traceId,
+        String spanId,
+        String parentSpanId,
+        String traceState,
+        String name,
+        long startEpochNanos,
+        long endEpochNanos,
+        Map<String, Object> attributes,
+        List<Event> events,
+        Status status,
+        String statusMessage
+) {
+
+    public enum Status {
+        UNSET, // the call completed, without judging the response
+        ERROR  // the call failed
+    }
+
+    /**
+     * @param name       what happened, for example {@code retry}
+     * @param epochNanos when it happened
+     * @param attributes details, for example the attempt number
+     */
+    public record Event(String name, long epochNanos, Map<String, Object> attributes) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.commonlib.tracing;
+
+import java.util.List;
+
+/**
+ * Receives finished, sampled spans in batches from a {@link BatchSpanProcessor} thread, never from the
+ * thread that made the call. Implementations typically forward them to an OpenTelemetry exporter or a
+ * tracing backend.
+ */
+public interface SpanExporter {
+
+    /**
+     * Exports a batch. A failing export only loses this batch.
+     */
+    void export(List<SpanData> spans);
+
+    /**
+     * Called once after the last batch was exported.
+     */
+    default void shutdown() {
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.commonlib.tracing;
+
+import java.util.function.Supplier;
+
+/**
+ * Immutable W3C trace context: the trace a call belongs to, the span that made it and whether the trace is
+ * sampled. It is parsed from and written to the {@code traceparent} and {@code tracestate} headers.
+ * <p>
+ * The context of the current thread is what {@link RequestSpan}s started on it use as their parent.
+ * Applications that receive a {@code traceparent} make it current for the duration of the request:
+ * <pre>{@code
+ * try (TraceContext.Scope scope = TraceContext.fromHeaders(traceparent, tracestate).makeCurrent()) {
+ *     client.get(url, Customer.class);
+ * }
+ * }</pre>
+ */
+public final class TraceContext {
+
+    public static final String TRACEPARENT = "traceparent";
+    public static final String TRACESTATE = "tracestate";
+
+    private static final ThreadLocal<TraceContext> CURRENT = new ThreadLocal<>();
+    private static final String VERSION = "00";
+
+    private final long traceIdHigh;
+    private final long traceIdLow;
+    private final long spanId;
+    private final boolean sampled;
+    private final String traceState;
+
+    TraceContext(long traceIdHigh, long traceIdLow, long spanId, boolean sampled, String traceState) {
+        this.traceIdHigh = traceIdHigh;
+        this.traceIdLow = traceIdLow;
+        this.spanId = spanId;
+        this.sampled = sampled;
+        this.traceState = traceState;
+    }
+
+    /**
+     * Parses a {@code traceparent} header and its optional {@code tracestate} companion.
+     *
+     * @return the context, or {@code null} when {@code traceparent} is missing or malformed
+     */
+    public static TraceContext fromHeaders(String traceparent, String tracestate) {
+        if (traceparent == null || traceparent.length() < 55) {
+            return null;
+        }
+        String value = traceparent.trim();
+        if (value.length() < 55 || value.charAt(2) != '-' || value.charAt(35) != '-' || value.charAt(52) != '-'
+                || (value.length() > 55 && value.charAt(55) != '-')) {
+            return null;
+        }
+        String version = value.substring(0, 2);
+        if ("ff".equals(version) || (VERSION.equals(version) && value.length() != 55)) {
+            return null;
+        }
+        try {
+            long traceIdHigh = parseHex(value, 3);
+            long traceIdLow = parseHex(value, 19);
+            long spanId = parseHex(value, 36);
+            int flags = Integer.parseInt(value, 53, 55, 16);
+            if ((traceIdHigh == 0 && traceIdLow == 0) || spanId == 0) {
+                return null;
+            }
+            String state = tracestate == null || tracestate.isBlank() ? null : tracestate.trim();
+            return new TraceContext(traceIdHigh, traceIdLow, spanId, (flags & 1) != 0, state);
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the context made current on this thread, or {@code null} outside of any trace
+     */
+    public static TraceContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Makes this context the parent of spans started on this thread until the returned scope is closed,
+     * which restores the previous one.
+     */
+    public Scope makeCurrent() {
+        TraceContext previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> restore(previous);
+    }
+
+    /**
+     * Wraps {@code task} so that it runs with the current thread's context, for handing work to another thread.
+     */
+    public static <T> Supplier<T> wrap(Supplier<T> task) {
+        TraceContext context = CURRENT.get();
+        if (context == null) {
+            return task;
+        }
+        return () -> {
+            try (Scope scope = context.makeCurrent()) {
+                return task.get();
+            }
+        };
+    }
+
+    public String getTraceId() {
+        return toHex(traceIdHigh) + toHex(traceIdLow);
+    }
+
+    public String getSpanId() {
+        return toHex(spanId);
+    }
+
+    public boolean isSampled() {
+        return sampled;
+    }
+
+    public String getTraceState() {
+        return traceState;
+    }
+
+    /**
+     * @return the {@code traceparent} header value, for example
+     * {@code 00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01}
+     */
+    public String toTraceparent() {
+        return VERSION + '-' + toHex(traceIdHigh) + toHex(traceIdLow) + '-' + toHex(spanId) + (sampled ? "-01" : "-00");
+    }
+
+    long traceIdHigh() {
+        return traceIdHigh;
+    }
+
+    long traceIdLow() {
+        return traceIdLow;
+    }
+
+    long spanId() {
+        return spanId;
+    }
+
+    @Override
+    public String toString() {
+        return toTraceparent();
+    }
+
+    private static void restore(TraceContext previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    private static long parseHex(String value, int offset) {
+        for (int i = offset; i < offset + 16; i++) {
+            char c = value.charAt(i);
+            if (!(c >= '0' && c <= '9') && !(c >= 'a' && c <= 'f')) {
+                throw new NumberFormatException("Not lowercase hex: " + value);
+            }
+        }
+        return Long.parseUnsignedLong(value, offset, offset + 16, 16);
+    }
+
+    static String toHex(long id) {
+        String hex = Long.toHexString(id);
+        return hex.length() == 16 ? hex : "0".repeat(16 - hex.length()) + hex;
+    }
+
+    /**
+     * Restores the previous context when closed.
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.commonlib.client;
+
+import com.example.commonlib.config.AdaptiveLimitProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveLimiterTest {
+
+    private static final long BASE_RTT_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    /**
+     * Deterministic downstream on a virtual clock. It serves {@code capacity} calls in parallel at the base
+     * round-trip time; beyond that calls queue, so latency grows with the excess, and above
+     * {@code timeoutFactor * capacity} the calls time out. Every round sends as many calls as the limiter
+     * admits and reports them all before the next round starts.
+     */
+    private static final class SimulatedDownstream {
+        private final int capacity;
+        private final int timeoutFactor;
+        private long clock;
+
+        private SimulatedDownstream(int capacity, int timeoutFactor) {
+            this.capacity = capacity;
+            this.timeoutFactor = timeoutFactor;
+        }
+
+        private void round(AdaptiveLimiter limiter, int demand) {
+            int admitted = 0;
+            while (admitted < demand && limiter.tryAcquire()) {
+                admitted++;
+            }
+            long start = clock;
+            long rtt = BASE_RTT_NANOS * Math.max(capacity, admitted) / capacity;
+            boolean timedOut = admitted > capacity * timeoutFactor;
+            for (int i = 0; i < admitted; i++) {
+                limiter.onSample(start, start + rtt, timedOut);
+            }
+            for (int i = 0; i < admitted; i++) {
+                limiter.release();
+            }
+            clock = start + rtt;
+        }
+
+        /**
+         * @return the average limit over the last half of the rounds
+         */
+        private double run(AdaptiveLimiter limiter, int rounds, int demand) {
+            long sum = 0;
+            for (int i = 0; i < rounds; i++) {
+                round(limiter, demand);
+                if (i >= rounds / 2) {
+                    sum += limiter.getLimit();
+                }
+            }
+            return (double) sum / (rounds - rounds / 2);
+        }
+    }
+
+    private static AdaptiveLimitProperties limitProperties(AdaptiveLimitProperties.Algorithm algorithm) {
+        AdaptiveLimitProperties props = new AdaptiveLimitProperties();
+        props.setAlgorithm(algorithm);
+        props.setInitialLimit(10);
+        props.setMaxLimit(1000);
+        return props;
+    }
+
+    @Test
+    void testAdmitsUpToLimit() {
+        AdaptiveLimitProperties props = limitProperties(AdaptiveLimitProperties.Algorithm.AIMD);
+        props.setInitialLimit(2);
+        AdaptiveLimiter limiter = new AdaptiveLimiter(props);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+
+        limiter.release();
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void testAimdDecreasesOncePerWindowOnOverload() {
+        AdaptiveLimitProperties props = limitProperties(AdaptiveLimitProperties.Algorithm.AIMD);
+        props.setInitialLimit(100);
+        AdaptiveLimiter limiter = new AdaptiveLimiter(props);
+
+        // Every call of the same window times out, yet the limit is only cut once
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample(0, 1000, true);
+        }
+        assertEquals(90, limiter.getLimit());
+
+        limiter.onSample(1000, 2000, true);
+        assertEquals(81, limiter.getLimit());
+    }
+
+    @Test
+    void testAimdSettlesBelowLatencyThreshold() {
+        AdaptiveLimitProperties props = limitProperties(AdaptiveLimitProperties.Algorithm.AIMD);
+        props.setLatencyThresholdMs(30);
+        AdaptiveLimiter limiter = new AdaptiveLimiter(props);
+
+        // Latency passes 30ms once more than 1.5x capacity is in flight
+        double average = new SimulatedDownstream(50, 4).run(limiter, 2000, 1000);
+
+        assertTrue(average > 50 && average <= 75, "Average limit " + average);
+    }
+
+    @Test
+    void testAimdBacksOffOnTimeouts() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(limitProperties(AdaptiveLimitProperties.Algorithm.AIMD));
+
+        double average = new SimulatedDownstream(50, 2).run(limiter, 2000, 1000);
+
+        assertTrue(average > 50 && average <= 100, "Average limit " + average);
+    }
+
+    @Test
+    void testGradientTracksCapacity() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(limitProperties(AdaptiveLimitProperties.Algorithm.GRADIENT));
+
+        double average = new SimulatedDownstream(50, 4).run(limiter, 500, 1000);
+
+        // Queueing up to rttTolerance (1.5) times the base latency, plus the probing headroom
+        assertTrue(average > 50 && average < 100, "Average limit " + average);
+    }
+
+    @Test
+    void testGradientFollowsCapacityDrop() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(limitProperties(AdaptiveLimitProperties.Algorithm.GRADIENT));
+        new SimulatedDownstream(100, 4).run(limiter, 500, 1000);
+        int before = limiter.getLimit();
+
+        double average = new SimulatedDownstream(20, 4).run(limiter, 500, 1000);
+
+        assertTrue(before > 100, "Limit before " + before);
+        assertTrue(average > 20 && average < 50, "Average limit " + average);
+    }
+
+    @Test
+    void testGradientDoesNotGrowWhileUnderused() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(limitProperties(AdaptiveLimitProperties.Algorithm.GRADIENT));
+
+        new SimulatedDownstream(50, 4).run(limiter, 500, 3);
+
+        assertEquals(10, limiter.getLimit());
+    }
+}
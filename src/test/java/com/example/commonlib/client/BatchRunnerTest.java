@@ -0,0 +1,62 @@
+package com.example.commonlib.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchRunnerTest {
+
+    @Test
+    void testKeepsAtMostWindowCallsInFlightAndPreservesOrder() throws Exception {
+        List<Integer> items = IntStream.range(0, 20).boxed().toList();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        List<BatchResult<String>> results = BatchRunner.run(items, 3, item -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            // Later items finish first so completion order differs from item order
+            return CompletableFuture.supplyAsync(() -> {
+                inFlight.decrementAndGet();
+                return "item" + item;
+            }, CompletableFuture.delayedExecutor(20 - item, TimeUnit.MILLISECONDS));
+        }).get(5, TimeUnit.SECONDS);
+
+        assertEquals(3, maxInFlight.get());
+        List<String> values = new ArrayList<>();
+        results.forEach(result -> values.add(result.getOrThrow()));
+        assertEquals(items.stream().map(item -> "item" + item).toList(), values);
+    }
+
+    @Test
+    void testReportsFailuresPerItem() throws Exception {
+        IllegalStateException failure = new IllegalStateException("down");
+
+        List<BatchResult<Integer>> results = BatchRunner.run(List.of(1, 2, 3, 4), 2, item -> {
+            if (item == 2) {
+                throw failure;
+            }
+            return item == 3 ? CompletableFuture.failedFuture(failure) : CompletableFuture.completedFuture(item);
+        }).get(5, TimeUnit.SECONDS);
+
+        assertTrue(results.get(0).isSuccess());
+        assertSame(failure, results.get(1).error());
+        assertSame(failure, results.get(2).error());
+        assertEquals(4, results.get(3).getOrThrow());
+        assertFalse(results.get(2).isSuccess());
+    }
+
+    @Test
+    void testCompletesRightAwayForNoItems() {
+        assertTrue(BatchRunner.run(List.<String>of(), 4, CompletableFuture::completedFuture).join().isEmpty());
+    }
+}
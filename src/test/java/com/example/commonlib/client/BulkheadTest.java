@@ -0,0 +1,85 @@
+package com.example.commonlib.client;
+
+import com.example.commonlib.config.BulkheadProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkheadTest {
+
+    private static Bulkhead bulkhead(int maxConcurrentCalls, int maxWaitQueue, long maxWaitMs) {
+        BulkheadProperties props = new BulkheadProperties();
+        props.setMaxConcurrentCalls(maxConcurrentCalls);
+        props.setMaxWaitQueue(maxWaitQueue);
+        props.setMaxWaitMs(maxWaitMs);
+        return new Bulkhead(props);
+    }
+
+    @Test
+    void testRejectsImmediatelyWithoutQueue() throws InterruptedException {
+        Bulkhead bulkhead = bulkhead(2, 0, 1000);
+
+        assertTrue(bulkhead.acquire());
+        assertTrue(bulkhead.tryAcquire());
+        assertEquals(2, bulkhead.getInFlight());
+
+        long start = System.nanoTime();
+        assertFalse(bulkhead.acquire());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 500, "Should not wait");
+
+        bulkhead.release();
+        assertTrue(bulkhead.tryAcquire());
+    }
+
+    @Test
+    void testQueuedCallGetsReleasedSlot() throws Exception {
+        Bulkhead bulkhead = bulkhead(1, 1, 2000);
+        assertTrue(bulkhead.acquire());
+
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> {
+            try {
+                return bulkhead.acquire();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (bulkhead.getQueued() == 0) {
+            Thread.onSpinWait();
+        }
+
+        bulkhead.release();
+        assertTrue(queued.get(2, TimeUnit.SECONDS));
+        assertEquals(0, bulkhead.getQueued());
+        assertEquals(1, bulkhead.getInFlight());
+    }
+
+    @Test
+    void testFullQueueRejectsAndQueuedCallTimesOut() throws Exception {
+        Bulkhead bulkhead = bulkhead(1, 1, 300);
+        assertTrue(bulkhead.acquire());
+
+        long start = System.nanoTime();
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> {
+            try {
+                return bulkhead.acquire();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (bulkhead.getQueued() == 0) {
+            Thread.onSpinWait();
+        }
+
+        // The only queue slot is taken, so this one is turned away without waiting
+        assertFalse(bulkhead.acquire());
+
+        assertFalse(queued.get(2, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 300, "Should wait for max-wait-ms");
+        assertEquals(0, bulkhead.getQueued());
+    }
+}
@@ -0,0 +1,262 @@
+package com.example.commonlib.client;
+
+import com.example.commonlib.config.CircuitBreakerProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    private static CircuitBreakerProperties slidingWindow(CircuitBreakerProperties.Mode mode) {
+        CircuitBreakerProperties props = new CircuitBreakerProperties();
+        props.setMode(mode);
+        props.setWindowSize(10);
+        props.setWindowDurationMs(300);
+        props.setBucketCount(5);
+        props.setMinimumNumberOfCalls(10);
+        props.setFailureRateThreshold(50.0);
+        props.setOpenDurationMs(1000);
+        return props;
+    }
+
+    @Test
+    void testConsecutiveModeResetsOnSuccess() {
+        CircuitBreakerProperties props = new CircuitBreakerProperties();
+        props.setFailureThreshold(3);
+        CircuitBreaker breaker = new CircuitBreaker(props);
+
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    void testCountBasedTripsOnFailureRateNotOnStreak() {
+        CircuitBreaker breaker = new CircuitBreaker(slidingWindow(CircuitBreakerProperties.Mode.COUNT_BASED));
+
+        // Alternating outcomes never build a streak, but reach the 50% rate once 10 calls are in
+        for (int i = 0; i < 9; i++) {
+            if (i % 2 == 0) {
+                breaker.recordFailure();
+            } else {
+                breaker.recordSuccess();
+            }
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(), "Below minimum number of calls");
+
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void testCountBasedStaysClosedBelowThreshold() {
+        CircuitBreaker breaker = new CircuitBreaker(slidingWindow(CircuitBreakerProperties.Mode.COUNT_BASED));
+
+        for (int i = 0; i < 100; i++) {
+            if (i % 4 == 0) {
+                breaker.recordFailure();
+            } else {
+                breaker.recordSuccess();
+            }
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void testTimeBasedWindowForgetsOldFailures() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker(slidingWindow(CircuitBreakerProperties.Mode.TIME_BASED));
+
+        for (int i = 0; i < 9; i++) {
+            breaker.recordFailure();
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        // Let the whole window slide past the earlier failures
+        Thread.sleep(400);
+
+        for (int i = 0; i < 9; i++) {
+            breaker.recordSuccess();
+        }
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void testHalfOpenClosesOnSuccess() throws InterruptedException {
+        CircuitBreakerProperties props = slidingWindow(CircuitBreakerProperties.Mode.COUNT_BASED);
+        props.setOpenDurationMs(50);
+        CircuitBreaker breaker = new CircuitBreaker(props);
+
+        for (int i = 0; i < 10; i++) {
+            breaker.recordFailure();
+        }
+        assertFalse(breaker.allowRequest());
+
+        Thread.sleep(80);
+        assertTrue(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        breaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        // The window is reset when closing, so a single failure does not re-trip it
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void testConcurrentRecordingLosesNoOutcomes() throws InterruptedException {
+        CircuitBreakerProperties props = slidingWindow(CircuitBreakerProperties.Mode.COUNT_BASED);
+        int threads = 16;
+        int callsPerThread = 1000;
+        props.setWindowSize(threads * callsPerThread);
+        props.setBucketCount(1);
+        props.setMinimumNumberOfCalls(threads * callsPerThread);
+        props.setFailureRateThreshold(100.0);
+        CircuitBreaker breaker = new CircuitBreaker(props);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int i = 0; i < callsPerThread; i++) {
+                    breaker.recordFailure();
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Only trips when every one of the concurrent failures has been counted
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private static CircuitBreaker openBreaker(int permittedCalls, double successRatio) throws InterruptedException {
+        CircuitBreakerProperties props = new CircuitBreakerProperties();
+        props.setFailureThreshold(1);
+        props.setOpenDurationMs(300);
+        props.setPermittedCallsInHalfOpen(permittedCalls);
+        props.setHalfOpenSuccessRatio(successRatio);
+        CircuitBreaker breaker = new CircuitBreaker(props);
+
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        Thread.sleep(350);
+        return breaker;
+    }
+
+    @Test
+    void testHalfOpenLetsThroughOnlyPermittedProbesUnderContention() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker(3, 1.0);
+
+        int threads = 64;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger allowed = new AtomicInteger();
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int i = 0; i < 100; i++) {
+                    if (breaker.allowRequest()) {
+                        allowed.incrementAndGet();
+                    }
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(3, allowed.get(), "Only the permitted probe calls may pass");
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+
+    @Test
+    void testHalfOpenClosesOnlyWhenSuccessRatioIsMet() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker(4, 0.75);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(breaker.allowRequest());
+        }
+        assertFalse(breaker.allowRequest());
+
+        breaker.recordSuccess();
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        breaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void testHalfOpenReopensWhenSuccessRatioIsOutOfReach() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker(4, 0.75);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(breaker.allowRequest());
+        }
+
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    void testOutcomeOfCallAdmittedBeforeTripDoesNotCountAsProbe() throws InterruptedException {
+        CircuitBreakerProperties props = new CircuitBreakerProperties();
+        props.setFailureThreshold(1);
+        props.setOpenDurationMs(300);
+        props.setPermittedCallsInHalfOpen(1);
+        CircuitBreaker breaker = new CircuitBreaker(props);
+
+        CircuitBreaker.Permit slowCall = breaker.tryAcquire();
+        breaker.recordFailure(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertNull(breaker.tryAcquire());
+        Thread.sleep(350);
+
+        CircuitBreaker.Permit probe = breaker.tryAcquire();
+        assertNotNull(probe);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        // The slow call finishes while half-open, but was admitted while closed
+        breaker.recordSuccess(slowCall);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState(), "Only the probe may close the breaker");
+
+        breaker.recordFailure(probe);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        // Nor may anything reported against the half-open period once it has ended
+        breaker.recordSuccess(probe);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+}
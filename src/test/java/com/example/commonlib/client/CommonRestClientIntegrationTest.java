@@ -1,19 +1,61 @@
 package com.example.commonlib.client;
 
+import com.example.commonlib.config.AdaptiveLimitProperties;
+import com.example.commonlib.config.BulkheadProperties;
+import com.example.commonlib.config.CacheProperties;
 import com.example.commonlib.config.CircuitBreakerProperties;
+import com.example.commonlib.config.CompressionProperties;
+import com.example.commonlib.config.HedgeProperties;
 import com.example.commonlib.config.RestClientProperties;
 import com.example.commonlib.config.RetryProperties;
+import com.example.commonlib.config.RouteProperties;
+import com.example.commonlib.config.TransportProperties;
+import com.example.commonlib.exception.BulkheadFullException;
+import com.example.commonlib.exception.ConcurrencyLimitExceededException;
+import com.example.commonlib.exception.InternalServerErrorException;
+import com.example.commonlib.exception.NotFoundException;
 import com.example.commonlib.exception.RemoteServiceException;
+import com.example.commonlib.tracing.InMemorySpanExporter;
+import com.example.commonlib.tracing.SpanData;
+import com.example.commonlib.tracing.TraceContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.GzipSource;
+import okio.Okio;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestClientException;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -147,4 +189,697 @@ class CommonRestClientIntegrationTest {
 
         assertEquals("Hello World", response);
     }
+
+    @Test
+    void testAsyncGetRetriesAndRecovers() throws Exception {
+        mockServer.enqueue(new MockResponse().setResponseCode(500));
+        mockServer.enqueue(new MockResponse().setBody("Recovered!").setResponseCode(200));
+
+        String url = mockServer.url("/async-retry").toString();
+
+        assertEquals("Recovered!", client.getAsync(url, String.class).get(5, TimeUnit.SECONDS));
+        assertEquals(2, mockServer.getRequestCount());
+    }
+
+    @Test
+    void testAsyncPostMapsErrorStatus() {
+        // Like the blocking path, every failed attempt is retried
+        for (int i = 0; i < 3; i++) {
+            mockServer.enqueue(new MockResponse().setBody("missing").setResponseCode(404));
+        }
+
+        String url = mockServer.url("/async-missing").toString();
+
+        CompletableFuture<String> result = client.postAsync(url, "Test Request", String.class);
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        NotFoundException notFound = assertInstanceOf(NotFoundException.class, ex.getCause());
+        assertEquals(404, notFound.getErrorResponse().getStatus());
+    }
+
+    @Test
+    void testAsyncFanOutRunsConcurrently() throws Exception {
+        int calls = 10;
+        for (int i = 0; i < calls; i++) {
+            mockServer.enqueue(new MockResponse()
+                    .setBody("part " + i)
+                    .setResponseCode(200)
+                    .setHeadersDelay(300, TimeUnit.MILLISECONDS));
+        }
+
+        String url = mockServer.url("/fan-out").toString();
+
+        long start = System.nanoTime();
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < calls; i++) {
+            results.add(client.getAsync(url, String.class));
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Ten sequential calls would take at least three seconds
+        assertTrue(elapsedMs < 1500, "Fan-out took " + elapsedMs + "ms");
+        assertEquals(calls, mockServer.getRequestCount());
+    }
+
+    @Test
+    void testBulkheadRejectsCallsBeyondLimit() throws Exception {
+        RestClientProperties props = new RestClientProperties();
+        props.setReadTimeout(2000);
+        BulkheadProperties bulkheadProps = new BulkheadProperties();
+        bulkheadProps.setMaxConcurrentCalls(2);
+        props.setBulkhead(bulkheadProps);
+        CircuitBreakerProperties cbProps = new CircuitBreakerProperties();
+        cbProps.setFailureThreshold(1);
+        props.setCircuitBreaker(cbProps);
+
+        for (int i = 0; i < 3; i++) {
+            mockServer.enqueue(new MockResponse()
+                    .setBody("slow")
+                    .setResponseCode(200)
+                    .setHeadersDelay(500, TimeUnit.MILLISECONDS));
+        }
+        String url = mockServer.url("/bulkhead").toString();
+
+        try (CommonRestClient limited = new CommonRestClient(props)) {
+            CompletableFuture<String> first = limited.getAsync(url, String.class);
+            CompletableFuture<String> second = limited.getAsync(url, String.class);
+
+            RemoteServiceException rejected = assertThrows(BulkheadFullException.class,
+                    () -> limited.get(url, String.class));
+            assertEquals(429, rejected.getErrorResponse().getStatus());
+
+            assertEquals("slow", first.get(5, TimeUnit.SECONDS));
+            assertEquals("slow", second.get(5, TimeUnit.SECONDS));
+
+            // The rejection neither reached the server nor counted as a failure of the downstream
+            assertEquals("slow", limited.get(url, String.class));
+            assertEquals(3, mockServer.getRequestCount());
+        }
+    }
+
+    @Test
+    void testAdaptiveLimiterTracksDownstream() throws Exception {
+        RestClientProperties props = new RestClientProperties();
+        AdaptiveLimitProperties limitProps = new AdaptiveLimitProperties();
+        limitProps.setInitialLimit(1);
+        props.setAdaptiveLimit(limitProps);
+
+        mockServer.enqueue(new MockResponse()
+                .setBody("slow")
+                .setResponseCode(200)
+                .setHeadersDelay(500, TimeUnit.MILLISECONDS));
+        mockServer.enqueue(new MockResponse().setBody("fast").setResponseCode(200));
+        String url = mockServer.url("/limited").toString();
+
+        try (CommonRestClient limited = new CommonRestClient(props)) {
+            CompletableFuture<String> first = limited.getAsync(url, String.class);
+
+            RemoteServiceException rejected = assertThrows(ConcurrencyLimitExceededException.class,
+                    () -> limited.get(url, String.class));
+            assertEquals(429, rejected.getErrorResponse().getStatus());
+            assertEquals("slow", first.get(5, TimeUnit.SECONDS));
+
+            Map<String, AdaptiveLimiter> limiters = limited.getAdaptiveLimiters();
+            AdaptiveLimiter limiter = limiters.get(mockServer.getHostName() + ":" + mockServer.getPort());
+            assertEquals(0, limiter.getInFlight());
+            // A full window of successful calls, here the single one, raises the limit by one
+            assertEquals(2, limiter.getLimit());
+
+            assertEquals("fast", limited.get(url, String.class));
+        }
+    }
+
+    @Test
+    void testPropagatesTraceContextAndExportsSpan() throws Exception {
+        RestClientProperties props = new RestClientProperties();
+        RetryProperties retryProps = new RetryProperties();
+        retryProps.setMaxAttempts(2);
+        retryProps.setBaseDelayMs(10);
+        props.setRetry(retryProps);
+        props.getTracing().setExportIntervalMs(50);
+
+        mockServer.enqueue(new MockResponse().setResponseCode(503));
+        mockServer.enqueue(new MockResponse().setBody("traced").setResponseCode(200));
+        String url = mockServer.url("/traced").toString();
+        TraceContext parent = TraceContext.fromHeaders(
+                "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01", "congo=t61rcWkgMzE");
+
+        InMemorySpanExporter exporter = new InMemorySpanExporter();
+        try (CommonRestClient traced = new CommonRestClient(props, new ObjectMapper(), ClientMetrics.NOOP, exporter);
+             TraceContext.Scope scope = parent.makeCurrent()) {
+            assertEquals("traced", traced.get(url, String.class));
+        }
+
+        RecordedRequest failed = mockServer.takeRequest();
+        RecordedRequest retried = mockServer.takeRequest();
+        String traceparent = retried.getHeader("traceparent");
+        assertEquals(failed.getHeader("traceparent"), traceparent);
+        assertTrue(traceparent.startsWith("00-4bf92f3577b34da6a3ce929d0e0e4736-"));
+        assertEquals("congo=t61rcWkgMzE", retried.getHeader("tracestate"));
+
+        assertTrue(exporter.isShutdown());
+        List<SpanData> spans = exporter.getFinishedSpans();
+        assertEquals(1, spans.size());
+        SpanData span = spans.get(0);
+        assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", span.traceId());
+        assertEquals("00f067aa0ba902b7", span.parentSpanId());
+        assertTrue(traceparent.contains("-" + span.spanId() + "-"));
+        assertEquals("GET", span.name());
+        assertEquals(200, span.attributes().get("http.response.status_code"));
+        assertEquals(1, span.events().size());
+        assertEquals("retry", span.events().get(0).name());
+        assertEquals(SpanData.Status.UNSET, span.status());
+    }
+
+    @Test
+    void testCacheServesFreshResponsesAndRevalidatesStaleOnes() throws Exception {
+        RestClientProperties props = new RestClientProperties();
+        props.setCache(new CacheProperties());
+        RouteProperties shortLived = new RouteProperties();
+        shortLived.setPathPrefix("/short");
+        shortLived.setCacheTtlMs(1L);
+        props.getRoutes().put("short", shortLived);
+
+        mockServer.enqueue(new MockResponse()
+                .setBody("{\"name\":\"fresh\"}")
+                .setHeader("Content-Type", "application/json")
+                .setHeader("Cache-Control", "max-age=60"));
+        mockServer.enqueue(new MockResponse()
+                .setBody("etagged")
+                .setHeader("Cache-Control", "max-age=60")
+                .setHeader("ETag", "\"v1\""));
+        mockServer.enqueue(new MockResponse().setResponseCode(304));
+        String freshUrl = mockServer.url("/fresh").toString();
+        String shortUrl = mockServer.url("/short").toString();
+
+        try (CommonRestClient cached = new CommonRestClient(props)) {
+            Map<?, ?> first = cached.get(freshUrl, Map.class);
+            assertSame(first, cached.get(freshUrl, Map.class));
+            assertEquals(1, mockServer.getRequestCount());
+
+            assertEquals("etagged", cached.get(shortUrl, String.class));
+            Thread.sleep(5);
+            assertEquals("etagged", cached.get(shortUrl, String.class));
+        }
+
+        mockServer.takeRequest();
+        assertNull(mockServer.takeRequest().getHeader("If-None-Match"));
+        assertEquals("\"v1\"", mockServer.takeRequest().getHeader("If-None-Match"));
+        assertEquals(3, mockServer.getRequestCount());
+    }
+
+    @Test
+    void testCacheWeighsChunkedBodiesByBytesRead() throws Exception {
+        RestClientProperties props = new RestClientProperties();
+        CacheProperties cacheProps = new CacheProperties();
+        cacheProps.setMaxWeightBytes(1500);
+        props.setCache(cacheProps);
+
+        String large = "x".repeat(2000);
+        String small = "y".repeat(500);
+        for (String body : List.of(large, large, small)) {
+            mockServer.enqueue(new MockResponse()
+                    .setChunkedBody(body, 256)
+                    .setHeader("Cache-Control", "max-age=60"));
+        }
+        String largeUrl = mockServer.url("/large").toString();
+        String smallUrl = mockServer.url("/small").toString();
+
+        try (CommonRestClient cached = new CommonRestClient(props)) {
+            // Without a Content-Length the body only fits the cache if it is weighed by what was read
+            assertEquals(large, cached.get(largeUrl, String.class));
+            assertEquals(large, cached.get(largeUrl, String.class));
+            assertEquals(2, mockServer.getRequestCount());
+
+            assertEquals(small, cached.get(smallUrl, String.class));
+            assertEquals(small, cached.get(smallUrl, String.class));
+            assertEquals(3, mockServer.getRequestCount());
+        }
+    }
+
+    @Test
+    void testSingleFlightSendsOneRequestForConcurrentGets() throws Exception {
+        RestClientProperties props = new RestClientProperties();
+        props.setSingleFlight(true);
+
+        mockServer.enqueue(new MockResponse()
+                .setBody("shared")
+                .setResponseCode(200)
+                .setHeadersDelay(500, TimeUnit.MILLISECONDS));
+        mockServer.enqueue(new MockResponse().setBody("next").setResponseCode(200));
+        String url = mockServer.url("/hot").toString();
+
+        int callers = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try (CommonRestClient coalescing = new CommonRestClient(props)) {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return coalescing.get(url, String.class);
+                }));
+            }
+            start.countDown();
+            for (Future<String> result : results) {
+                assertEquals("shared", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, mockServer.getRequestCount());
+
+            assertEquals("next", coalescing.get(url, String.class));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testStaleWhileRevalidateServesStaleAndRefreshesInBackground() throws Exception {
+        RestClientProperties props = new RestClientProperties();
+        CacheProperties cacheProps = new CacheProperties();
+        cacheProps.setStaleWhileRevalidateMs(60000);
+        props.setCache(cacheProps);
+
+        mockServer.enqueue(new MockResponse().setBody("v1").setHeader("Cache-Control", "max-age=0"));
+        mockServer.enqueue(new MockResponse()
+                .setBody("v2")
+                .setHeader("Cache-Control", "max-age=60")
+                .setHeadersDelay(300, TimeUnit.MILLISECONDS));
+        String url = mockServer.url("/reference").toString();
+
+        try (CommonRestClient cached = new CommonRestClient(props)) {
+            assertEquals("v1", cached.get(url, String.class));
+
+            long start = System.nanoTime();
+            assertEquals("v1", cached.get(url, String.class));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 300);
+
+            mockServer.takeRequest();
+            mockServer.takeRequest(5, TimeUnit.SECONDS);
+            long deadline = System.currentTimeMillis() + 5000;
+            String body;
+            do {
+                Thread.sleep(20);
+                body = cached.get(url, String.class);
+            } while (!"v2".equals(body) && System.currentTimeMillis() < deadline);
+            assertEquals("v2", body);
+            assertEquals(2, mockServer.getRequestCount());
+        }
+    }
+
+    @Test
+    void testStaleIfErrorServesLastKnownGoodResponse() throws Exception {
+        RestClientProperties props = new RestClientProperties();
+        CacheProperties cacheProps = new CacheProperties();
+        cacheProps.setStaleIfErrorMs(60000);
+        props.setCache(cacheProps);
+        CircuitBreakerProperties cbProps = new CircuitBreakerProperties();
+        cbProps.setFailureThreshold(1);
+        cbProps.setOpenDurationMs(60000);
+        props.setCircuitBreaker(cbProps);
+
+        mockServer.enqueue(new MockResponse().setBody("good").setHeader("Cache-Control", "max-age=0"));
+        mockServer.enqueue(new MockResponse().setResponseCode(500));
+        String url = mockServer.url("/prices").toString();
+
+        try (CommonRestClient cached = new CommonRestClient(props)) {
+            assertEquals("good", cached.get(url, String.class));
+            // The 500 opens the circuit, and the open circuit is answered from the stale entry too
+            assertEquals("good", cached.get(url, String.class));
+            assertEquals("good", cached.get(url, String.class));
+            assertEquals(2, mockServer.getRequestCount());
+
+            RemoteServiceException uncached = assertThrows(RemoteServiceException.class,
+                    () -> cached.get(mockServer.url("/other").toString(), String.class));
+            assertEquals(503, uncached.getErrorResponse().getStatus());
+        }
+    }
+
+    @Test
+    void testStaleIfErrorCoversBulkheadRejectionsButNotDownstream429() throws Exception {
+        RestClientProperties props = new RestClientProperties();
+        props.setReadTimeout(2000);
+        CacheProperties cacheProps = new CacheProperties();
+        cacheProps.setStaleIfErrorMs(60000);
+        props.setCache(cacheProps);
+        BulkheadProperties bulkheadProps = new BulkheadProperties();
+        bulkheadProps.setMaxConcurrentCalls(1);
+        bulkheadProps.setMaxWaitQueue(0);
+        props.setBulkhead(bulkheadProps);
+
+        mockServer.enqueue(new MockResponse().setBody("good").setHeader("Cache-Control", "max-age=0"));
+        mockServer.enqueue(new MockResponse().setResponseCode(429));
+        mockServer.enqueue(new MockResponse().setBody("slow").setHeadersDelay(500, TimeUnit.MILLISECONDS));
+        String url = mockServer.url("/rates").toString();
+
+        try (CommonRestClient cached = new CommonRestClient(props)) {
+            assertEquals("good", cached.get(url, String.class));
+
+            RemoteServiceException throttled = assertThrows(RemoteServiceException.class,
+                    () -> cached.get(url, String.class));
+            assertEquals(429, throttled.getErrorResponse().getStatus());
+
+            CompletableFuture<String> holder = cached.getAsync(url, String.class);
+            assertEquals("good", cached.get(url, String.class));
+            assertEquals("slow", holder.get(5, TimeUnit.SECONDS));
+            assertEquals(3, mockServer.getRequestCount());
+        }
+    }
+
+    @Test
+    void testHedgedGetReturnsFirstResponse() throws Exception {
+        RestClientProperties props = new RestClientProperties();
+        HedgeProperties hedgeProps = new HedgeProperties();
+        hedgeProps.setDelayMs(100);
+        props.setHedge(hedgeProps);
+
+        mockServer.enqueue(new MockResponse().setBody("slow").setHeadersDelay(2, TimeUnit.SECONDS));
+        mockServer.enqueue(new MockResponse().setBody("fast"));
+        String url = mockServer.url("/quotes").toString();
+
+        try (CommonRestClient hedged = new CommonRestClient(props)) {
+            long start = System.nanoTime();
+            assertEquals("fast", hedged.get(url, String.class));
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+            assertEquals(2, mockServer.getRequestCount());
+        }
+    }
+
+    @Test
+    void testGetStreamReadsArrayElementsIncrementally() {
+        mockServer.enqueue(new MockResponse()
+                .setBody("[{\"name\":\"a\"},{\"name\":\"b\"},{\"name\":\"c\"}]")
+                .addHeader("Content-Type", "application/json"));
+
+        try (Stream<Map> items = client.getStream(mockServer.url("/export").toString(), Map.class)) {
+            assertEquals(List.of("a", "b", "c"), items.map(item -> item.get("name")).toList());
+        }
+    }
+
+    @Test
+    void testGetStreamMapsErrors() throws Exception {
+        try (CommonRestClient streaming = new CommonRestClient(new RestClientProperties())) {
+            mockServer.enqueue(new MockResponse().setResponseCode(404).setBody("missing"));
+            assertThrows(NotFoundException.class,
+                    () -> streaming.getStream(mockServer.url("/export").toString(), Map.class));
+
+            mockServer.enqueue(new MockResponse().setBody("[{\"name\":\"a\"},{\"na"));
+            try (Stream<Map> items = streaming.getStream(mockServer.url("/export").toString(), Map.class)) {
+                RemoteServiceException ex = assertThrows(RemoteServiceException.class, items::toList);
+                assertEquals(500, ex.getErrorResponse().getStatus());
+            }
+        }
+    }
+
+    @Test
+    void testGetStreamMappingErrorsDoNotCountAgainstTheDownstream() throws Exception {
+        RestClientProperties props = new RestClientProperties();
+        CircuitBreakerProperties cbProps = new CircuitBreakerProperties();
+        cbProps.setFailureThreshold(1);
+        props.setCircuitBreaker(cbProps);
+        String url = mockServer.url("/export").toString();
+
+        try (CommonRestClient streaming = new CommonRestClient(props)) {
+            mockServer.enqueue(new MockResponse().setBody("[1,{\"name\":\"a\"}]"));
+            try (Stream<Integer> items = streaming.getStream(url, Integer.class)) {
+                RestClientException ex = assertThrows(RestClientException.class, items::toList);
+                assertInstanceOf(MismatchedInputException.class, ex.getCause());
+            }
+
+            // The element type was the caller's mistake, so the breaker is still closed
+            mockServer.enqueue(new MockResponse().setBody("[1,2]"));
+            try (Stream<Integer> items = streaming.getStream(url, Integer.class)) {
+                assertEquals(List.of(1, 2), items.toList());
+            }
+        }
+    }
+
+    @Test
+    void testGetStreamHoldsItsBulkheadSlotUntilClosed() throws Exception {
+        RestClientProperties props = new RestClientProperties();
+        BulkheadProperties bulkheadProps = new BulkheadProperties();
+        bulkheadProps.setMaxConcurrentCalls(1);
+        bulkheadProps.setMaxWaitQueue(0);
+        props.setBulkhead(bulkheadProps);
+        String url = mockServer.url("/export").toString();
+
+        mockServer.enqueue(new MockResponse().setBody("[{\"name\":\"a\"},{\"name\":\"b\"}]"));
+        mockServer.enqueue(new MockResponse().setBody("[]"));
+
+        try (CommonRestClient streaming = new CommonRestClient(props)) {
+            Stream<Map> items = streaming.getStream(url, Map.class);
+            assertThrows(BulkheadFullException.class, () -> streaming.getStream(url, Map.class));
+
+            items.close();
+            try (Stream<Map> next = streaming.getStream(url, Map.class)) {
+                assertEquals(0, next.count());
+            }
+            assertEquals(2, mockServer.getRequestCount());
+        }
+    }
+
+    @Test
+    void testStreamedUploadsAreChunkedAndOnlyReplayableOnesRetried() throws Exception {
+        mockServer.enqueue(new MockResponse().setBody("stored"));
+        String url = mockServer.url("/uploads").toString();
+        RequestBody ndjson = RequestBody.of(new ByteArrayInputStream("{\"id\":1}\n{\"id\":2}\n".getBytes()))
+                .withContentType(MediaType.parseMediaType("application/x-ndjson"));
+
+        assertEquals("stored", client.post(url, ndjson, String.class));
+        RecordedRequest upload = mockServer.takeRequest();
+        assertEquals("chunked", upload.getHeader("Transfer-Encoding"));
+        assertEquals("application/x-ndjson", upload.getHeader("Content-Type"));
+        assertEquals("{\"id\":1}\n{\"id\":2}\n", upload.getBody().readUtf8());
+
+        // A stream that was already sent cannot be retried
+        mockServer.enqueue(new MockResponse().setResponseCode(500));
+        RequestBody once = RequestBody.of(new ByteArrayInputStream("once".getBytes()));
+        assertThrows(InternalServerErrorException.class, () -> client.put(url, once, String.class));
+        assertEquals(2, mockServer.getRequestCount());
+
+        mockServer.enqueue(new MockResponse().setResponseCode(500));
+        mockServer.enqueue(new MockResponse().setBody("replayed"));
+        RequestBody buffer = RequestBody.of(ByteBuffer.wrap("again".getBytes()));
+        assertEquals("replayed", client.put(url, buffer, String.class));
+        mockServer.takeRequest();
+        mockServer.takeRequest();
+        RecordedRequest replay = mockServer.takeRequest();
+        assertEquals("5", replay.getHeader("Content-Length"));
+        assertEquals("again", replay.getBody().readUtf8());
+    }
+
+    @Test
+    void testCompressesLargeBodiesAndDecodesResponses() throws Exception {
+        String large = "{\"line\":\"" + "x".repeat(4096) + "\"}";
+        Buffer gzipped = new Buffer();
+        try (BufferedSink sink = Okio.buffer(new GzipSink(gzipped))) {
+            sink.writeUtf8("compressed response");
+        }
+
+        for (TransportProperties.Type type : TransportProperties.Type.values()) {
+            RestClientProperties props = new RestClientProperties();
+            props.getTransport().setType(type);
+            props.setCompression(new CompressionProperties());
+
+            try (CommonRestClient compressing = new CommonRestClient(props)) {
+                String url = mockServer.url("/bulk").toString();
+                mockServer.enqueue(new MockResponse().setBody(gzipped.clone()).setHeader("Content-Encoding", "gzip"));
+                mockServer.enqueue(new MockResponse().setBody("small"));
+                mockServer.enqueue(new MockResponse().setBody(gzipped.clone()).setHeader("Content-Encoding", "gzip"));
+
+                assertEquals("compressed response", compressing.post(url, large, String.class), type.name());
+                RecordedRequest compressed = mockServer.takeRequest();
+                assertEquals("gzip", compressed.getHeader("Content-Encoding"));
+                assertTrue(compressed.getHeader("Accept-Encoding").contains("gzip"));
+                assertEquals(large, Okio.buffer(new GzipSource(compressed.getBody())).readUtf8());
+
+                assertEquals("small", compressing.post(url, "{}", String.class));
+                RecordedRequest small = mockServer.takeRequest();
+                assertNull(small.getHeader("Content-Encoding"));
+                assertEquals("{}", small.getBody().readUtf8());
+
+                assertEquals("compressed response",
+                        compressing.postAsync(url, large, String.class).get(5, TimeUnit.SECONDS));
+                RecordedRequest async = mockServer.takeRequest();
+                assertEquals("gzip", async.getHeader("Content-Encoding"));
+                assertEquals(large, Okio.buffer(new GzipSource(async.getBody())).readUtf8());
+            }
+        }
+    }
+
+    @Test
+    void testGetAllReportsFailuresPerItemInOrder() throws Exception {
+        mockServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return request.getPath().endsWith("/2")
+                        ? new MockResponse().setResponseCode(404).setBody("missing")
+                        : new MockResponse().setBody("item" + request.getPath().substring(request.getPath().length() - 1));
+            }
+        });
+        try (CommonRestClient batching = new CommonRestClient(new RestClientProperties())) {
+            List<String> urls = List.of(mockServer.url("/items/1").toString(), mockServer.url("/items/2").toString(),
+                    mockServer.url("/items/3").toString());
+
+            List<BatchResult<String>> results = batching.getAll(urls, String.class, 2);
+
+            assertEquals("item1", results.get(0).getOrThrow());
+            assertInstanceOf(NotFoundException.class, results.get(1).error());
+            assertEquals("item3", results.get(2).getOrThrow());
+            assertEquals(3, mockServer.getRequestCount());
+        }
+    }
+
+    @Test
+    void testGetAllWindowStaysWithinTheBulkhead() throws Exception {
+        RestClientProperties props = new RestClientProperties();
+        BulkheadProperties bulkheadProps = new BulkheadProperties();
+        bulkheadProps.setMaxConcurrentCalls(2);
+        props.setBulkhead(bulkheadProps);
+        mockServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setBody("item").setHeadersDelay(100, TimeUnit.MILLISECONDS);
+            }
+        });
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            urls.add(mockServer.url("/items/" + i).toString());
+        }
+
+        try (CommonRestClient batching = new CommonRestClient(props)) {
+            List<BatchResult<String>> results = batching.getAll(urls, String.class, 8);
+
+            assertTrue(results.stream().allMatch(BatchResult::isSuccess));
+            assertEquals(6, mockServer.getRequestCount());
+        }
+    }
+
+    @Test
+    void testMicroBatcherMergesKeysIntoOneBulkRequest() throws Exception {
+        mockServer.enqueue(new MockResponse()
+                .setBody("{\"1\":\"one\",\"3\":\"three\"}")
+                .addHeader("Content-Type", "application/json"));
+        MicroBatcher<String, String> batcher = client.microBatcher(
+                keys -> mockServer.url("/items?ids=" + String.join(",", keys)).toString(), Items.class,
+                (keys, items) -> items, 10, Duration.ofMillis(50));
+
+        CompletableFuture<String> one = batcher.get("1");
+        CompletableFuture<String> two = batcher.get("2");
+        CompletableFuture<String> three = batcher.get("3");
+
+        assertEquals("one", one.get(5, TimeUnit.SECONDS));
+        assertEquals("three", three.get(5, TimeUnit.SECONDS));
+        ExecutionException missing = assertThrows(ExecutionException.class, () -> two.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(NotFoundException.class, missing.getCause());
+        assertEquals("/items?ids=1,2,3", mockServer.takeRequest().getPath());
+        assertEquals(1, mockServer.getRequestCount());
+    }
+
+    @Test
+    void testDeadlineStopsRetriesAndIsPropagated() throws Exception {
+        RestClientProperties props = new RestClientProperties();
+        RetryProperties retryProps = new RetryProperties();
+        retryProps.setMaxAttempts(3);
+        retryProps.setBaseDelayMs(300);
+        retryProps.setJitterFactor(0);
+        props.setRetry(retryProps);
+        props.getDeadline().setTimeoutMs(200);
+
+        try (CommonRestClient bounded = new CommonRestClient(props)) {
+            mockServer.enqueue(new MockResponse().setResponseCode(500));
+            mockServer.enqueue(new MockResponse().setBody("too late"));
+            String url = mockServer.url("/budget").toString();
+
+            assertThrows(InternalServerErrorException.class, () -> bounded.get(url, String.class));
+            assertEquals(1, mockServer.getRequestCount());
+            long sent = Long.parseLong(mockServer.takeRequest().getHeader(Deadline.HEADER));
+            assertTrue(sent > 0 && sent <= 200, "remaining " + sent);
+        }
+    }
+
+    @Test
+    void testDeadlineCutsAttemptTimeoutsForEveryTransport() {
+        for (TransportProperties.Type type : TransportProperties.Type.values()) {
+            RestClientProperties props = new RestClientProperties();
+            props.getTransport().setType(type);
+
+            try (CommonRestClient bounded = new CommonRestClient(props)) {
+                String url = mockServer.url("/slow").toString();
+                mockServer.enqueue(new MockResponse().setBody("slow").setHeadersDelay(2, TimeUnit.SECONDS));
+                mockServer.enqueue(new MockResponse().setBody("slow").setHeadersDelay(2, TimeUnit.SECONDS));
+
+                long start = System.nanoTime();
+                try (Deadline.Scope scope = Deadline.after(Duration.ofMillis(300)).makeCurrent()) {
+                    RemoteServiceException blocking = assertThrows(RemoteServiceException.class,
+                            () -> bounded.get(url, String.class), type.name());
+                    assertEquals(504, blocking.getErrorResponse().getStatus(), type.name());
+                    ExecutionException async = assertThrows(ExecutionException.class,
+                            () -> bounded.getAsync(url, String.class).get(5, TimeUnit.SECONDS), type.name());
+                    assertEquals(504, ((RemoteServiceException) async.getCause()).getErrorResponse().getStatus());
+                }
+                assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(1500), type.name());
+            } catch (Exception ex) {
+                fail(ex);
+            }
+        }
+    }
+
+    @Test
+    void testDeadlineBoundsSlowDripBodiesForEveryTransport() throws Exception {
+        for (TransportProperties.Type type : TransportProperties.Type.values()) {
+            RestClientProperties props = new RestClientProperties();
+            props.getTransport().setType(type);
+            props.setReadTimeout(2000);
+            props.getDeadline().setTimeoutMs(300);
+            assertSlowDripFailsWithinDeadline(props, type.name());
+        }
+    }
+
+    private void assertSlowDripFailsWithinDeadline(RestClientProperties props, String transport) throws Exception {
+        String body = "{\"orders\":[" + "1,".repeat(25) + "1]}";
+        String url = mockServer.url("/drip").toString();
+
+        try (CommonRestClient bounded = new CommonRestClient(props)) {
+            // Every read returns within 100 ms, so only the deadline can stop the 800 ms body
+            mockServer.enqueue(new MockResponse().setBody(body).throttleBody(8, 100, TimeUnit.MILLISECONDS));
+            long start = System.nanoTime();
+            RemoteServiceException blocking = assertThrows(RemoteServiceException.class,
+                    () -> bounded.get(url, String.class));
+            assertEquals(504, blocking.getErrorResponse().getStatus(), transport);
+            assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(600), transport);
+
+            mockServer.enqueue(new MockResponse().setBody(body).throttleBody(8, 100, TimeUnit.MILLISECONDS));
+            start = System.nanoTime();
+            ExecutionException async = assertThrows(ExecutionException.class,
+                    () -> bounded.getAsync(url, String.class).get(5, TimeUnit.SECONDS));
+            assertEquals(504, ((RemoteServiceException) async.getCause()).getErrorResponse().getStatus(), transport);
+            assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(600), transport);
+        }
+    }
+
+    @Test
+    void testRouteReadTimeoutOverridesClientWideOne() throws Exception {
+        RestClientProperties props = new RestClientProperties();
+        RouteProperties route = new RouteProperties();
+        route.setPathPrefix("/slow");
+        route.setReadTimeout(200);
+        props.getRoutes().put("slow", route);
+
+        try (CommonRestClient routed = new CommonRestClient(props)) {
+            mockServer.enqueue(new MockResponse().setBody("slow").setHeadersDelay(1, TimeUnit.SECONDS));
+            mockServer.enqueue(new MockResponse().setBody("fast").setHeadersDelay(400, TimeUnit.MILLISECONDS));
+
+            RemoteServiceException timedOut = assertThrows(RemoteServiceException.class,
+                    () -> routed.get(mockServer.url("/slow/report").toString(), String.class));
+            assertEquals(500, timedOut.getErrorResponse().getStatus());
+            assertEquals("fast", routed.get(mockServer.url("/other").toString(), String.class));
+        }
+    }
+
+    /**
+     * Bulk response of the batcher test, the value of each requested id that exists.
+     */
+    static final class Items extends HashMap<String, String> {
+    }
 }
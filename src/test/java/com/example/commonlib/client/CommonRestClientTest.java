@@ -3,6 +3,7 @@ package com.example.commonlib.client;
 import com.example.commonlib.config.CircuitBreakerProperties;
 import com.example.commonlib.config.RestClientProperties;
 import com.example.commonlib.config.RetryProperties;
+import com.example.commonlib.config.RouteProperties;
 import com.example.commonlib.exception.RemoteServiceException;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpServer;
@@ -49,7 +50,7 @@ class CommonRestClientTest {
         // Enable circuit breaker configuration
         CircuitBreakerProperties cbProps = new CircuitBreakerProperties();
         cbProps.setFailureThreshold(3);
-        cbProps.setOpenDurationMs(2);
+        cbProps.setOpenDurationMs(2000);
         props.setCircuitBreaker(cbProps);
 
         client = new CommonRestClient(props);
@@ -208,4 +209,65 @@ class CommonRestClientTest {
         // Circuit breaker logic resets after open duration
         assertFalse(ex2.getErrorResponse().getMessage().contains("Circuit breaker is open"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testCircuitBreakerIsolatedPerHost() throws Exception {
+        RestClientProperties props = new RestClientProperties();
+        props.setConnectionTimeout(1000);
+        props.setReadTimeout(1000);
+
+        CircuitBreakerProperties cbProps = new CircuitBreakerProperties();
+        cbProps.setFailureThreshold(3);
+        cbProps.setOpenDurationMs(5000);
+        props.setCircuitBreaker(cbProps);
+
+        try (CommonRestClient hostClient = new CommonRestClient(props)) {
+            // localhost and 127.0.0.1 reach the same server but are separate downstream hosts
+            String failUrl = "http://localhost:" + PORT + "/fail";
+            String otherHostUrl = "http://127.0.0.1:" + PORT + "/success";
+
+            for (int i = 0; i < 3; i++) {
+                assertThrows(RemoteServiceException.class, () -> hostClient.get(failUrl, String.class));
+            }
+            RemoteServiceException ex = assertThrows(RemoteServiceException.class,
+                    () -> hostClient.get(failUrl, String.class));
+            assertTrue(ex.getErrorResponse().getMessage().contains("Circuit breaker is open"));
+
+            assertEquals("OK", hostClient.get(otherHostUrl, String.class));
+        }
+    }
+
+    @Test
+    void testRouteHasItsOwnCircuitBreaker() throws Exception {
+        RestClientProperties props = new RestClientProperties();
+        props.setConnectionTimeout(1000);
+        props.setReadTimeout(1000);
+
+        CircuitBreakerProperties cbProps = new CircuitBreakerProperties();
+        cbProps.setFailureThreshold(5);
+        cbProps.setOpenDurationMs(5000);
+        props.setCircuitBreaker(cbProps);
+
+        CircuitBreakerProperties routeCbProps = new CircuitBreakerProperties();
+        routeCbProps.setFailureThreshold(1);
+        routeCbProps.setOpenDurationMs(5000);
+        RouteProperties route = new RouteProperties();
+        route.setHost("localhost");
+        route.setPathPrefix("/fail");
+        route.setCircuitBreaker(routeCbProps);
+        props.getRoutes().put("failing-endpoint", route);
+
+        try (CommonRestClient routedClient = new CommonRestClient(props)) {
+            String failUrl = "http://localhost:" + PORT + "/fail";
+            assertThrows(RemoteServiceException.class, () -> routedClient.get(failUrl, String.class));
+
+            // The route override opens after a single failure ...
+            RemoteServiceException ex = assertThrows(RemoteServiceException.class,
+                    () -> routedClient.get(failUrl, String.class));
+            assertTrue(ex.getErrorResponse().getMessage().contains("Circuit breaker is open"));
+
+            // ... while the rest of the host keeps its own, still closed, breaker
+            assertEquals("OK", routedClient.get("http://localhost:" + PORT + "/success", String.class));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.commonlib.client;
+
+import com.example.commonlib.config.CompressionProperties;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressionTest {
+
+    private static final byte[] PAYLOAD = "{\"id\":42,\"name\":\"widget\",\"tags\":[\"a\",\"b\"]}\n"
+            .repeat(200).getBytes(StandardCharsets.UTF_8);
+
+    private final Compression compression = new Compression(new CompressionProperties());
+
+    @Test
+    void testGzipIsCompatibleWithTheJdkStreams() throws IOException {
+        // Several rounds so pooled deflaters and inflaters are reused
+        for (int i = 0; i < 3; i++) {
+            byte[] compressed = compression.gzip(PAYLOAD);
+            assertTrue(compressed.length < PAYLOAD.length / 10);
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+                assertArrayEquals(PAYLOAD, in.readAllBytes());
+            }
+
+            ByteArrayOutputStream jdk = new ByteArrayOutputStream();
+            try (GZIPOutputStream out = new GZIPOutputStream(jdk)) {
+                out.write(PAYLOAD);
+            }
+            assertArrayEquals(PAYLOAD, compression.decode("gzip", jdk.toByteArray()));
+        }
+    }
+
+    @Test
+    void testDecodesDeflateAndEmptyBodies() throws IOException {
+        ByteArrayOutputStream zlib = new ByteArrayOutputStream();
+        try (DeflaterOutputStream out = new DeflaterOutputStream(zlib)) {
+            out.write(PAYLOAD);
+        }
+        assertArrayEquals(PAYLOAD, compression.decode("deflate", zlib.toByteArray()));
+        assertEquals(0, compression.decode("gzip", new byte[0]).length);
+    }
+
+    @Test
+    void testCorruptTrailerIsDetected() throws IOException {
+        byte[] compressed = compression.gzip(PAYLOAD);
+        compressed[compressed.length - 5] ^= 1;
+        assertThrows(ZipException.class, () -> compression.decode("gzip", compressed));
+    }
+
+    @Test
+    void testThresholdDecidesWhatIsCompressed() {
+        CompressionProperties props = new CompressionProperties();
+        props.setRequestThresholdBytes(1024);
+        Compression thresholded = new Compression(props);
+
+        assertFalse(thresholded.compresses(1023));
+        assertTrue(thresholded.compresses(1024));
+        assertTrue(thresholded.compresses(-1));
+        assertTrue(Compression.isSupported("GZIP"));
+        assertFalse(Compression.isSupported("br"));
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.commonlib.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeadlineTest {
+
+    @Test
+    void testParsesRemainingMillisFromHeader() {
+        Deadline deadline = Deadline.fromHeader(" 500 ");
+        assertTrue(deadline.remainingMillis() > 400 && deadline.remainingMillis() <= 500);
+        assertFalse(deadline.isExpired());
+
+        assertNull(Deadline.fromHeader(null));
+        assertNull(Deadline.fromHeader("soon"));
+        assertNull(Deadline.fromHeader("-1"));
+        assertTrue(Deadline.fromHeader("0").isExpired());
+    }
+
+    @Test
+    void testNestedScopeCannotExtendEnclosingDeadline() {
+        Deadline outer = Deadline.after(Duration.ofMillis(100));
+        Deadline inner = Deadline.after(Duration.ofSeconds(10));
+        Deadline shorter = Deadline.after(Duration.ofMillis(10));
+
+        try (Deadline.Scope outerScope = outer.makeCurrent()) {
+            try (Deadline.Scope innerScope = inner.makeCurrent()) {
+                assertSame(outer, Deadline.current());
+            }
+            try (Deadline.Scope shorterScope = shorter.makeCurrent()) {
+                assertSame(shorter, Deadline.current());
+            }
+            assertSame(outer, Deadline.current());
+        }
+        assertNull(Deadline.current());
+    }
+
+    @Test
+    void testWrapCarriesDeadlineToAnotherThread() throws Exception {
+        Deadline deadline = Deadline.after(Duration.ofSeconds(1));
+        Deadline[] seen = new Deadline[1];
+        Runnable task;
+        try (Deadline.Scope scope = deadline.makeCurrent()) {
+            var wrapped = Deadline.wrap(Deadline::current);
+            task = () -> seen[0] = wrapped.get();
+        }
+        Thread thread = new Thread(task);
+        thread.start();
+        thread.join();
+
+        assertSame(deadline, seen[0]);
+        assertEquals(0, Deadline.after(Duration.ofMillis(-5)).remainingMillis());
+    }
+}
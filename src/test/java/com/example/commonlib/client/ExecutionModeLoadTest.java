@@ -0,0 +1,139 @@
+package com.example.commonlib.client;
+
+import com.example.commonlib.config.RestClientProperties;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the classic thread-pool path with {@link RestClientProperties.ExecutionMode#VIRTUAL} against a
+ * downstream with fixed latency. Run with {@code mvn test -P load-tests} on Java 21 or later.
+ */
+@Tag("load")
+@EnabledForJreRange(min = JRE.JAVA_21)
+class ExecutionModeLoadTest {
+
+    private static final int CALLS = 2_000;
+    private static final int PLATFORM_POOL_SIZE = 200;
+    private static final long LATENCY_MS = 100;
+
+    private MockWebServer mockServer;
+
+    @BeforeEach
+    void setup() throws IOException {
+        mockServer = new MockWebServer();
+        mockServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse()
+                        .setBody("ok")
+                        .setResponseCode(200)
+                        .setHeadersDelay(LATENCY_MS, TimeUnit.MILLISECONDS);
+            }
+        });
+        mockServer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockServer.shutdown();
+    }
+
+    private static RestClientProperties properties(RestClientProperties.ExecutionMode mode) {
+        RestClientProperties props = new RestClientProperties();
+        props.setConnectionTimeout(5000);
+        props.setReadTimeout(5000);
+        props.setExecutionMode(mode);
+        // The connection pool must not be what limits concurrency
+        props.getTransport().setMaxConnectionsPerRoute(CALLS);
+        props.getTransport().setMaxConnectionsTotal(CALLS);
+        return props;
+    }
+
+    @Test
+    void testVirtualThreadsOutperformPlatformPool() throws Exception {
+        String url = mockServer.url("/load").toString();
+
+        Result platform;
+        try (CommonRestClient client = new CommonRestClient(properties(RestClientProperties.ExecutionMode.PLATFORM))) {
+            ExecutorService pool = Executors.newFixedThreadPool(PLATFORM_POOL_SIZE);
+            try {
+                platform = measure(() -> {
+                    List<CompletableFuture<String>> results = new ArrayList<>(CALLS);
+                    for (int i = 0; i < CALLS; i++) {
+                        results.add(CompletableFuture.supplyAsync(() -> client.get(url, String.class), pool));
+                    }
+                    return results;
+                });
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        Result virtual;
+        try (CommonRestClient client = new CommonRestClient(properties(RestClientProperties.ExecutionMode.VIRTUAL))) {
+            virtual = measure(() -> {
+                List<CompletableFuture<String>> results = new ArrayList<>(CALLS);
+                for (int i = 0; i < CALLS; i++) {
+                    results.add(client.getAsync(url, String.class));
+                }
+                return results;
+            });
+        }
+
+        System.out.printf("platform (%d threads): %s%n", PLATFORM_POOL_SIZE, platform);
+        System.out.printf("virtual: %s%n", virtual);
+
+        // The pool caps the platform path at PLATFORM_POOL_SIZE calls per LATENCY_MS
+        assertTrue(virtual.callsPerSecond() > platform.callsPerSecond() * 2,
+                "virtual " + virtual + " vs platform " + platform);
+    }
+
+    private interface Load {
+        List<CompletableFuture<String>> start();
+    }
+
+    private record Result(double callsPerSecond, long heapDeltaBytes, int peakThreads) {
+        @Override
+        public String toString() {
+            return String.format("%.0f calls/s, heap +%d KiB, peak %d platform threads",
+                    callsPerSecond, heapDeltaBytes / 1024, peakThreads);
+        }
+    }
+
+    private static Result measure(Load load) throws Exception {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        threads.resetPeakThreadCount();
+
+        long start = System.nanoTime();
+        List<CompletableFuture<String>> results = load.start();
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(60, TimeUnit.SECONDS);
+        long elapsedNanos = System.nanoTime() - start;
+
+        long heapDelta = memory.getHeapMemoryUsage().getUsed() - heapBefore;
+        return new Result(CALLS * 1e9 / elapsedNanos, heapDelta, threads.getPeakThreadCount());
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.commonlib.client;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local stub downstream for load tests that answers every request according to its current
+ * {@link FaultProfile}. The profile can be swapped while load is running, for example to start an outage
+ * and watch the circuit breaker open and recover.
+ */
+final class FaultInjectingServer implements AutoCloseable {
+
+    private final MockWebServer server = new MockWebServer();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder resets = new LongAdder();
+    private final LongAdder slowDrips = new LongAdder();
+    private volatile FaultProfile profile;
+
+    FaultInjectingServer(FaultProfile profile) throws IOException {
+        this.profile = profile;
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return respond(FaultInjectingServer.this.profile);
+            }
+        });
+        server.start();
+    }
+
+    String url(String path) {
+        return server.url(path).toString();
+    }
+
+    void setProfile(FaultProfile profile) {
+        this.profile = profile;
+    }
+
+    /**
+     * @return the requests received, including those answered with a fault
+     */
+    long requests() {
+        return requests.sum();
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    long resets() {
+        return resets.sum();
+    }
+
+    long slowDrips() {
+        return slowDrips.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+
+    private MockResponse respond(FaultProfile profile) {
+        requests.increment();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double fault = random.nextDouble();
+        if (fault < profile.resetRate()) {
+            resets.increment();
+            return new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST);
+        }
+
+        MockResponse response;
+        if (fault < profile.resetRate() + profile.errorRate()) {
+            errors.increment();
+            response = new MockResponse()
+                    .setResponseCode(profile.errorStatus())
+                    .setBody("{\"error\":\"injected\"}");
+        } else {
+            response = new MockResponse()
+                    .setResponseCode(200)
+                    .setBody(profile.body());
+        }
+        response.setHeader("Content-Type", "application/json")
+                .setHeadersDelay(Math.max(0, profile.latency().sampleMillis()), TimeUnit.MILLISECONDS);
+        if (random.nextDouble() < profile.slowDripRate()) {
+            slowDrips.increment();
+            response.throttleBody(profile.dripBytes(), profile.dripIntervalMs(), TimeUnit.MILLISECONDS);
+        }
+        return response;
+    }
+}
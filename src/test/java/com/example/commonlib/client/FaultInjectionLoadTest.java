@@ -0,0 +1,121 @@
+package com.example.commonlib.client;
+
+import com.example.commonlib.config.CircuitBreakerProperties;
+import com.example.commonlib.config.RestClientProperties;
+import com.example.commonlib.config.RetryProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Open-loop load runs of {@link CommonRestClient} against a {@link FaultInjectingServer}, for tuning retry,
+ * circuit breaker and timeout settings against a given downstream behaviour. Each run prints its
+ * {@link OpenLoopLoadDriver.LoadReport}; the assertions only check what the settings guarantee. Run with
+ * {@code mvn test -P load-tests -Dtest=FaultInjectionLoadTest}.
+ */
+@Tag("load")
+class FaultInjectionLoadTest {
+
+    // The MockWebServer stub serves each connection on its own thread and tops out at about 200 requests per
+    // second on a small machine; staying well below keeps it from being what limits the runs
+    private static final int RPS = 100;
+    private static final Duration DURATION = Duration.ofSeconds(5);
+
+    private static RestClientProperties properties() {
+        RestClientProperties props = new RestClientProperties();
+        props.setConnectionTimeout(500);
+        props.setReadTimeout(300);
+        // The connection pool must not be what limits concurrency
+        props.getTransport().setMaxConnectionsPerRoute(RPS);
+        props.getTransport().setMaxConnectionsTotal(RPS);
+        props.getTracing().setSamplingRate(0);
+
+        RetryProperties retryProps = new RetryProperties();
+        retryProps.setMaxAttempts(3);
+        retryProps.setBaseDelayMs(20);
+        retryProps.setMaxDelayMs(100);
+        retryProps.setBudgetPercent(10);
+        props.setRetry(retryProps);
+
+        CircuitBreakerProperties cbProps = new CircuitBreakerProperties();
+        cbProps.setMode(CircuitBreakerProperties.Mode.COUNT_BASED);
+        cbProps.setWindowSize(100);
+        cbProps.setMinimumNumberOfCalls(20);
+        cbProps.setFailureRateThreshold(50);
+        cbProps.setOpenDurationMs(1000);
+        props.setCircuitBreaker(cbProps);
+        return props;
+    }
+
+    private static RestClientProperties withDeadline(long timeoutMs) {
+        RestClientProperties props = properties();
+        props.getDeadline().setTimeoutMs(timeoutMs);
+        return props;
+    }
+
+    @Test
+    void testHealthyDownstreamWithLongTailedLatency() throws Exception {
+        FaultProfile profile = FaultProfile.healthy(LatencyDistribution.logNormal(20, 0.5)
+                .withTail(0.01, LatencyDistribution.uniform(150, 250)));
+        OpenLoopLoadDriver driver = new OpenLoopLoadDriver(RPS, DURATION);
+        try (FaultInjectingServer server = new FaultInjectingServer(profile);
+             CommonRestClient client = new CommonRestClient(properties(), new ObjectMapper(), driver.clientMetrics())) {
+            String url = server.url("/orders/1");
+            OpenLoopLoadDriver.LoadReport report = driver.run(() -> client.get(url, String.class));
+            System.out.println("healthy:\n" + report);
+
+            assertEquals(report.sent(), report.succeeded(), report.toString());
+            assertEquals(0, report.shortCircuited());
+        }
+    }
+
+    @Test
+    void testCircuitBreakerShortCircuitsDuringOutage() throws Exception {
+        FaultProfile outage = FaultProfile.healthy(LatencyDistribution.fixed(5)).withErrors(1.0, 503);
+        OpenLoopLoadDriver driver = new OpenLoopLoadDriver(RPS, DURATION);
+        try (FaultInjectingServer server = new FaultInjectingServer(outage);
+             CommonRestClient client = new CommonRestClient(properties(), new ObjectMapper(), driver.clientMetrics())) {
+            String url = server.url("/orders/1");
+            OpenLoopLoadDriver.LoadReport report = driver.run(() -> client.get(url, String.class));
+            System.out.println("outage:\n" + report + "\nserver saw " + server.requests() + " requests");
+
+            assertEquals(0, report.succeeded());
+            assertTrue(report.shortCircuited() > report.sent() / 2, report.toString());
+            // Open circuit and retry budget together keep the downstream from seeing every call, let alone retries
+            assertTrue(server.requests() < report.sent(), "server saw " + server.requests());
+        }
+    }
+
+    @Test
+    void testResetsAreRetriedAndSlowDripBodiesStopAtTheDeadline() throws Exception {
+        // 64 bytes dripped 8 every 100 ms take 800 ms. Every read returns within 100 ms, so the 300 ms read
+        // timeout, which bounds each read rather than the body, never trips; only the deadline stops them
+        long deadlineMs = 500;
+        FaultProfile flaky = FaultProfile.healthy(LatencyDistribution.uniform(5, 30))
+                .withBody("{\"orders\":[" + "1,".repeat(25) + "1]}")
+                .withResets(0.05)
+                .withSlowDrip(0.05, 8, 100);
+        OpenLoopLoadDriver driver = new OpenLoopLoadDriver(RPS, DURATION);
+        try (FaultInjectingServer server = new FaultInjectingServer(flaky);
+             CommonRestClient client = new CommonRestClient(withDeadline(deadlineMs), new ObjectMapper(),
+                     driver.clientMetrics())) {
+            String url = server.url("/orders");
+            OpenLoopLoadDriver.LoadReport report = driver.run(() -> client.get(url, String.class));
+            System.out.println("resets and slow drip:\n" + report + "\nserver injected " + server.resets()
+                    + " resets and " + server.slowDrips() + " slow drips");
+
+            assertEquals(report.sent(), report.succeeded() + report.failed(), report.toString());
+            // Resets are absorbed by a retry, slow drips fail once the deadline passes
+            long deadlineExceeded = report.failures().getOrDefault("504 Deadline exceeded", 0L);
+            assertEquals(report.failed(), deadlineExceeded, report.toString());
+            assertTrue(deadlineExceeded > 0 && deadlineExceeded <= server.slowDrips(), report.toString());
+            // The deadline bounds every call, give or take the read in progress when it passes
+            assertTrue(report.percentileMillis(100) < deadlineMs + 200, report.toString());
+        }
+    }
+}
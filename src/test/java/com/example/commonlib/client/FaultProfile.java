@@ -0,0 +1,45 @@
+package com.example.commonlib.client;
+
+/**
+ * How a {@link FaultInjectingServer} answers: the latency of every response and the fraction of requests
+ * that fail. Each request draws at most one of reset and error; a slow-drip body can come on top of either a
+ * success or an error.
+ *
+ * @param latency         delay before the response headers
+ * @param errorRate       fraction of requests answered with {@code errorStatus}
+ * @param errorStatus     HTTP status of the injected errors
+ * @param resetRate       fraction of connections dropped after the request is read, without a response
+ * @param slowDripRate    fraction of responses whose body is sent {@code dripBytes} at a time
+ * @param dripBytes       bytes per chunk of a slow-drip body
+ * @param dripIntervalMs  pause in milliseconds between chunks of a slow-drip body
+ * @param body            response body of successful requests
+ */
+record FaultProfile(LatencyDistribution latency, double errorRate, int errorStatus, double resetRate,
+                    double slowDripRate, int dripBytes, long dripIntervalMs, String body) {
+
+    private static final String DEFAULT_BODY = "{\"status\":\"ok\"}";
+
+    /**
+     * @return a server that answers every request successfully after {@code latency}
+     */
+    static FaultProfile healthy(LatencyDistribution latency) {
+        return new FaultProfile(latency, 0, 500, 0, 0, 1, 0, DEFAULT_BODY);
+    }
+
+    FaultProfile withErrors(double rate, int status) {
+        return new FaultProfile(latency, rate, status, resetRate, slowDripRate, dripBytes, dripIntervalMs, body);
+    }
+
+    FaultProfile withResets(double rate) {
+        return new FaultProfile(latency, errorRate, errorStatus, rate, slowDripRate, dripBytes, dripIntervalMs, body);
+    }
+
+    FaultProfile withSlowDrip(double rate, int bytes, long intervalMs) {
+        return new FaultProfile(latency, errorRate, errorStatus, resetRate, rate, bytes, intervalMs, body);
+    }
+
+    FaultProfile withBody(String body) {
+        return new FaultProfile(latency, errorRate, errorStatus, resetRate, slowDripRate, dripBytes, dripIntervalMs,
+                body);
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.commonlib.client;
+
+import com.example.commonlib.config.HedgeProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HedgerTest {
+
+    @Test
+    void testHedgeWinsAndLoserIsCancelled() throws Exception {
+        HedgeProperties props = new HedgeProperties();
+        props.setDelayMs(20);
+        Hedger hedger = new Hedger(props);
+        List<CompletableFuture<String>> sent = new CopyOnWriteArrayList<>();
+        AtomicInteger hedges = new AtomicInteger();
+
+        CompletableFuture<String> result = hedger.execute(() -> {
+            CompletableFuture<String> request = new CompletableFuture<>();
+            sent.add(request);
+            if (sent.size() == 2) {
+                request.complete("hedge");
+            }
+            return request;
+        }, hedges::incrementAndGet);
+
+        assertEquals("hedge", result.get(5, TimeUnit.SECONDS));
+        assertEquals(1, hedges.get());
+        assertTrue(sent.get(0).isCancelled());
+    }
+
+    @Test
+    void testWinningHedgesDoNotDragTheDelayDown() throws Exception {
+        HedgeProperties props = new HedgeProperties();
+        props.setMinDelayMs(1);
+        props.setBudgetPercent(100);
+        Hedger hedger = new Hedger(props);
+
+        for (int i = 0; i < LatencyTracker.MIN_SAMPLES; i++) {
+            hedger.execute(() -> CompletableFuture.supplyAsync(() -> "primary",
+                    CompletableFuture.delayedExecutor(20, TimeUnit.MILLISECONDS)), () -> {
+            }).get(5, TimeUnit.SECONDS);
+        }
+        assertTrue(hedger.delayNanos() >= TimeUnit.MILLISECONDS.toNanos(20));
+
+        // Primaries that never answer, so every call is won by a hedge that answers at once
+        for (int batch = 0; batch < LatencyTracker.WINDOW / 64; batch++) {
+            List<CompletableFuture<String>> calls = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                AtomicInteger sent = new AtomicInteger();
+                calls.add(hedger.execute(() -> sent.incrementAndGet() == 1
+                        ? new CompletableFuture<>()
+                        : CompletableFuture.completedFuture("hedge"), () -> {
+                }));
+            }
+            for (CompletableFuture<String> call : calls) {
+                assertEquals("hedge", call.get(5, TimeUnit.SECONDS));
+            }
+        }
+        assertTrue(hedger.delayNanos() >= TimeUnit.MILLISECONDS.toNanos(20),
+                "Calls still took the hedge delay, whatever the hedge's own latency");
+    }
+
+    @Test
+    void testFailsOnlyWhenEveryRequestFailed() {
+        HedgeProperties props = new HedgeProperties();
+        props.setDelayMs(10);
+        props.setMaxHedges(2);
+        Hedger hedger = new Hedger(props);
+        IllegalStateException failure = new IllegalStateException("down");
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> result = hedger.execute(() -> {
+            calls.incrementAndGet();
+            return CompletableFuture.supplyAsync(() -> {
+                throw failure;
+            }, CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS));
+        }, () -> {
+        });
+
+        assertSame(failure, assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS)).getCause());
+        assertTrue(calls.get() >= 2);
+    }
+
+    @Test
+    void testBudgetBoundsHedges() throws Exception {
+        HedgeProperties props = new HedgeProperties();
+        props.setDelayMs(1);
+        props.setBudgetPercent(10.0);
+        props.setBudgetMinHedgesPerSecond(0);
+        Hedger hedger = new Hedger(props);
+        AtomicInteger hedges = new AtomicInteger();
+
+        for (int i = 0; i < 30; i++) {
+            CompletableFuture<String> slow = CompletableFuture.supplyAsync(() -> "ok",
+                    CompletableFuture.delayedExecutor(20, TimeUnit.MILLISECONDS));
+            assertEquals("ok", hedger.execute(() -> slow, hedges::incrementAndGet).get(5, TimeUnit.SECONDS));
+        }
+
+        // Every call earns a tenth of a hedge
+        assertEquals(3, hedges.get());
+    }
+
+    @Test
+    void testWritesAreOnlyHedgedWhenAllowed() {
+        HedgeProperties props = new HedgeProperties();
+        assertTrue(new Hedger(props).appliesTo(HttpMethod.GET));
+        assertFalse(new Hedger(props).appliesTo(HttpMethod.PUT));
+        assertFalse(new Hedger(props).appliesTo(HttpMethod.POST));
+
+        props.setHedgeIdempotentWrites(true);
+        assertTrue(new Hedger(props).appliesTo(HttpMethod.DELETE));
+        assertFalse(new Hedger(props).appliesTo(HttpMethod.POST));
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.commonlib.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonArrayReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testReadsElementsAndClosesAtTheEnd() throws IOException {
+        AtomicBoolean closed = new AtomicBoolean();
+        JsonArrayReader<Map> reader = reader("[{\"id\":1},{\"id\":2},{\"id\":3}]", closed);
+
+        try (Stream<Map> elements = reader.stream()) {
+            assertEquals(List.of(1, 2, 3), elements.map(element -> element.get("id")).toList());
+        }
+        assertTrue(closed.get());
+        assertFalse(reader(" ", new AtomicBoolean()).hasNext());
+    }
+
+    @Test
+    void testTruncatedBodyFailsAndClosesTheResponse() throws IOException {
+        AtomicBoolean closed = new AtomicBoolean();
+        JsonArrayReader<Map> reader = reader("[{\"id\":1},{\"id\":", closed);
+
+        assertEquals(1, reader.next().get("id"));
+        assertThrows(UncheckedIOException.class, reader::next);
+        assertTrue(closed.get());
+        assertFalse(reader.hasNext());
+
+        assertThrows(IOException.class, () -> reader("{\"id\":1}", new AtomicBoolean()));
+    }
+
+    private JsonArrayReader<Map> reader(String json, AtomicBoolean closed) throws IOException {
+        return new JsonArrayReader<>(objectMapper, new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)),
+                Map.class, () -> closed.set(true), UncheckedIOException::new);
+    }
+}
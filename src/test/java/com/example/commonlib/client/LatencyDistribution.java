@@ -0,0 +1,41 @@
+package com.example.commonlib.client;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Response latency of a {@link FaultInjectingServer}, sampled once per request.
+ */
+@FunctionalInterface
+interface LatencyDistribution {
+
+    LatencyDistribution NONE = () -> 0;
+
+    /**
+     * @return the delay in milliseconds before the response headers are sent
+     */
+    long sampleMillis();
+
+    static LatencyDistribution fixed(long millis) {
+        return () -> millis;
+    }
+
+    static LatencyDistribution uniform(long minMillis, long maxMillis) {
+        return () -> ThreadLocalRandom.current().nextLong(minMillis, maxMillis + 1);
+    }
+
+    /**
+     * Long-tailed latency as seen from most real services: half of the samples are below {@code medianMillis},
+     * and {@code sigma} widens the tail, e.g. 0.5 puts p99 at about 3x the median and 1.0 at about 10x.
+     */
+    static LatencyDistribution logNormal(long medianMillis, double sigma) {
+        return () -> Math.round(medianMillis * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+    }
+
+    /**
+     * @return this distribution, except that a fraction {@code probability} of the requests, such as those
+     * hitting a GC pause or a cold cache, take {@code tail} instead
+     */
+    default LatencyDistribution withTail(double probability, LatencyDistribution tail) {
+        return () -> ThreadLocalRandom.current().nextDouble() < probability ? tail.sampleMillis() : sampleMillis();
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.commonlib.client;
+
+import com.example.commonlib.exception.NotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MicroBatcherTest {
+
+    private final List<List<String>> calls = new CopyOnWriteArrayList<>();
+
+    private CompletableFuture<Map<String, String>> upperCase(List<String> keys) {
+        calls.add(keys);
+        Map<String, String> values = new HashMap<>();
+        keys.stream().filter(key -> !key.equals("missing")).forEach(key -> values.put(key, key.toUpperCase()));
+        return CompletableFuture.completedFuture(values);
+    }
+
+    @Test
+    void testMergesKeysWithinTheWindowIntoOneCall() throws Exception {
+        MicroBatcher<String, String> batcher = new MicroBatcher<>(this::upperCase, 100, Duration.ofMillis(50));
+
+        CompletableFuture<String> a = batcher.get("a");
+        CompletableFuture<String> b = batcher.get("b");
+        CompletableFuture<String> again = batcher.get("a");
+        CompletableFuture<String> missing = batcher.get("missing");
+
+        assertEquals("A", a.get(5, TimeUnit.SECONDS));
+        assertEquals("B", b.get(5, TimeUnit.SECONDS));
+        assertEquals("A", again.get(5, TimeUnit.SECONDS));
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> missing.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(NotFoundException.class, ex.getCause());
+        assertEquals(List.of(List.of("a", "b", "missing")), calls);
+    }
+
+    @Test
+    void testSendsFullBatchWithoutWaiting() throws Exception {
+        MicroBatcher<String, String> batcher = new MicroBatcher<>(this::upperCase, 2, Duration.ofMinutes(1));
+
+        CompletableFuture<String> a = batcher.get("a");
+        CompletableFuture<String> b = batcher.get("b");
+        CompletableFuture<String> c = batcher.get("c");
+
+        assertEquals("A", a.get(5, TimeUnit.SECONDS));
+        assertEquals("B", b.get(5, TimeUnit.SECONDS));
+        assertEquals(1, batcher.pending());
+        assertEquals(List.of(List.of("a", "b")), calls);
+        c.cancel(false);
+    }
+
+    @Test
+    void testFailedBulkCallFailsEveryKey() {
+        IllegalStateException failure = new IllegalStateException("down");
+        MicroBatcher<String, String> batcher = new MicroBatcher<>(
+                keys -> CompletableFuture.failedFuture(failure), 10, Duration.ofMillis(10));
+
+        CompletableFuture<String> a = batcher.get("a");
+        CompletableFuture<String> b = batcher.get("b");
+
+        assertSame(failure, assertThrows(ExecutionException.class, () -> a.get(5, TimeUnit.SECONDS)).getCause());
+        assertSame(failure, assertThrows(ExecutionException.class, () -> b.get(5, TimeUnit.SECONDS)).getCause());
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.commonlib.client;
+
+import com.example.commonlib.exception.RemoteServiceException;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.http.HttpMethod;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends calls at a fixed target rate, whether or not earlier calls have completed, the way independent users
+ * arrive at a service. Each call is timed from when it was scheduled to start rather than from when it did,
+ * so a stalled client or downstream shows up in the latency of every call it held back, instead of quietly
+ * lowering the request rate (coordinated omission).
+ * <p>
+ * Pass {@link #clientMetrics()} to the {@link CommonRestClient} under test so the report can count the calls
+ * its circuit breaker short-circuited.
+ */
+final class OpenLoopLoadDriver {
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(60);
+
+    private final int targetRps;
+    private final Duration duration;
+    private final LongAdder shortCircuited = new LongAdder();
+
+    OpenLoopLoadDriver(int targetRps, Duration duration) {
+        this.targetRps = targetRps;
+        this.duration = duration;
+    }
+
+    /**
+     * @return metrics that count the calls rejected by an open circuit, which are the only rejections with a
+     * 503 status
+     */
+    ClientMetrics clientMetrics() {
+        DownstreamMetrics counter = new DownstreamMetrics() {
+            @Override
+            public void recordAttempt(HttpMethod method, int status, ClientMetrics.Outcome outcome,
+                                      long durationNanos) {
+                if (outcome == ClientMetrics.Outcome.REJECTED && status == 503) {
+                    shortCircuited.increment();
+                }
+            }
+        };
+        return downstream -> counter;
+    }
+
+    /**
+     * Sends {@code call} at the target rate for the configured duration, then waits for the calls still in
+     * flight to complete.
+     */
+    LoadReport run(Callable<?> call) throws InterruptedException {
+        Histogram latency = new ConcurrentHistogram(3);
+        LongAdder succeeded = new LongAdder();
+        Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+        shortCircuited.reset();
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / targetRps;
+        int calls = (int) (duration.toNanos() / intervalNanos);
+        CountDownLatch done = new CountDownLatch(calls);
+        AtomicInteger threads = new AtomicInteger();
+        // Unbounded, so calls stuck on a slow downstream never delay the ones scheduled after them
+        ExecutorService senders = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "load-sender-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long start = System.nanoTime();
+        long maxSendLagNanos = 0;
+        try {
+            for (int i = 0; i < calls; i++) {
+                long scheduled = start + i * intervalNanos;
+                long wait;
+                while ((wait = scheduled - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                maxSendLagNanos = Math.max(maxSendLagNanos, System.nanoTime() - scheduled);
+                senders.execute(() -> {
+                    try {
+                        call.call();
+                        succeeded.increment();
+                    } catch (Exception ex) {
+                        failures.computeIfAbsent(describe(ex), key -> new LongAdder()).increment();
+                    } finally {
+                        latency.recordValue(TimeUnit.NANOSECONDS.toMicros(Math.max(0, System.nanoTime() - scheduled)));
+                        done.countDown();
+                    }
+                });
+            }
+            done.await(DRAIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } finally {
+            senders.shutdownNow();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        Map<String, Long> failureCounts = new TreeMap<>();
+        failures.forEach((key, count) -> failureCounts.put(key, count.sum()));
+        return new LoadReport(targetRps, calls, succeeded.sum(), failureCounts, shortCircuited.sum(),
+                Duration.ofNanos(elapsedNanos), Duration.ofNanos(maxSendLagNanos), latency.copy());
+    }
+
+    private static String describe(Exception ex) {
+        if (ex instanceof RemoteServiceException remote && remote.getErrorResponse() != null) {
+            return remote.getErrorResponse().getStatus() + " " + remote.getErrorResponse().getError();
+        }
+        return ex.getClass().getSimpleName();
+    }
+
+    /**
+     * Outcome of a {@link #run}.
+     *
+     * @param failures     failed calls by status and error, or exception type, short-circuited ones included
+     * @param elapsed      from the first call's scheduled start until the last call completed
+     * @param maxSendLag   how late the driver itself sent a call; latencies stay correct when it falls behind,
+     *                     but a large lag means the machine, not the client, limited the rate
+     * @param latency      latency in microseconds of every completed call, failed ones included
+     */
+    record LoadReport(int targetRps, int sent, long succeeded, Map<String, Long> failures, long shortCircuited,
+                      Duration elapsed, Duration maxSendLag, Histogram latency) {
+
+        long failed() {
+            return failures.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        /**
+         * @return calls completed per second, failed ones included
+         */
+        double throughput() {
+            return (succeeded + failed()) * 1e9 / elapsed.toNanos();
+        }
+
+        /**
+         * @return calls that succeeded per second
+         */
+        double goodput() {
+            return succeeded * 1e9 / elapsed.toNanos();
+        }
+
+        /**
+         * @return the latency in milliseconds below which {@code percentile} percent of the calls completed
+         */
+        double percentileMillis(double percentile) {
+            return latency.getValueAtPercentile(percentile) / 1000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("target %d rps, sent %d, succeeded %d, failed %d %s, short-circuited %d%n"
+                            + "throughput %.1f/s, goodput %.1f/s, max send lag %d ms%n"
+                            + "latency ms: p50 %.1f, p90 %.1f, p99 %.1f, p99.9 %.1f, max %.1f",
+                    targetRps, sent, succeeded, failed(), failures, shortCircuited,
+                    throughput(), goodput(), maxSendLag.toMillis(),
+                    percentileMillis(50), percentileMillis(90), percentileMillis(99), percentileMillis(99.9),
+                    latency.getMaxValue() / 1000.0);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.commonlib.client;
+
+import com.example.commonlib.config.RestClientProperties;
+import com.example.commonlib.config.TransportProperties;
+import com.example.commonlib.exception.RemoteServiceException;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PooledTransportIntegrationTest {
+
+    private MockWebServer mockServer;
+
+    @BeforeEach
+    void setup() throws IOException {
+        mockServer = new MockWebServer();
+        mockServer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockServer.shutdown();
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = TransportProperties.Type.class, names = {"JDK", "APACHE"})
+    void testKeepAliveConnectionIsReused(TransportProperties.Type type) throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockServer.enqueue(new MockResponse().setBody("Hello " + i).setResponseCode(200));
+        }
+
+        RestClientProperties props = new RestClientProperties();
+        props.setConnectionTimeout(1000);
+        props.setReadTimeout(1000);
+        props.getTransport().setType(type);
+
+        String url = mockServer.url("/pooled").toString();
+
+        try (CommonRestClient client = new CommonRestClient(props)) {
+            for (int i = 0; i < 3; i++) {
+                assertEquals("Hello " + i, client.get(url, String.class));
+            }
+        }
+
+        // MockWebServer numbers requests per connection, so a reused connection keeps counting up
+        for (int i = 0; i < 3; i++) {
+            RecordedRequest request = mockServer.takeRequest();
+            assertEquals(i, request.getSequenceNumber(), "Request should reuse the pooled connection");
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(TransportProperties.Type.class)
+    void testZeroReadTimeoutMeansNone(TransportProperties.Type type) throws Exception {
+        mockServer.enqueue(new MockResponse().setBody("unbounded"));
+
+        RestClientProperties props = new RestClientProperties();
+        props.setReadTimeout(0);
+        props.getTransport().setType(type);
+
+        try (CommonRestClient client = new CommonRestClient(props)) {
+            assertEquals("unbounded", client.get(mockServer.url("/untimed").toString(), String.class));
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(TransportProperties.Type.class)
+    void testZeroTimeoutsMeanNoneForAsyncCalls(TransportProperties.Type type) throws Exception {
+        mockServer.enqueue(new MockResponse().setBody("unbounded"));
+
+        RestClientProperties props = new RestClientProperties();
+        props.setConnectionTimeout(0);
+        props.setReadTimeout(0);
+        props.getTransport().setType(type);
+
+        try (CommonRestClient client = new CommonRestClient(props)) {
+            assertEquals("unbounded",
+                    client.getAsync(mockServer.url("/untimed").toString(), String.class).get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(TransportProperties.Type.class)
+    void testStalledBodyFailsAfterReadTimeoutWithoutDeadline(TransportProperties.Type type) throws Exception {
+        mockServer.enqueue(stalledBody());
+        mockServer.enqueue(stalledBody());
+
+        RestClientProperties props = new RestClientProperties();
+        props.setReadTimeout(300);
+        props.getTransport().setType(type);
+
+        try (CommonRestClient client = new CommonRestClient(props)) {
+            String url = mockServer.url("/stalled").toString();
+
+            long start = System.nanoTime();
+            assertThrows(RemoteServiceException.class, () -> client.get(url, String.class));
+            ExecutionException async = assertThrows(ExecutionException.class,
+                    () -> client.getAsync(url, String.class).get(5, TimeUnit.SECONDS));
+            assertInstanceOf(RemoteServiceException.class, async.getCause());
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1500,
+                    "Both calls should give up one read timeout after the body stalls");
+        }
+    }
+
+    /**
+     * Sends the headers and the first bytes of the body, then nothing for far longer than the read timeout.
+     */
+    private static MockResponse stalledBody() {
+        return new MockResponse().setBody("x".repeat(100)).throttleBody(10, 2, TimeUnit.SECONDS);
+    }
+}
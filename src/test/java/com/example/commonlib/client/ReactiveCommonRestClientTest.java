@@ -0,0 +1,158 @@
+package com.example.commonlib.client;
+
+import com.example.commonlib.config.CircuitBreakerProperties;
+import com.example.commonlib.config.RestClientProperties;
+import com.example.commonlib.config.RetryProperties;
+import com.example.commonlib.exception.NotFoundException;
+import com.example.commonlib.exception.RemoteServiceException;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReactiveCommonRestClientTest {
+
+    private MockWebServer mockServer;
+    private ReactiveCommonRestClient client;
+
+    @BeforeEach
+    void setup() throws IOException {
+        mockServer = new MockWebServer();
+        mockServer.start();
+
+        RestClientProperties props = new RestClientProperties();
+        props.setConnectionTimeout(1000);
+        props.setReadTimeout(1000);
+
+        RetryProperties retryProps = new RetryProperties();
+        retryProps.setMaxAttempts(3);
+        retryProps.setBaseDelayMs(20);
+        props.setRetry(retryProps);
+
+        CircuitBreakerProperties cbProps = new CircuitBreakerProperties();
+        cbProps.setFailureThreshold(2);
+        cbProps.setOpenDurationMs(2000);
+        props.setCircuitBreaker(cbProps);
+
+        client = new ReactiveCommonRestClient(props);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        mockServer.shutdown();
+    }
+
+    @Test
+    void testRetriesUntilSuccess() {
+        mockServer.enqueue(new MockResponse().setResponseCode(500));
+        mockServer.enqueue(new MockResponse().setResponseCode(503));
+        mockServer.enqueue(new MockResponse().setBody("Recovered!"));
+
+        String url = mockServer.url("/retry").toString();
+
+        assertEquals("Recovered!", client.get(url, String.class).block(Duration.ofSeconds(5)));
+        assertEquals(3, mockServer.getRequestCount());
+    }
+
+    @Test
+    void testMapsErrorsAndOpensCircuit() {
+        for (int i = 0; i < 6; i++) {
+            mockServer.enqueue(new MockResponse().setResponseCode(404).setBody("missing"));
+        }
+        String url = mockServer.url("/missing").toString();
+
+        NotFoundException notFound = assertThrows(NotFoundException.class,
+                () -> client.get(url, String.class).block(Duration.ofSeconds(5)));
+        assertEquals("missing", notFound.getErrorResponse().getMessage());
+        assertThrows(NotFoundException.class, () -> client.get(url, String.class).block(Duration.ofSeconds(5)));
+
+        RemoteServiceException open = assertThrows(RemoteServiceException.class,
+                () -> client.get(url, String.class).block(Duration.ofSeconds(5)));
+        assertEquals(503, open.getErrorResponse().getStatus());
+        assertEquals(6, mockServer.getRequestCount());
+    }
+
+    @Test
+    void testSharesCircuitBreakersWithBlockingClient() throws Exception {
+        RestClientProperties props = new RestClientProperties();
+        CircuitBreakerProperties cbProps = new CircuitBreakerProperties();
+        cbProps.setFailureThreshold(1);
+        cbProps.setOpenDurationMs(60000);
+        props.setCircuitBreaker(cbProps);
+        mockServer.enqueue(new MockResponse().setResponseCode(500));
+        String url = mockServer.url("/failing").toString();
+
+        try (CommonRestClient blocking = new CommonRestClient(props);
+             ReactiveCommonRestClient shared = new ReactiveCommonRestClient(props,
+                     Jackson2ObjectMapperBuilder.json().build(), ClientMetrics.NOOP, blocking)) {
+            assertThrows(RemoteServiceException.class, () -> blocking.get(url, String.class));
+
+            RemoteServiceException open = assertThrows(RemoteServiceException.class,
+                    () -> shared.get(url, String.class).block(Duration.ofSeconds(5)));
+            assertEquals(503, open.getErrorResponse().getStatus());
+            assertEquals(1, mockServer.getRequestCount());
+        }
+    }
+
+    @Test
+    void testPostsJsonBody() throws Exception {
+        mockServer.enqueue(new MockResponse()
+                .setBody("{\"id\":7}")
+                .addHeader("Content-Type", "application/json"));
+
+        Map<?, ?> created = client.post(mockServer.url("/orders").toString(), Map.of("item", "book"), Map.class)
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(7, created.get("id"));
+        assertEquals("{\"item\":\"book\"}", mockServer.takeRequest().getBody().readUtf8());
+    }
+
+    @Test
+    void testStreamEmitsElementsOnDemand() throws Exception {
+        String array = IntStream.range(0, 20000)
+                .mapToObj(i -> "{\"id\":" + i + "}")
+                .collect(Collectors.joining(",", "[", "]"));
+        mockServer.enqueue(new MockResponse().setBody(array).addHeader("Content-Type", "application/json"));
+
+        List<Map> received = new CopyOnWriteArrayList<>();
+        CountDownLatch cancelled = new CountDownLatch(1);
+        client.getStream(mockServer.url("/export").toString(), Map.class)
+                .subscribe(new BaseSubscriber<>() {
+                    @Override
+                    protected void hookOnSubscribe(Subscription subscription) {
+                        request(2);
+                    }
+
+                    @Override
+                    protected void hookOnNext(Map value) {
+                        received.add(value);
+                        if (received.size() == 2) {
+                            cancel();
+                            cancelled.countDown();
+                        }
+                    }
+                });
+
+        assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(0, 1), received.stream().map(item -> item.get("id")).toList());
+    }
+}
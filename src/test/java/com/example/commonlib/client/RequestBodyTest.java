@@ -0,0 +1,97 @@
+package com.example.commonlib.client;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestBodyTest {
+
+    @Test
+    void testReplayableBodiesCanBeSentRepeatedly(@TempDir Path dir) throws IOException {
+        Path file = Files.writeString(dir.resolve("upload.ndjson"), "{\"id\":1}\n{\"id\":2}\n");
+        RequestBody fileBody = RequestBody.of(file);
+        ByteBuffer buffer = ByteBuffer.wrap("bytes".getBytes(StandardCharsets.UTF_8));
+        RequestBody bufferBody = RequestBody.of(buffer);
+
+        for (int i = 0; i < 2; i++) {
+            assertEquals("{\"id\":1}\n{\"id\":2}\n", write(fileBody));
+            assertEquals("bytes", write(bufferBody));
+        }
+        assertEquals(Files.size(file), fileBody.getContentLength());
+        assertEquals(0, buffer.position());
+        assertTrue(fileBody.canSend());
+    }
+
+    @Test
+    void testInputStreamIsSentOnce() throws IOException {
+        RequestBody body = RequestBody.of(new ByteArrayInputStream("once".getBytes(StandardCharsets.UTF_8)));
+
+        assertTrue(body.canSend());
+        assertEquals("once", write(body));
+        assertFalse(body.canSend());
+        assertFalse(body.isReplayable());
+        assertEquals(-1, body.getContentLength());
+        assertThrows(IllegalStateException.class, () -> write(body));
+    }
+
+    @Test
+    void testPublisherIsWrittenWithBoundedPrefetch() throws IOException {
+        AtomicLong maxRequested = new AtomicLong();
+        Flow.Publisher<ByteBuffer> publisher = subscriber -> subscriber.onSubscribe(new Flow.Subscription() {
+            private long requested;
+            private int sent;
+
+            @Override
+            public void request(long n) {
+                requested += n;
+                maxRequested.accumulateAndGet(requested - sent, Math::max);
+                while (requested > sent && sent < 100) {
+                    sent++;
+                    subscriber.onNext(ByteBuffer.wrap("x".getBytes(StandardCharsets.UTF_8)));
+                }
+                if (sent == 100) {
+                    sent++;
+                    subscriber.onComplete();
+                }
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+
+        assertEquals("x".repeat(100), write(RequestBody.of(publisher)));
+        assertTrue(maxRequested.get() <= RequestBody.PUBLISHER_PREFETCH);
+    }
+
+    @Test
+    void testPublisherFailureFailsTheWrite() {
+        try (SubmissionPublisher<ByteBuffer> publisher = new SubmissionPublisher<>()) {
+            RequestBody body = RequestBody.of(publisher);
+            publisher.closeExceptionally(new IllegalStateException("generator failed"));
+            IOException ex = assertThrows(IOException.class, () -> write(body));
+            assertEquals("generator failed", ex.getCause().getMessage());
+        }
+    }
+
+    private static String write(RequestBody body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.commonlib.client;
+
+import com.example.commonlib.config.CacheProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseCacheTest {
+
+    @Test
+    void testTtlFollowsCacheControl() {
+        assertEquals(TimeUnit.SECONDS.toNanos(60), ResponseCache.ttlNanos(cacheControl("public, max-age=60"), null, 0));
+        assertEquals(0, ResponseCache.ttlNanos(cacheControl("no-cache, max-age=60"), null, 0));
+        assertEquals(-1, ResponseCache.ttlNanos(cacheControl("no-store"), 5000L, 0));
+        assertEquals(TimeUnit.SECONDS.toNanos(5), ResponseCache.ttlNanos(cacheControl("max-age=60"), 5000L, 0));
+        assertEquals(7, ResponseCache.ttlNanos(new HttpHeaders(), null, 7));
+
+        HttpHeaders aged = cacheControl("max-age=60");
+        aged.set(HttpHeaders.AGE, "45");
+        assertEquals(TimeUnit.SECONDS.toNanos(15), ResponseCache.ttlNanos(aged, null, 0));
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedByWeight() {
+        CacheProperties props = new CacheProperties();
+        props.setMaxWeightBytes(250);
+        ResponseCache cache = new ResponseCache(props);
+        RequestKey a = new RequestKey("http://host/a", String.class);
+        RequestKey b = new RequestKey("http://host/b", String.class);
+        RequestKey c = new RequestKey("http://host/c", String.class);
+
+        cache.store(a, response("a"), 100, null);
+        cache.store(b, response("b"), 100, null);
+        cache.get(a);
+        cache.store(c, response("c"), 100, null);
+
+        assertEquals(2, cache.size());
+        assertEquals(200, cache.weight());
+        assertEquals("a", cache.get(a).body());
+        assertNull(cache.get(b));
+        assertTrue(cache.get(c).isFresh(System.nanoTime()));
+    }
+
+    @Test
+    void testSkipsUncacheableResponses() {
+        ResponseCache cache = new ResponseCache(new CacheProperties());
+        RequestKey key = new RequestKey("http://host/a", String.class);
+
+        cache.store(key, ResponseEntity.ok().body("no validator, no max-age"), 24, null);
+        assertNull(cache.get(key));
+
+        cache.store(key, ResponseEntity.ok().eTag("\"v1\"").body("revalidate every time"), 21, null);
+        assertFalse(cache.get(key).isFresh(System.nanoTime()));
+
+        cache.store(key, ResponseEntity.ok().header(HttpHeaders.CACHE_CONTROL, "no-store").body("secret"), 6, null);
+        assertNull(cache.get(key));
+        assertEquals(0, cache.weight());
+    }
+
+    @Test
+    void testWeighsByBytesReadOverContentLength() {
+        ResponseCache cache = new ResponseCache(new CacheProperties());
+        RequestKey chunked = new RequestKey("http://host/chunked", String.class);
+        RequestKey decoded = new RequestKey("http://host/decoded", String.class);
+        RequestKey unknown = new RequestKey("http://host/unknown", String.class);
+
+        cache.store(chunked, response("chunked"), 5000, null);
+        assertEquals(5000, cache.weight());
+
+        // A decoded body outweighs the compressed length its headers announced
+        cache.store(decoded, ResponseEntity.ok()
+                .header(HttpHeaders.CACHE_CONTROL, "max-age=60")
+                .contentLength(300)
+                .body("decoded"), 2000, null);
+        assertEquals(7000, cache.weight());
+
+        cache.store(unknown, response("unknown"), -1, null);
+        assertEquals(7000 + ResponseCache.DEFAULT_WEIGHT, cache.weight());
+    }
+
+    private static HttpHeaders cacheControl(String value) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CACHE_CONTROL, value);
+        return headers;
+    }
+
+    private static ResponseEntity<String> response(String body) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CACHE_CONTROL, "max-age=60")
+                .body(body);
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.commonlib.client;
+
+import com.example.commonlib.config.RetryProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryExecutorTest {
+
+    private static RetryProperties retryProperties() {
+        RetryProperties props = new RetryProperties();
+        props.setMaxAttempts(3);
+        props.setBaseDelayMs(50);
+        props.setMaxDelayMs(200);
+        return props;
+    }
+
+    @Test
+    void testAttemptNumbersArePerCall() throws Exception {
+        RetryExecutor executor = new RetryExecutor(retryProperties());
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<List<Integer>>> results = new CopyOnWriteArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            results.add(pool.submit(() -> {
+                List<Integer> seen = new CopyOnWriteArrayList<>();
+                start.await();
+                return executor.executeWithRetry(attempt -> {
+                    seen.add(attempt);
+                    if (attempt < 3) {
+                        throw new IllegalStateException("fail " + attempt);
+                    }
+                    return seen;
+                });
+            }));
+        }
+        start.countDown();
+
+        for (Future<List<Integer>> result : results) {
+            assertEquals(List.of(1, 2, 3), result.get(5, TimeUnit.SECONDS));
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    void testAsyncRetryReturnsBeforeBackoffAndRecovers() throws Exception {
+        RetryExecutor executor = new RetryExecutor(retryProperties());
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> result = executor.executeAsync(attempt -> {
+            calls.incrementAndGet();
+            return attempt < 3
+                    ? CompletableFuture.failedFuture(new IllegalStateException("fail " + attempt))
+                    : CompletableFuture.completedFuture("ok after " + attempt);
+        });
+
+        // The first attempt fails synchronously, yet the caller gets the future back before any retry ran
+        assertFalse(result.isDone(), "executeAsync should not back off on the calling thread");
+
+        assertEquals("ok after 3", result.get(5, TimeUnit.SECONDS));
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void testAsyncRetryFailsWithLastException() {
+        RetryExecutor executor = new RetryExecutor(retryProperties());
+
+        CompletableFuture<String> result = executor.executeAsync(attempt ->
+                CompletableFuture.failedFuture(new IllegalStateException("fail " + attempt)));
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, ex.getCause());
+        assertEquals("fail 3", ex.getCause().getMessage());
+    }
+
+    @Test
+    void testExhaustedRetryBudgetFailsFast() throws Exception {
+        RetryProperties props = retryProperties();
+        props.setBaseDelayMs(500);
+        props.setBudgetPercent(10.0);
+        props.setBudgetMinRetriesPerSecond(0);
+        RetryExecutor executor = new RetryExecutor(props);
+        AtomicInteger calls = new AtomicInteger();
+
+        RetryExecutor.Attempt<String> failing = attempt -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("fail " + attempt);
+        };
+
+        // Nothing has succeeded yet, so there is nothing to spend on a retry
+        long start = System.nanoTime();
+        assertThrows(IllegalStateException.class, () -> executor.executeWithRetry(failing));
+        assertEquals(1, calls.get());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 500, "Should not back off");
+
+        // Ten successful first attempts at 10% earn exactly one retry
+        for (int i = 0; i < 10; i++) {
+            executor.executeWithRetry(attempt -> "ok");
+        }
+        calls.set(0);
+        assertThrows(IllegalStateException.class, () -> executor.executeWithRetry(failing));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testRetryBudgetReserveAllowsMinimumRetries() {
+        RetryProperties props = retryProperties();
+        props.setMaxAttempts(2);
+        props.setBaseDelayMs(1);
+        props.setBudgetPercent(10.0);
+        props.setBudgetMinRetriesPerSecond(3);
+        RetryExecutor executor = new RetryExecutor(props);
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 5; i++) {
+            assertThrows(IllegalStateException.class, () -> executor.executeWithRetry(attempt -> {
+                calls.incrementAndGet();
+                throw new IllegalStateException("fail " + attempt);
+            }));
+        }
+
+        // 5 first attempts plus the 3 retries the reserve allows within one second
+        assertEquals(8, calls.get());
+    }
+
+    @Test
+    void testStopsWhenBackoffDelayIsRefused() throws Exception {
+        RetryExecutor executor = new RetryExecutor(retryProperties());
+        AtomicInteger calls = new AtomicInteger();
+        List<Long> offeredDelays = new CopyOnWriteArrayList<>();
+        IllegalStateException failure = new IllegalStateException("down");
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> executor.executeWithRetry(attempt -> {
+                    calls.incrementAndGet();
+                    throw failure;
+                }, delayMs -> offeredDelays.add(delayMs) && offeredDelays.size() < 2));
+
+        assertEquals(failure, thrown);
+        assertEquals(2, calls.get());
+        assertEquals(2, offeredDelays.size());
+
+        ExecutionException async = assertThrows(ExecutionException.class,
+                () -> executor.executeAsync(attempt -> CompletableFuture.failedFuture(failure), delayMs -> false)
+                        .get(5, TimeUnit.SECONDS));
+        assertEquals(failure, async.getCause());
+    }
+}
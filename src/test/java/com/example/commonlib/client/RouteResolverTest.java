@@ -0,0 +1,67 @@
+package com.example.commonlib.client;
+
+import com.example.commonlib.config.RouteProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RouteResolverTest {
+
+    private static RouteProperties route(String host, String pathPrefix) {
+        RouteProperties props = new RouteProperties();
+        props.setHost(host);
+        props.setPathPrefix(pathPrefix);
+        return props;
+    }
+
+    private static String resolve(RouteResolver resolver, String url) {
+        RouteResolver.Route route = resolver.resolve(url);
+        return route != null ? route.name() : null;
+    }
+
+    @Test
+    void testPathPrefixMatchesWholeSegmentsOnly() {
+        RouteResolver resolver = new RouteResolver(Map.of("customers", route("api.example.com", "/customers")));
+
+        assertEquals("customers", resolve(resolver, "https://api.example.com/customers"));
+        assertEquals("customers", resolve(resolver, "https://api.example.com/customers/42"));
+        assertEquals("customers", resolve(resolver, "https://api.example.com/customers?page=2"));
+        assertEquals("customers", resolve(resolver, "https://api.example.com/customers#top"));
+
+        assertNull(resolve(resolver, "https://api.example.com/customers-v2/42"));
+        assertNull(resolve(resolver, "https://api.example.com/customersearch"));
+    }
+
+    @Test
+    void testLongestPathPrefixWins() {
+        Map<String, RouteProperties> routes = new LinkedHashMap<>();
+        routes.put("api", route("api.example.com", null));
+        routes.put("v1", route("api.example.com", "/v1/"));
+        routes.put("charges", route("api.example.com", "/v1/charges"));
+        RouteResolver resolver = new RouteResolver(routes);
+
+        assertEquals("charges", resolve(resolver, "http://api.example.com:8080/v1/charges/7"));
+        assertEquals("v1", resolve(resolver, "http://api.example.com/v1/chargesummary"));
+        assertEquals("api", resolve(resolver, "http://api.example.com/v2/charges"));
+        assertNull(resolve(resolver, "http://other.example.com/v1/charges"));
+    }
+
+    @Test
+    void testHostSpecificRoutesWinOverHostAgnosticOnes() {
+        Map<String, RouteProperties> routes = new LinkedHashMap<>();
+        routes.put("v1", route(null, "/v1"));
+        routes.put("partner", route("api.a.com", null));
+        routes.put("partner-v1", route("api.a.com", "/v1"));
+        routes.put("any-v1", route(null, "/v1/"));
+        RouteResolver resolver = new RouteResolver(routes);
+
+        assertEquals("partner-v1", resolve(resolver, "https://api.a.com/v1/orders"));
+        assertEquals("partner", resolve(resolver, "https://api.a.com/v2/orders"));
+        assertEquals("any-v1", resolve(resolver, "https://api.b.com/v1/orders"));
+        assertEquals("v1", resolve(resolver, "https://api.b.com/v1"));
+    }
+}
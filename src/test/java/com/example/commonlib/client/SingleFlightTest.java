@@ -0,0 +1,82 @@
+package com.example.commonlib.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    @Test
+    void testConcurrentCallersShareOneCall() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> singleFlight.execute("key", () -> {
+                calls.incrementAndGet();
+                entered.countDown();
+                await(release);
+                return "value";
+            })));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 7; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("key", () -> {
+                    calls.incrementAndGet();
+                    return "other";
+                })));
+            }
+            // Every follower has joined the flight before it completes
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("value", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, calls.get());
+            assertEquals(0, singleFlight.inFlight());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFollowersReceiveTheSameException() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<String> leader = singleFlight.executeAsync("key", () -> pending);
+        CompletableFuture<String> follower = singleFlight.executeAsync("key", CompletableFuture::new);
+
+        IllegalStateException failure = new IllegalStateException("down");
+        pending.completeExceptionally(failure);
+
+        assertSame(failure, assertThrows(ExecutionException.class, leader::get).getCause());
+        assertSame(failure, assertThrows(ExecutionException.class, follower::get).getCause());
+        assertEquals(0, singleFlight.inFlight());
+        assertEquals("next", singleFlight.execute("key", () -> "next"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
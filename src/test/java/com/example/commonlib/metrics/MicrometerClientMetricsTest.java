@@ -0,0 +1,122 @@
+package com.example.commonlib.metrics;
+
+import com.example.commonlib.client.CommonRestClient;
+import com.example.commonlib.config.CircuitBreakerProperties;
+import com.example.commonlib.config.RestClientProperties;
+import com.example.commonlib.config.RetryProperties;
+import com.example.commonlib.exception.RemoteServiceException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MicrometerClientMetricsTest {
+
+    private MockWebServer mockServer;
+    private SimpleMeterRegistry registry;
+    private CommonRestClient client;
+
+    @BeforeEach
+    void setup() throws IOException {
+        mockServer = new MockWebServer();
+        mockServer.start();
+        registry = new SimpleMeterRegistry();
+
+        RestClientProperties props = new RestClientProperties();
+        props.setConnectionTimeout(1000);
+        props.setReadTimeout(1000);
+
+        RetryProperties retryProps = new RetryProperties();
+        retryProps.setMaxAttempts(2);
+        retryProps.setBaseDelayMs(10);
+        retryProps.setMaxDelayMs(10);
+        props.setRetry(retryProps);
+
+        CircuitBreakerProperties cbProps = new CircuitBreakerProperties();
+        cbProps.setFailureThreshold(1);
+        cbProps.setOpenDurationMs(60000);
+        props.setCircuitBreaker(cbProps);
+
+        client = new CommonRestClient(props, new ObjectMapper(), new MicrometerClientMetrics(registry));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.close();
+        mockServer.shutdown();
+    }
+
+    @Test
+    void testRecordsAttemptsByStatusAndOutcome() {
+        mockServer.enqueue(new MockResponse().setResponseCode(503));
+        mockServer.enqueue(new MockResponse().setBody("ok").setResponseCode(200));
+
+        client.get(mockServer.url("/orders").toString(), String.class);
+
+        Timer failed = registry.get(MicrometerClientMetrics.REQUESTS)
+                .tags("method", "GET", "status", "503", "outcome", "SERVER_ERROR").timer();
+        Timer succeeded = registry.get(MicrometerClientMetrics.REQUESTS)
+                .tags("method", "GET", "status", "200", "outcome", "SUCCESS").timer();
+        assertEquals(1, failed.count());
+        assertEquals(1, succeeded.count());
+        assertEquals(1.0, registry.get(MicrometerClientMetrics.RETRIES).tag("method", "GET").counter().count());
+        assertEquals(0.0, registry.get(MicrometerClientMetrics.IN_FLIGHT).gauge().value());
+    }
+
+    @Test
+    void testTracksCircuitBreakerState() {
+        mockServer.enqueue(new MockResponse().setResponseCode(500));
+        mockServer.enqueue(new MockResponse().setResponseCode(500));
+        String url = mockServer.url("/failing").toString();
+
+        assertThrows(RemoteServiceException.class, () -> client.get(url, String.class));
+        assertEquals(1.0, registry.get(MicrometerClientMetrics.CIRCUIT_BREAKER_STATE)
+                .tag("state", "open").gauge().value());
+        assertEquals(0.0, registry.get(MicrometerClientMetrics.CIRCUIT_BREAKER_STATE)
+                .tag("state", "closed").gauge().value());
+        assertEquals(1.0, registry.get(MicrometerClientMetrics.CIRCUIT_BREAKER_TRANSITIONS)
+                .tags("from", "closed", "to", "open").counter().count());
+
+        assertThrows(RemoteServiceException.class, () -> client.get(url, String.class));
+        Timer rejected = registry.get(MicrometerClientMetrics.REQUESTS)
+                .tags("status", "503", "outcome", "REJECTED").timer();
+        assertNotNull(rejected);
+        assertEquals(1, rejected.count());
+    }
+
+    @Test
+    void testStopsCountingEvictedHostBreakers() throws Exception {
+        RestClientProperties props = new RestClientProperties();
+        CircuitBreakerProperties cbProps = new CircuitBreakerProperties();
+        cbProps.setIdleEvictionMs(50);
+        props.setCircuitBreaker(cbProps);
+        mockServer.enqueue(new MockResponse().setBody("first"));
+        mockServer.enqueue(new MockResponse().setBody("second"));
+
+        try (CommonRestClient hostClient = new CommonRestClient(props, new ObjectMapper(),
+                new MicrometerClientMetrics(registry))) {
+            hostClient.get("http://localhost:" + mockServer.getPort() + "/first", String.class);
+            assertEquals(1.0, registry.get(MicrometerClientMetrics.CIRCUIT_BREAKER_STATE)
+                    .tags("downstream", "localhost:" + mockServer.getPort(), "state", "closed").gauge().value());
+
+            Thread.sleep(100);
+            // The lookup for another host sweeps the idle one
+            hostClient.get("http://127.0.0.1:" + mockServer.getPort() + "/second", String.class);
+
+            assertEquals(0.0, registry.get(MicrometerClientMetrics.CIRCUIT_BREAKER_STATE)
+                    .tags("downstream", "localhost:" + mockServer.getPort(), "state", "closed").gauge().value());
+            assertEquals(1.0, registry.get(MicrometerClientMetrics.CIRCUIT_BREAKER_STATE)
+                    .tags("downstream", "127.0.0.1:" + mockServer.getPort(), "state", "closed").gauge().value());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.commonlib.tracing;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Collects exported spans for assertions.
+ */
+public class InMemorySpanExporter implements SpanExporter {
+
+    private final List<SpanData> spans = new CopyOnWriteArrayList<>();
+    private volatile boolean shutdown;
+
+    @Override
+    public void export(List<SpanData> batch) {
+        spans.addAll(batch);
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+    }
+
+    public List<SpanData> getFinishedSpans() {
+        return List.copyOf(spans);
+    }
+
+    public boolean isShutdown() {
+        return shutdown;
+    }
+}
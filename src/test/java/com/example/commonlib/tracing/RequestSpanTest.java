@@ -0,0 +1,47 @@
+package com.example.commonlib.tracing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestSpanTest {
+
+    @Test
+    void testSpanIdsAreFixedWidthAndDistinct() {
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            RequestSpan span = RequestSpan.start();
+            String id = span.getSpanId();
+            assertEquals(16, id.length());
+            assertEquals(id, span.getSpanId());
+            ids.add(id);
+        }
+        assertEquals(10_000, ids.size());
+    }
+
+    @Test
+    void testSamplingRate() {
+        assertTrue(RequestSpan.start(1.0).isSampled());
+        assertFalse(RequestSpan.start(0.0).isSampled());
+
+        int sampled = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (RequestSpan.start(0.1).isSampled()) {
+                sampled++;
+            }
+        }
+        assertTrue(sampled > 800 && sampled < 1200, "Sampled " + sampled);
+    }
+
+    @Test
+    void testUnsampledSpanStillHasIdForFailures() {
+        RequestSpan span = RequestSpan.start(0.0);
+        assertEquals(16, span.getSpanId().length());
+        assertTrue(span.elapsedNanos() >= 0);
+    }
+}
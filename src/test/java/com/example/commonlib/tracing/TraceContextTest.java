@@ -0,0 +1,61 @@
+package com.example.commonlib.tracing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TraceContextTest {
+
+    private static final String TRACEPARENT = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+
+    @Test
+    void testParsesAndFormatsTraceparent() {
+        TraceContext context = TraceContext.fromHeaders(TRACEPARENT, "congo=t61rcWkgMzE");
+
+        assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", context.getTraceId());
+        assertEquals("00f067aa0ba902b7", context.getSpanId());
+        assertTrue(context.isSampled());
+        assertEquals("congo=t61rcWkgMzE", context.getTraceState());
+        assertEquals(TRACEPARENT, context.toTraceparent());
+        assertFalse(TraceContext.fromHeaders(TRACEPARENT.replace("-01", "-00"), null).isSampled());
+    }
+
+    @Test
+    void testRejectsMalformedTraceparent() {
+        assertNull(TraceContext.fromHeaders(null, null));
+        assertNull(TraceContext.fromHeaders("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7", null));
+        assertNull(TraceContext.fromHeaders("00-00000000000000000000000000000000-00f067aa0ba902b7-01", null));
+        assertNull(TraceContext.fromHeaders("00-4bf92f3577b34da6a3ce929d0e0e4736-0000000000000000-01", null));
+        assertNull(TraceContext.fromHeaders("00-4BF92F3577B34DA6A3CE929D0E0E4736-00f067aa0ba902b7-01", null));
+        assertNull(TraceContext.fromHeaders("ff-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01", null));
+        assertNull(TraceContext.fromHeaders(TRACEPARENT + "-extra", null));
+    }
+
+    @Test
+    void testChildSpanJoinsCurrentTrace() {
+        TraceContext parent = TraceContext.fromHeaders(TRACEPARENT, "congo=t61rcWkgMzE");
+        try (TraceContext.Scope scope = parent.makeCurrent()) {
+            assertSame(parent, TraceContext.current());
+            RequestSpan span = RequestSpan.start(TraceContext.current(), 0.0);
+
+            assertTrue(span.isSampled());
+            assertEquals(parent.getTraceId(), span.getTraceId());
+            assertNotEquals(parent.getSpanId(), span.getSpanId());
+
+            Map<String, List<String>> headers = new HashMap<>();
+            span.inject(headers);
+            assertEquals(List.of("00-" + parent.getTraceId() + "-" + span.getSpanId() + "-01"), headers.get("traceparent"));
+            assertEquals(List.of("congo=t61rcWkgMzE"), headers.get("tracestate"));
+        }
+        assertNull(TraceContext.current());
+    }
+}